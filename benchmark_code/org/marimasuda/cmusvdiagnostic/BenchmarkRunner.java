@@ -0,0 +1,212 @@
+/**
+ * BenchmarkRunner.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A small harness for measuring the hot paths of the program.  Each
+ * benchmark is run for a number of timed warmup iterations, whose results
+ * are thrown away, followed by a number of timed measurement iterations.
+ * For every benchmark the runner reports the average time per operation
+ * and, like the JMH "gc" profiler, the number of bytes allocated per
+ * operation and the allocation rate.  Allocation is measured with the
+ * per-thread allocation counter of the HotSpot ThreadMXBean, so the
+ * numbers are only available on HotSpot-based JVMs.
+ */
+public class BenchmarkRunner {
+   /** the number of nanoseconds in one millisecond */
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   /** the number of bytes in one megabyte */
+   private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+   /** the number of operations run between clock readings */
+   private static final int BATCH_SIZE = 256;
+
+   /**
+    * One operation to be measured.  The value returned by run() is
+    * consumed by the runner so that the JIT compiler cannot remove the
+    * work as dead code.
+    */
+   public interface Workload {
+      /**
+       * Performs the operation once
+       * @return any value produced by the operation
+       */
+      Object run();
+   }
+
+   /** the registered benchmarks' names, in registration order */
+   private List<String> names;
+
+   /** the registered benchmarks' workloads, in registration order */
+   private List<Workload> workloads;
+
+   /** the number of warmup iterations to run */
+   private int warmupIterations;
+
+   /** the number of measurement iterations to run */
+   private int measurementIterations;
+
+   /** the length of each iteration in milliseconds */
+   private long iterationMillis;
+
+   /** only benchmarks whose names match this pattern are run */
+   private Pattern filter;
+
+   /** receives every value returned by a workload so that the values
+    * escape and cannot be optimized away
+    */
+   private Object blackhole;
+
+   /**
+    * Creates a runner with JMH-like defaults: 5 warmup iterations and 5
+    * measurement iterations of 1 second each
+    */
+   public BenchmarkRunner() {
+      names = new ArrayList<String>();
+      workloads = new ArrayList<Workload>();
+      warmupIterations = 5;
+      measurementIterations = 5;
+      iterationMillis = 1000;
+      filter = Pattern.compile(".*");
+   }
+
+   /**
+    * Applies the common command line options:
+    * <pre>
+    * -wi &lt;n&gt;   number of warmup iterations
+    * -i &lt;n&gt;    number of measurement iterations
+    * -r &lt;ms&gt;   length of each iteration in milliseconds
+    * &lt;regex&gt;   only run benchmarks whose names match
+    * </pre>
+    * @param args the command line arguments
+    * @return this runner
+    */
+   public BenchmarkRunner configure(String[] args) {
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-wi")) {
+            warmupIterations = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-i")) {
+            measurementIterations = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-r")) {
+            iterationMillis = Long.parseLong(args[++i]);
+         } else {
+            filter = Pattern.compile(args[i]);
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Registers a benchmark
+    * @param name the name shown in the report
+    * @param workload the operation to measure
+    */
+   public void add(String name, Workload workload) {
+      names.add(name);
+      workloads.add(workload);
+   }
+
+   /**
+    * Runs every registered benchmark whose name matches the filter and
+    * prints one line of results per benchmark
+    */
+   public void run() {
+      System.out.println(String.format(Locale.US,
+            "%-46s %12s %10s %12s %12s",
+            "Benchmark", "ns/op", "error", "B/op", "MB/sec"));
+      for (int i = 0; i < names.size(); i++) {
+         if (filter.matcher(names.get(i)).find()) {
+            run(names.get(i), workloads.get(i));
+         }
+      }
+   }
+
+   /**
+    * Private helper function to warm up and measure one benchmark
+    * @param name the name shown in the report
+    * @param workload the operation to measure
+    */
+   private void run(String name, Workload workload) {
+      for (int i = 0; i < warmupIterations; i++) {
+         iterate(workload);
+      }
+      double[] nanosPerOp = new double[measurementIterations];
+      double totalBytes = 0;
+      double totalOps = 0;
+      double totalNanos = 0;
+      for (int i = 0; i < measurementIterations; i++) {
+         long[] sample = iterate(workload);
+         nanosPerOp[i] = (double) sample[1] / sample[0];
+         totalOps += sample[0];
+         totalNanos += sample[1];
+         totalBytes += sample[2];
+      }
+
+      double mean = totalNanos / totalOps;
+      double variance = 0;
+      for (double value : nanosPerOp) {
+         variance += (value - mean) * (value - mean);
+      }
+      double error = (measurementIterations > 1
+                      ? Math.sqrt(variance / (measurementIterations - 1))
+                      : 0);
+      double bytesPerOp = (totalBytes < 0 ? Double.NaN : totalBytes / totalOps);
+      double mbPerSecond = (totalBytes < 0
+                            ? Double.NaN
+                            : totalBytes / BYTES_PER_MB / (totalNanos / 1e9));
+      System.out.println(String.format(Locale.US,
+            "%-46s %12.1f %10.1f %12.1f %12.1f",
+            name, mean, error, bytesPerOp, mbPerSecond));
+   }
+
+   /**
+    * Private helper function to run a workload for one iteration
+    * @param workload the operation to measure
+    * @return the number of operations, the elapsed nanoseconds, and the
+    *         number of bytes allocated (negative if unavailable)
+    */
+   private long[] iterate(Workload workload) {
+      long deadline = iterationMillis * NANOS_PER_MILLI;
+      long operations = 0;
+      long startBytes = allocatedBytes();
+      long start = System.nanoTime();
+      long elapsed;
+      do {
+         for (int i = 0; i < BATCH_SIZE; i++) {
+            blackhole = workload.run();
+         }
+         operations += BATCH_SIZE;
+         elapsed = System.nanoTime() - start;
+      } while (elapsed < deadline);
+      long endBytes = allocatedBytes();
+      long bytes = (startBytes < 0 ? -1 : endBytes - startBytes);
+      return new long[] { operations, elapsed, bytes };
+   }
+
+   /**
+    * @return the number of bytes allocated so far by the current thread, or
+    *         -1 if the JVM cannot report it
+    */
+   static long allocatedBytes() {
+      java.lang.management.ThreadMXBean bean =
+         ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+         return ((com.sun.management.ThreadMXBean) bean)
+               .getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return -1;
+   }
+}
@@ -0,0 +1,314 @@
+/**
+ * DateIndexCheck.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks DateIndex.find() and DateIndex.count() against a brute-force
+ * search.  For each of a number of random booking windows, from a single
+ * day to a few years, IDs are added with random dates and removed at
+ * random, and the IDs in random ranges are compared with those found by
+ * looking at every date.  The dates include times of day in the middle of
+ * slots, UNSET, and days up to a month either side of the window, which
+ * go in the bucket for dates outside it.  The ranges include ones that
+ * start or end partway through a slot, ones made of whole slots, ones
+ * that end on or just beyond the first and last days of the window and
+ * so the first and last nodes of the Fenwick tree, ones wholly outside
+ * the window, and empty ones that end before they start.  Run with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.DateIndexCheck \
+ *      [-w windows] [-n operations per window] [-seed seed]
+ * </pre>
+ * It prints the mismatches it finds and exits with status 1 if there are
+ * any.
+ */
+public class DateIndexCheck {
+   /** the first day that a window can start on */
+   private static final LocalDate EARLIEST_DAY = LocalDate.of(2010, 1, 1);
+
+   /** the number of days after EARLIEST_DAY that a window can start on */
+   private static final int START_DAYS = 900;
+
+   /** the most days a window can have after its first */
+   private static final int MAX_WINDOW_DAYS = 800;
+
+   /** how many days either side of a window random dates can fall on */
+   private static final int OUTSIDE_DAYS = 31;
+
+   /** the number of hours in a day */
+   private static final int HOURS_PER_DAY = 24;
+
+   /** the number of kinds of range that randomRange() makes */
+   private static final int RANGE_KINDS = 6;
+
+   /** the most mismatches printed before the rest are only counted */
+   private static final int MAX_REPORTED = 20;
+
+   /** the number of mismatches found */
+   private static int failures = 0;
+
+   /**
+    * Runs the check
+    * @param args the command line arguments (see the class comment)
+    */
+   public static void main(String[] args) {
+      int windows = 40;
+      int operations = 5000;
+      long seed = System.nanoTime();
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-w")) {
+            windows = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-n")) {
+            operations = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-seed")) {
+            seed = Long.parseLong(args[++i]);
+         }
+      }
+      System.out.println("Windows: " + windows + ", operations: "
+                         + operations + ", seed: " + seed);
+
+      Random random = new Random(seed);
+      long queries = 0;
+      for (int w = 0; w < windows; w++) {
+         LocalDate first = EARLIEST_DAY.plusDays(random.nextInt(START_DAYS));
+         // every fourth window is a single day
+         LocalDate last = (w % 4 == 0
+                           ? first
+                           : first.plusDays(random.nextInt(MAX_WINDOW_DAYS)));
+         queries += checkWindow(new BookingWindow(first, last), operations,
+                                random);
+      }
+
+      if (failures == 0) {
+         System.out.println("OK: " + queries + " ranges checked");
+      } else {
+         System.out.println("FAILED: " + failures + " mismatches in "
+                            + queries + " ranges");
+         System.exit(1);
+      }
+   }
+
+   /**
+    * Private helper function to add, remove, and look up random IDs in an
+    * index of one window, comparing it with a map of the IDs it should
+    * hold
+    * @return the number of ranges checked
+    */
+   private static long checkWindow(BookingWindow window, int operations,
+                                   Random random) {
+      DateIndex index = new DateIndex(window);
+      Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+      int nextId = 0;
+      long queries = 0;
+      for (int op = 0; op < operations; op++) {
+         int choice = random.nextInt(10);
+         if (choice < 5) {
+            // a new ID, or now and then one that was removed
+            int id = (nextId > 0 && random.nextInt(8) == 0
+                      ? random.nextInt(nextId) : nextId++);
+            int date = randomDate(window, random);
+            if (expected.containsKey(id)) {
+               try {
+                  index.add(id, date);
+                  fail(window, "ID " + id + " was added twice");
+               } catch (IllegalArgumentException iae) {
+                  // expected
+               }
+            } else {
+               index.add(id, date);
+               expected.put(id, date);
+            }
+         } else if (choice < 7) {
+            // an ID that may never have been added
+            int id = random.nextInt(nextId + 2);
+            boolean removed = (expected.remove(id) != null);
+            if (index.remove(id) != removed) {
+               fail(window, "remove(" + id + ") returned " + !removed);
+            }
+         } else {
+            int[] range = randomRange(window, random);
+            checkRange(window, index, expected, range[0], range[1]);
+            queries++;
+         }
+      }
+      if (index.size() != expected.size()) {
+         fail(window, "size() is " + index.size() + ", not "
+                      + expected.size());
+      }
+      for (int id = 0; id < nextId; id++) {
+         if (index.contains(id) != expected.containsKey(id)) {
+            fail(window, "contains(" + id + ") is " + index.contains(id));
+         }
+      }
+      // everything, including the dates outside the window
+      checkRange(window, index, expected, PackedDate.UNSET,
+                 PackedDate.pack(PackedDate.MAX_ENCODABLE_YEAR,
+                                 GregorianCalendar.DECEMBER, 31,
+                                 HOURS_PER_DAY - 1));
+      return queries + 1;
+   }
+
+   /**
+    * Private helper function to compare the IDs an index finds and
+    * counts in a range with the ones it should hold
+    */
+   private static void checkRange(BookingWindow window, DateIndex index,
+                                  Map<Integer, Integer> expected,
+                                  int from, int to) {
+      int[] wanted = new int[expected.size()];
+      int numWanted = 0;
+      for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+         int date = entry.getValue();
+         if (PackedDate.compare(date, from) >= 0
+             && PackedDate.compare(date, to) <= 0) {
+            wanted[numWanted++] = entry.getKey();
+         }
+      }
+      wanted = Arrays.copyOf(wanted, numWanted);
+      Arrays.sort(wanted);
+      int[] found = index.find(from, to);
+      Arrays.sort(found);
+      if (!Arrays.equals(found, wanted)) {
+         fail(window, "find(" + describe(from) + ", " + describe(to)
+                      + ") found " + found.length + " IDs, not "
+                      + wanted.length);
+      }
+      int counted = index.count(from, to);
+      if (counted != wanted.length) {
+         fail(window, "count(" + describe(from) + ", " + describe(to)
+                      + ") is " + counted + ", not " + wanted.length);
+      }
+   }
+
+   /**
+    * Private helper function to choose a date on a random day in or near
+    * a window, at the start of a slot or at any hour, or now and then
+    * UNSET
+    */
+   private static int randomDate(BookingWindow window, Random random) {
+      if (random.nextInt(50) == 0) {
+         return PackedDate.UNSET;
+      }
+      int hour = (random.nextInt(4) == 0
+                  ? random.nextInt(HOURS_PER_DAY)
+                  : DateIndex.SLOT_HOURS[
+                       random.nextInt(DateIndex.SLOTS_PER_DAY)]);
+      return randomDay(window, random, hour);
+   }
+
+   /**
+    * Private helper function to choose a random day in a window, or more
+    * rarely one up to OUTSIDE_DAYS before or after it
+    */
+   private static int randomDay(BookingWindow window, Random random,
+                                int hour) {
+      int days = window.getDayCount();
+      int offset = (random.nextInt(10) == 0
+                    ? random.nextInt(days + 2 * OUTSIDE_DAYS) - OUTSIDE_DAYS
+                    : random.nextInt(days));
+      return pack(window.getFirstDay().plusDays(offset), hour);
+   }
+
+   /**
+    * Private helper function to choose a range of one of RANGE_KINDS kinds
+    * @return the first and last packed dates of the range
+    */
+   private static int[] randomRange(BookingWindow window, Random random) {
+      int from;
+      int to;
+      switch (random.nextInt(RANGE_KINDS)) {
+      case 0:
+         // any two dates, which may be in either order
+         from = randomDate(window, random);
+         to = randomDate(window, random);
+         break;
+      case 1:
+         // part of one day, likely starting and ending partway through
+         // a slot
+         from = randomDay(window, random, random.nextInt(HOURS_PER_DAY));
+         to = PackedDate.withHour(
+               from, PackedDate.getHour(from)
+                     + random.nextInt(HOURS_PER_DAY
+                                      - PackedDate.getHour(from)));
+         break;
+      case 2:
+         // whole slots, from the first hour of one to the last of another
+         from = randomDay(window, random, DateIndex.SLOT_HOURS[
+                             random.nextInt(DateIndex.SLOTS_PER_DAY)]);
+         int slot = random.nextInt(DateIndex.SLOTS_PER_DAY);
+         to = randomDay(window, random,
+                        (slot + 1 < DateIndex.SLOTS_PER_DAY
+                         ? DateIndex.SLOT_HOURS[slot + 1] - 1
+                         : HOURS_PER_DAY - 1));
+         break;
+      case 3:
+         // from on or just before the first day of the window
+         from = pack(window.getFirstDay().minusDays(random.nextInt(2)),
+                     random.nextInt(HOURS_PER_DAY));
+         to = randomDate(window, random);
+         break;
+      case 4:
+         // to on or just after the last day of the window
+         from = randomDate(window, random);
+         to = pack(window.getLastDay().plusDays(random.nextInt(2)),
+                   random.nextInt(HOURS_PER_DAY));
+         break;
+      default:
+         // the whole window, or all of it and some of the days around it
+         from = (random.nextBoolean()
+                 ? window.getMinDate()
+                 : pack(window.getFirstDay().minusDays(OUTSIDE_DAYS), 0));
+         to = (random.nextBoolean()
+               ? window.getMaxDate()
+               : pack(window.getLastDay().plusDays(OUTSIDE_DAYS),
+                      HOURS_PER_DAY - 1));
+         break;
+      }
+      return new int[] {from, to};
+   }
+
+   /**
+    * Private helper function to pack a day and an hour
+    */
+   private static int pack(LocalDate day, int hour) {
+      return PackedDate.pack(day.getYear(),
+                             day.getMonthValue() - 1
+                             + GregorianCalendar.JANUARY,
+                             day.getDayOfMonth(), hour);
+   }
+
+   /**
+    * Private helper function to describe a packed date in a message
+    */
+   private static String describe(int date) {
+      if (!PackedDate.isSet(date)) {
+         return "UNSET";
+      }
+      return PackedDate.getYear(date) + "-"
+             + (PackedDate.getMonth(date) - GregorianCalendar.JANUARY + 1)
+             + "-" + PackedDate.getDay(date) + " "
+             + PackedDate.getHour(date);
+   }
+
+   /**
+    * Private helper function to report a mismatch
+    */
+   private static void fail(BookingWindow window, String message) {
+      failures++;
+      if (failures <= MAX_REPORTED) {
+         System.out.println("FAIL: " + window + ": " + message);
+      }
+   }
+}
@@ -0,0 +1,198 @@
+/**
+ * ReservationLogBenchmark.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many reservations per second ReservationLog commits to disk
+ * when many threads book at once, and how long each commit waits, compared
+ * with a log that forces the file once per reservation, which is what
+ * group commit is designed to avoid.  The results depend almost entirely
+ * on how fast the disk under the log directory forces a file.  Run with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.ReservationLogBenchmark \
+ *      [-t threads] [-r millis] [-i iterations] [-d directory]
+ * </pre>
+ */
+public class ReservationLogBenchmark {
+   /** the number of nanoseconds in one millisecond */
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   /** the number of nanoseconds in one microsecond */
+   private static final double NANOS_PER_MICRO = 1000.0;
+
+   /**
+    * One way of making a reservation durable
+    */
+   private interface Log {
+      /**
+       * Returns once the reservation is on disk
+       * @param reservation the reservation
+       * @throws IOException if the log cannot be written
+       */
+      void append(Reservation reservation) throws IOException;
+   }
+
+   /**
+    * Runs the benchmark
+    * @param args the command line arguments (see the class comment)
+    * @throws IOException if the logs cannot be written
+    * @throws InterruptedException if interrupted while waiting for the
+    *         threads
+    */
+   public static void main(String[] args)
+         throws IOException, InterruptedException {
+      int threads = 16;
+      long millis = 1000;
+      int iterations = 3;
+      Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-t")) {
+            threads = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-r")) {
+            millis = Long.parseLong(args[++i]);
+         } else if (args[i].equals("-i")) {
+            iterations = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-d")) {
+            directory = Paths.get(args[++i]);
+         }
+      }
+
+      final Reservation reservation = Reservation.intern(new Reservation(
+            "San Francisco", "Boston",
+            PackedDate.pack(2011, GregorianCalendar.MARCH, 14,
+                            DatePickerController.MORNING_HOUR),
+            PackedDate.pack(2011, GregorianCalendar.MARCH, 20,
+                            DatePickerController.ANYTIME_HOUR),
+            2));
+      Path groupFile = Files.createTempFile(directory, "group", ".log");
+      Path singleFile = Files.createTempFile(directory, "single", ".log");
+      Files.delete(groupFile);
+      final ReservationLog groupLog = new ReservationLog(groupFile);
+      final FileChannel singleChannel =
+         FileChannel.open(singleFile, StandardOpenOption.WRITE);
+      Log grouped = new Log() {
+         @Override
+         public void append(Reservation reservation) throws IOException {
+            groupLog.append(reservation);
+         }
+      };
+      Log single = new Log() {
+         /** holds one record */
+         private final ByteBuffer record =
+            ByteBuffer.allocate(BinaryReservationFormat.RECORD_SIZE);
+
+         @Override
+         public synchronized void append(Reservation reservation)
+               throws IOException {
+            record.clear();
+            record.putInt(reservation.getDepartureCityId())
+                  .putInt(reservation.getArrivalCityId())
+                  .putInt(reservation.getDepartureDate())
+                  .putInt(reservation.getReturnDate())
+                  .put((byte) reservation.getNumPassengers());
+            record.flip();
+            while (record.hasRemaining()) {
+               singleChannel.write(record);
+            }
+            singleChannel.force(false);
+         }
+      };
+
+      try {
+         System.out.println("Threads: " + threads + ", directory: "
+                            + directory);
+         System.out.println(String.format(Locale.US, "%-28s %12s %12s %12s",
+                                          "Benchmark", "commits/sec",
+                                          "per force", "p99 us"));
+         for (int i = 0; i < iterations; i++) {
+            LatencyHistogram latencies = new LatencyHistogram();
+            long groups = groupLog.getGroupCount();
+            long commits = measure(grouped, reservation, threads, millis,
+                                   latencies);
+            report("group commit", commits, millis,
+                   (double) commits / (groupLog.getGroupCount() - groups),
+                   latencies);
+            latencies = new LatencyHistogram();
+            commits = measure(single, reservation, threads, millis,
+                              latencies);
+            report("force per reservation", commits, millis, 1, latencies);
+         }
+      } finally {
+         groupLog.close();
+         singleChannel.close();
+         Files.deleteIfExists(groupFile);
+         Files.deleteIfExists(singleFile);
+      }
+   }
+
+   /**
+    * Private helper function to run one scenario
+    * @return the number of reservations committed
+    */
+   private static long measure(final Log log, final Reservation reservation,
+                               int threads, final long millis,
+                               final LatencyHistogram latencies)
+         throws InterruptedException {
+      final LongAdder commits = new LongAdder();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] workers = new Thread[threads];
+      for (int i = 0; i < threads; i++) {
+         workers[i] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  start.await();
+                  long deadline = System.nanoTime() + millis * NANOS_PER_MILLI;
+                  long now;
+                  do {
+                     long begin = System.nanoTime();
+                     log.append(reservation);
+                     now = System.nanoTime();
+                     latencies.record(now - begin);
+                     commits.increment();
+                  } while (now < deadline);
+               } catch (InterruptedException ie) {
+                  return;
+               } catch (IOException ioe) {
+                  throw new RuntimeException(ioe);
+               }
+            }
+         });
+         workers[i].start();
+      }
+      start.countDown();
+      for (Thread worker : workers) {
+         worker.join();
+      }
+      return commits.sum();
+   }
+
+   /**
+    * Private helper function to print one line of results
+    */
+   private static void report(String name, long commits, long millis,
+                              double perForce, LatencyHistogram latencies) {
+      System.out.println(String.format(
+            Locale.US, "%-28s %12.0f %12.1f %12.1f",
+            name, commits * 1000.0 / millis, perForce,
+            latencies.getPercentile(99) / NANOS_PER_MICRO));
+   }
+}
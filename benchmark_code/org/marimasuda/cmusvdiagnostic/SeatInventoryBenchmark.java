@@ -0,0 +1,170 @@
+/**
+ * SeatInventoryBenchmark.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how SeatInventory behaves when many threads book at once.  Each
+ * thread repeatedly takes a seat and gives it back, either each on a
+ * flight of its own or all on the same flight, and the throughput is
+ * compared with an inventory guarded by a single lock, which is what
+ * SeatInventory is designed to avoid.  BenchmarkRunner only measures one
+ * thread, so this benchmark has its own harness.  Run with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.SeatInventoryBenchmark \
+ *      [-t threads] [-r millis] [-i iterations]
+ * </pre>
+ */
+public class SeatInventoryBenchmark {
+   /** the number of seats on each flight, enough that none fills up */
+   private static final int SEATS_PER_FLIGHT = 1000000;
+
+   /** the number of bookings made between clock readings */
+   private static final int BATCH_SIZE = 256;
+
+   /** the number of nanoseconds in one millisecond */
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   /**
+    * One way of taking and giving back a seat
+    */
+   private interface Inventory {
+      /**
+       * Takes a seat on a flight and gives it back
+       * @param route distinguishes the flight
+       * @param date the packed departure date (see PackedDate)
+       */
+      void book(int route, int date);
+   }
+
+   /**
+    * Runs the benchmark
+    * @param args the command line arguments (see the class comment)
+    * @throws InterruptedException if interrupted while waiting for the
+    *         threads
+    */
+   public static void main(String[] args) throws InterruptedException {
+      int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+      long millis = 1000;
+      int iterations = 3;
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-t")) {
+            threads = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-r")) {
+            millis = Long.parseLong(args[++i]);
+         } else if (args[i].equals("-i")) {
+            iterations = Integer.parseInt(args[++i]);
+         }
+      }
+
+      final int date = PackedDate.pack(2011, GregorianCalendar.MARCH, 14,
+                                       DatePickerController.MORNING_HOUR);
+      final SeatInventory seats = new SeatInventory(SEATS_PER_FLIGHT);
+      Inventory striped = new Inventory() {
+         @Override
+         public void book(int route, int date) {
+            if (seats.reserve(route, route + 1, date, 1)) {
+               seats.release(route, route + 1, date, 1);
+            }
+         }
+      };
+      Inventory locked = new Inventory() {
+         /** the free seats on each flight, guarded by this */
+         private final Map<Long, Integer> free = new HashMap<Long, Integer>();
+
+         @Override
+         public synchronized void book(int route, int date) {
+            Long flight = ((long) route << 32) | (date & 0xFFFFFFFFL);
+            Integer left = free.get(flight);
+            int count = (left == null ? SEATS_PER_FLIGHT : left);
+            if (count > 0) {
+               free.put(flight, count - 1);
+               free.put(flight, count);
+            }
+         }
+      };
+
+      System.out.println("Threads: " + threads);
+      System.out.println(String.format(Locale.US, "%-36s %14s %12s",
+                                       "Benchmark", "bookings/sec",
+                                       "CAS retries"));
+      for (int i = 0; i < iterations; i++) {
+         long retries = seats.getRetryCount();
+         report("SeatInventory, distinct flights",
+                measure(striped, threads, false, date, millis),
+                seats.getRetryCount() - retries);
+         retries = seats.getRetryCount();
+         report("SeatInventory, one flight",
+                measure(striped, threads, true, date, millis),
+                seats.getRetryCount() - retries);
+         report("single lock, distinct flights",
+                measure(locked, threads, false, date, millis), -1);
+         report("single lock, one flight",
+                measure(locked, threads, true, date, millis), -1);
+      }
+   }
+
+   /**
+    * Private helper function to run one scenario
+    * @return the number of bookings per second
+    */
+   private static double measure(final Inventory inventory, int threads,
+                                 final boolean sameFlight, final int date,
+                                 final long millis)
+         throws InterruptedException {
+      final LongAdder bookings = new LongAdder();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] workers = new Thread[threads];
+      for (int i = 0; i < threads; i++) {
+         final int route = (sameFlight ? 1 : 2 * i + 1);
+         workers[i] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  start.await();
+               } catch (InterruptedException ie) {
+                  return;
+               }
+               long deadline = System.nanoTime() + millis * NANOS_PER_MILLI;
+               long count = 0;
+               do {
+                  for (int j = 0; j < BATCH_SIZE; j++) {
+                     inventory.book(route, date);
+                  }
+                  count += BATCH_SIZE;
+               } while (System.nanoTime() < deadline);
+               bookings.add(count);
+            }
+         });
+         workers[i].start();
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Thread worker : workers) {
+         worker.join();
+      }
+      double seconds = (System.nanoTime() - begin) / 1e9;
+      return bookings.sum() / seconds;
+   }
+
+   /**
+    * Private helper function to print one line of results
+    */
+   private static void report(String name, double perSecond, long retries) {
+      System.out.println(String.format(Locale.US, "%-36s %14.0f %12s",
+                                       name, perSecond,
+                                       (retries < 0 ? "-" : "" + retries)));
+   }
+}
@@ -0,0 +1,358 @@
+/**
+ * TimingWheelCheck.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that a TimingWheel runs each task on time.  Tasks are scheduled
+ * with random delays spread evenly over all TimingWheel.LEVELS wheels, so
+ * that they are placed in every wheel and moved down through the ones
+ * below it, and about a third of them are cancelled, either at once or
+ * at random moments while the others wait.  The check then asserts that
+ * no cancelled task ran, and that every other task ran exactly once, no
+ * earlier than its deadline and within one tick of it.
+ *
+ * The wheel's thread may wake up late, which on a busy machine takes far
+ * longer than a tick, and then runs every task that has come due at once.
+ * So a task counts as within one tick of its deadline if no task due more
+ * than a tick after it ran before it, which holds however late the thread
+ * is, and if it ran no later than the allowed lateness after its tick,
+ * which catches tasks that never come due.  The check also asserts that a
+ * failing task is counted and passed to the UncaughtExceptionHandler.
+ *
+ * The highest wheel starts SLOTS^(LEVELS - 1) ticks ahead, so the default
+ * tick of 25 us makes the check take about seven seconds.  Run with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.TimingWheelCheck \
+ *      [-n tasks] [-t tick micros] [-s allowed lateness micros]
+ *      [-seed seed]
+ * </pre>
+ * It prints the failures it finds and exits with status 1 if there are
+ * any.
+ */
+public class TimingWheelCheck {
+   /** the number of nanoseconds in one microsecond */
+   private static final long NANOS_PER_MICRO = 1000L;
+
+   /** the number of nanoseconds in one millisecond */
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   /** how many ticks the last task may be due after the highest wheel
+    * starts, which limits how long the check takes
+    */
+   private static final long HIGHEST_LEVEL_TICKS = 20000;
+
+   /** the number of tasks scheduled between pauses that let the wheel's
+    * thread run, so that it does not fall behind on a single processor
+    */
+   private static final int BATCH_SIZE = 100;
+
+   /** the most failures printed before the rest are only counted */
+   private static final int MAX_REPORTED = 20;
+
+   /** the number of failures found */
+   private static int failures = 0;
+
+   /**
+    * Runs the check
+    * @param args the command line arguments (see the class comment)
+    * @throws InterruptedException if interrupted while waiting for the
+    *         tasks
+    */
+   public static void main(String[] args) throws InterruptedException {
+      int tasks = 20000;
+      long tickMicros = 25;
+      long slackMicros = 50000;
+      long seed = System.nanoTime();
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-n")) {
+            tasks = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-t")) {
+            tickMicros = Long.parseLong(args[++i]);
+         } else if (args[i].equals("-s")) {
+            slackMicros = Long.parseLong(args[++i]);
+         } else if (args[i].equals("-seed")) {
+            seed = Long.parseLong(args[++i]);
+         }
+      }
+      System.out.println("Tasks: " + tasks + ", tick: " + tickMicros
+                         + " us, allowed lateness: " + slackMicros
+                         + " us, seed: " + seed);
+
+      long tickNanos = tickMicros * NANOS_PER_MICRO;
+      TimingWheel wheel = new TimingWheel(tickMicros, TimeUnit.MICROSECONDS,
+                                          "Checked wheel");
+      checkDeadlines(wheel, tasks, tickNanos,
+                     slackMicros * NANOS_PER_MICRO, new Random(seed));
+      checkFailure(wheel, tickNanos);
+      wheel.stop();
+
+      if (failures == 0) {
+         System.out.println("OK: " + wheel);
+      } else {
+         System.out.println("FAILED: " + failures + " failures; " + wheel);
+         System.exit(1);
+      }
+   }
+
+   /**
+    * Private helper function to schedule and cancel random tasks and
+    * check when each of them ran
+    */
+   private static void checkDeadlines(TimingWheel wheel, int tasks,
+                                      long tickNanos, long slackNanos,
+                                      Random random)
+         throws InterruptedException {
+      final AtomicLongArray ranAt = new AtomicLongArray(tasks);
+      final AtomicLongArray runs = new AtomicLongArray(tasks);
+      long[] earliest = new long[tasks];
+      long[] deadline = new long[tasks];
+      int[] level = new int[tasks];
+      TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[tasks];
+      boolean[] cancelled = new boolean[tasks];
+      long lastDeadline = 0;
+      for (int i = 0; i < tasks; i++) {
+         level[i] = random.nextInt(TimingWheel.LEVELS);
+         long delay = randomDelay(level[i], random) * tickNanos
+                      + random.nextInt((int) tickNanos);
+         final int task = i;
+         long before = System.nanoTime();
+         timeouts[i] = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+               ranAt.set(task, System.nanoTime());
+               runs.incrementAndGet(task);
+            }
+         }, delay, TimeUnit.NANOSECONDS);
+         long after = System.nanoTime();
+         earliest[i] = before + delay;
+         deadline[i] = after + delay;
+         // tasks due soon are cancelled at once, often before the wheel's
+         // thread has put them in a slot
+         cancelled[i] = (level[i] < 2 && random.nextInt(3) == 0
+                         && timeouts[i].cancel());
+         lastDeadline = Math.max(lastDeadline, after + delay);
+         if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+            Thread.sleep(1);
+         }
+      }
+
+      // cancel about a third of the other tasks at random moments while
+      // the wheel runs, some before and some after they are due
+      final long[] cancelAt = new long[tasks];
+      Integer[] order = new Integer[tasks];
+      for (int i = 0; i < tasks; i++) {
+         order[i] = i;
+         cancelAt[i] = (!cancelled[i] && random.nextInt(3) == 0
+                        ? System.nanoTime() + (long) (random.nextDouble()
+                              * (lastDeadline - System.nanoTime()))
+                        : Long.MAX_VALUE);
+      }
+      Arrays.sort(order, new Comparator<Integer>() {
+         @Override
+         public int compare(Integer a, Integer b) {
+            return Long.compare(cancelAt[a], cancelAt[b]);
+         }
+      });
+      for (int i : order) {
+         if (cancelAt[i] == Long.MAX_VALUE) {
+            break;
+         }
+         long wait = cancelAt[i] - System.nanoTime();
+         if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+         }
+         cancelled[i] = timeouts[i].cancel();
+      }
+
+      long wait = lastDeadline + 2 * (tickNanos + slackNanos)
+                  - System.nanoTime();
+      if (wait > 0) {
+         TimeUnit.NANOSECONDS.sleep(wait);
+      }
+
+      int[] ran = new int[TimingWheel.LEVELS];
+      int[] skipped = new int[TimingWheel.LEVELS];
+      for (int i = 0; i < tasks; i++) {
+         if (cancelled[i]) {
+            skipped[level[i]]++;
+            if (runs.get(i) != 0 || !timeouts[i].isCancelled()) {
+               fail("task " + i + " ran after it was cancelled");
+            }
+            continue;
+         }
+         ran[level[i]]++;
+         if (runs.get(i) != 1 || !timeouts[i].isExpired()) {
+            fail("task " + i + " in level " + level[i] + " ran "
+                 + runs.get(i) + " times");
+         } else if (ranAt.get(i) < earliest[i]) {
+            fail("task " + i + " in level " + level[i] + " ran "
+                 + (earliest[i] - ranAt.get(i)) / NANOS_PER_MICRO
+                 + " us early");
+         } else if (ranAt.get(i) > deadline[i] + tickNanos + slackNanos) {
+            fail("task " + i + " in level " + level[i] + " ran "
+                 + (ranAt.get(i) - deadline[i]) / NANOS_PER_MICRO
+                 + " us late");
+         }
+      }
+      checkOrder(ranAt, earliest, deadline, cancelled, tickNanos);
+      for (int l = 0; l < TimingWheel.LEVELS; l++) {
+         System.out.println("Level " + l + ": " + ran[l] + " ran, "
+                            + skipped[l] + " cancelled");
+      }
+      if (wheel.getPendingCount() != 0) {
+         fail(wheel.getPendingCount() + " tasks still pending");
+      }
+   }
+
+   /**
+    * Private helper function to check that no task ran after a task that
+    * was due more than a tick later
+    * @param ranAt when each task ran
+    * @param earliest the earliest each task can have been due
+    * @param deadline the latest each task can have been due
+    * @param cancelled which tasks were cancelled
+    */
+   private static void checkOrder(AtomicLongArray ranAt,
+                                  final long[] earliest, long[] deadline,
+                                  boolean[] cancelled, long tickNanos) {
+      int count = 0;
+      Integer[] order = new Integer[earliest.length];
+      for (int i = 0; i < earliest.length; i++) {
+         if (!cancelled[i]) {
+            order[count++] = i;
+         }
+      }
+      order = Arrays.copyOf(order, count);
+      Arrays.sort(order, new Comparator<Integer>() {
+         @Override
+         public int compare(Integer a, Integer b) {
+            return Long.compare(earliest[a], earliest[b]);
+         }
+      });
+      // firstRun[k] is the earliest any of order[k..] ran
+      long[] firstRun = new long[count + 1];
+      firstRun[count] = Long.MAX_VALUE;
+      for (int k = count - 1; k >= 0; k--) {
+         firstRun[k] = Math.min(firstRun[k + 1], ranAt.get(order[k]));
+      }
+      long[] sorted = new long[count];
+      for (int k = 0; k < count; k++) {
+         sorted[k] = earliest[order[k]];
+      }
+      for (int i = 0; i < earliest.length; i++) {
+         if (cancelled[i]) {
+            continue;
+         }
+         // the first task that is surely due on a later tick than task i
+         int k = Arrays.binarySearch(sorted, deadline[i] + tickNanos);
+         k = (k < 0 ? -k - 1 : k + 1);
+         while (k < count && sorted[k] <= deadline[i] + tickNanos) {
+            k++;
+         }
+         if (firstRun[k] < ranAt.get(i)) {
+            fail("task " + i + " ran "
+                 + (ranAt.get(i) - firstRun[k]) / NANOS_PER_MICRO
+                 + " us after a task due more than a tick later");
+         }
+      }
+   }
+
+   /**
+    * Private helper function to choose a delay that puts a task in a
+    * given wheel
+    * @return the delay in ticks
+    */
+   private static long randomDelay(int level, Random random) {
+      long low = (level == 0 ? 0 : pow(TimingWheel.SLOTS, level));
+      long high = (level == TimingWheel.LEVELS - 1
+                   ? low + HIGHEST_LEVEL_TICKS
+                   : pow(TimingWheel.SLOTS, level + 1));
+      return low + (long) (random.nextDouble() * (high - low));
+   }
+
+   /**
+    * Private helper function to raise a number to a power
+    */
+   private static long pow(long base, int exponent) {
+      long result = 1;
+      for (int i = 0; i < exponent; i++) {
+         result *= base;
+      }
+      return result;
+   }
+
+   /**
+    * Private helper function to check that a task that throws is counted,
+    * is passed to the UncaughtExceptionHandler, and does not stop the
+    * tasks due with it
+    */
+   private static void checkFailure(TimingWheel wheel, long tickNanos)
+         throws InterruptedException {
+      final AtomicReference<Throwable> caught =
+         new AtomicReference<Throwable>();
+      Thread.UncaughtExceptionHandler previous =
+         Thread.getDefaultUncaughtExceptionHandler();
+      Thread.setDefaultUncaughtExceptionHandler(
+         new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable t) {
+               caught.set(t);
+            }
+         });
+      try {
+         final RuntimeException failure =
+            new IllegalStateException("expected failure");
+         final AtomicLongArray ran = new AtomicLongArray(1);
+         long failedBefore = wheel.getFailedCount();
+         wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+               throw failure;
+            }
+         }, 0, TimeUnit.NANOSECONDS);
+         wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+               ran.set(0, 1);
+            }
+         }, 0, TimeUnit.NANOSECONDS);
+         TimeUnit.NANOSECONDS.sleep(10 * tickNanos + 100 * NANOS_PER_MILLI);
+         if (wheel.getFailedCount() != failedBefore + 1) {
+            fail("the failing task was counted "
+                 + (wheel.getFailedCount() - failedBefore) + " times");
+         }
+         if (caught.get() != failure) {
+            fail("the failing task was not passed to the handler: "
+                 + caught.get());
+         }
+         if (ran.get(0) != 1) {
+            fail("the failing task stopped the task due with it");
+         }
+      } finally {
+         Thread.setDefaultUncaughtExceptionHandler(previous);
+      }
+   }
+
+   /**
+    * Private helper function to report a failure
+    */
+   private static void fail(String message) {
+      failures++;
+      if (failures <= MAX_REPORTED) {
+         System.out.println("FAIL: " + message);
+      }
+   }
+}
@@ -0,0 +1,403 @@
+/**
+ * ValidationBenchmarks.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the validation and date picker hot paths.  These numbers
+ * are the baseline that every performance change to ReservationController,
+ * ReservationValidator, PackedDate, and DatePickerController is compared
+ * against.  Run with
+ * <pre>
+ * java -Djava.awt.headless=true \
+ *      org.marimasuda.cmusvdiagnostic.ValidationBenchmarks [options] [regex]
+ * </pre>
+ * See BenchmarkRunner.configure() for the options.
+ */
+public class ValidationBenchmarks {
+   /** the number of cities searched by the autocomplete benchmark */
+   private static final int CITY_COUNT = 300000;
+
+   /** the number of reservations stored for the store benchmarks */
+   private static final int STORED_RESERVATION_COUNT = 1000000;
+
+   /** the number of timers left pending by the timer benchmarks, as many
+    * as there are seat holds at the peak of a sale
+    */
+   private static final int PENDING_TIMER_COUNT = 1000000;
+
+   /** the delay of the timers in the timer benchmarks, long enough that
+    * none of them expires during a run
+    */
+   private static final long TIMER_DELAY_MINUTES = 60;
+
+   /**
+    * Registers and runs the benchmarks
+    * @param args the command line arguments (see BenchmarkRunner.configure())
+    * @throws IOException if the temporary benchmark files cannot be written
+    */
+   public static void main(String[] args) throws IOException {
+      BenchmarkRunner runner = new BenchmarkRunner().configure(args);
+
+      final ReservationController validController = new ReservationController();
+      validController.setDepartureCity("San Francisco");
+      validController.setArrivalCity("Boston");
+      validController.setDepartureDate(PackedDate.pack(
+            2011, GregorianCalendar.MARCH, 14,
+            DatePickerController.MORNING_HOUR));
+      validController.setReturnDate(PackedDate.pack(
+            2011, GregorianCalendar.MARCH, 20,
+            DatePickerController.ANYTIME_HOUR));
+      validController.setNumPassengers(2);
+
+      final ReservationController invalidController =
+         new ReservationController();
+      invalidController.setArrivalCity("Boston");
+      invalidController.setDepartureDate(PackedDate.pack(
+            2011, GregorianCalendar.MARCH, 14,
+            DatePickerController.EVENING_HOUR));
+      invalidController.setNumPassengers(2);
+
+      // each run changes the number of passengers, as the form does when
+      // it is edited, so that isValid() re-runs the rules that read it
+      // instead of returning the previous result
+      runner.add("ReservationController.isValid(valid)",
+                 new BenchmarkRunner.Workload() {
+         /** the number of passengers to set next */
+         private int passengers = 3;
+
+         @Override
+         public Object run() {
+            validController.setNumPassengers(passengers);
+            passengers = 5 - passengers;
+            validController.isValid();
+            return validController.getLastResult();
+         }
+      });
+
+      runner.add("ReservationController.isValid(invalid)",
+                 new BenchmarkRunner.Workload() {
+         /** the number of passengers to set next */
+         private int passengers = 3;
+
+         @Override
+         public Object run() {
+            invalidController.setNumPassengers(passengers);
+            passengers = 5 - passengers;
+            invalidController.isValid();
+            return invalidController.getLastResult();
+         }
+      });
+
+      runner.add("ReservationController.isValid(unchanged)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            validController.isValid();
+            return validController.getLastResult();
+         }
+      });
+
+      final ReservationValidator fullReport = new ReservationValidator();
+      final ReservationValidator failFast =
+         new ReservationValidator(ValidationMode.FAIL_FAST);
+      final Reservation invalidReservation = new Reservation(
+            "", "Boston",
+            PackedDate.pack(2011, GregorianCalendar.MARCH, 14,
+                            DatePickerController.EVENING_HOUR),
+            PackedDate.UNSET, 2);
+
+      runner.add("ReservationValidator.validate(invalid, FULL_REPORT)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return fullReport.validate(invalidReservation);
+         }
+      });
+
+      runner.add("ReservationValidator.validate(invalid, FAIL_FAST)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return failFast.validate(invalidReservation);
+         }
+      });
+
+      runner.add("ReservationController.getItinerary",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return validController.getItinerary();
+         }
+      });
+
+      final ItineraryRenderer renderer = ItineraryRenderer.getDefault();
+      final Reservation validReservation = new Reservation(
+            "San Francisco", "Boston",
+            PackedDate.pack(2011, GregorianCalendar.MARCH, 14,
+                            DatePickerController.MORNING_HOUR),
+            PackedDate.pack(2011, GregorianCalendar.MARCH, 20,
+                            DatePickerController.ANYTIME_HOUR),
+            2);
+
+      runner.add("ItineraryRenderer.renderItinerary(StringBuilder)",
+                 new BenchmarkRunner.Workload() {
+         /** reused for every record, as bulk output would */
+         private final StringBuilder out = new StringBuilder(256);
+
+         @Override
+         public Object run() {
+            out.setLength(0);
+            try {
+               return renderer.renderItinerary(validReservation, out);
+            } catch (IOException ioe) {
+               throw new IllegalStateException(ioe);
+            }
+         }
+      });
+
+      runner.add("ItineraryRenderer.encodeItinerary+encodeErrors(ByteBuffer)",
+                 new BenchmarkRunner.Workload() {
+         /** reused for every record, as bulk output would */
+         private final ByteBuffer out = ByteBuffer.allocateDirect(1024);
+
+         @Override
+         public Object run() {
+            out.clear();
+            renderer.encodeItinerary(invalidReservation, out);
+            renderer.encodeErrors(invalidReservation, out);
+            return out;
+         }
+      });
+
+      final String recordLine =
+         "San Francisco\tBoston\t2011-03-14 07\t2011-03-20 00\t2";
+      runner.add("ReservationRecordReader.parseRecord+validate",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return fullReport.validate(
+                  ReservationRecordReader.parseRecord(recordLine));
+         }
+      });
+
+      Path binaryFile = Files.createTempFile("reservations", ".bin");
+      binaryFile.toFile().deleteOnExit();
+      try (BinaryReservationWriter writer =
+              new BinaryReservationWriter(binaryFile)) {
+         writer.write(validReservation);
+      }
+      final MappedReservationFile mappedFile =
+         new MappedReservationFile(binaryFile);
+      final MappedReservationFile.Cursor cursor = mappedFile.cursor();
+      runner.add("MappedReservationFile.Cursor.moveTo+validate",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            cursor.moveTo(0);
+            return fullReport.validate(cursor);
+         }
+      });
+
+      Random random = new Random(42);
+      List<String> cities = new ArrayList<String>(CITY_COUNT);
+      char[] name = new char[10];
+      for (int i = 0; i < CITY_COUNT; i++) {
+         name[0] = (char) ('A' + random.nextInt(26));
+         for (int j = 1; j < name.length; j++) {
+            name[j] = (char) ('a' + random.nextInt(26));
+         }
+         cities.add(new String(name, 0, 4 + random.nextInt(7)));
+      }
+      final CityIndex cityIndex = new CityIndex(cities);
+      runner.add("CityIndex.suggest(300k cities)",
+                 new BenchmarkRunner.Workload() {
+         /** alternates between a common and a rare prefix */
+         private int step;
+
+         @Override
+         public Object run() {
+            step ^= 1;
+            return cityIndex.suggest(step == 0 ? "bo" : "Sanf",
+                                     CityAutocomplete.MAX_SUGGESTIONS);
+         }
+      });
+
+      final int date = PackedDate.pack(2012, GregorianCalendar.DECEMBER, 31,
+                                       DatePickerController.LATENIGHT_HOUR);
+      runner.add("PackedDate.format",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return PackedDate.format(date);
+         }
+      });
+
+      final DatePickerController datePicker = new DatePickerController();
+      datePicker.setYear(2012);
+      datePicker.setMonth(GregorianCalendar.FEBRUARY);
+      datePicker.setDay(29);
+
+      runner.add("DatePickerController.getDayModel",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return datePicker.getDayModel();
+         }
+      });
+
+      runner.add("DatePickerController.getMonthModel",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return datePicker.getMonthModel();
+         }
+      });
+
+      final DatePickerController setter = new DatePickerController();
+      runner.add("DatePickerController.setYear/setMonth/setDay",
+                 new BenchmarkRunner.Workload() {
+         /** alternates the values so every call changes the model */
+         private int step;
+
+         @Override
+         public Object run() {
+            step ^= 1;
+            setter.setYear(DatePickerController.MIN_YEAR + step);
+            setter.setMonth(GregorianCalendar.JANUARY + step);
+            setter.setDay(1 + step);
+            return setter;
+         }
+      });
+
+      final ReservationStore store =
+         new ReservationStore(BookingWindow.getDefault());
+      int numDays = BookingWindow.getDefault().getDayCount();
+      for (int i = 0; i < STORED_RESERVATION_COUNT; i++) {
+         int departure = random.nextInt(numDays);
+         int nights = random.nextInt(14);
+         store.add(new Reservation(
+               "San Francisco", "Boston",
+               toPackedDate(departure, DateIndex.SLOT_HOURS[
+                     random.nextInt(DateIndex.SLOTS_PER_DAY)]),
+               toPackedDate(Math.min(departure + nights, numDays - 1),
+                            DatePickerController.ANYTIME_HOUR),
+               1 + random.nextInt(ReservationValidator.MAX_PASSENGERS)));
+      }
+      final int dayStart = PackedDate.pack(
+            2011, GregorianCalendar.MARCH, 14, 0);
+      final int dayEnd = PackedDate.withHour(dayStart, 23);
+      final int monthEnd = PackedDate.pack(
+            2011, GregorianCalendar.APRIL, 13, 23);
+      runner.add("ReservationStore.findDeparting(1 day of 1M)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return store.findDeparting(dayStart, dayEnd);
+         }
+      });
+
+      runner.add("ReservationStore.countDeparting(31 days of 1M)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            return store.countDeparting(dayStart, monthEnd);
+         }
+      });
+
+      final RouteIndex routeIndex = new RouteIndex();
+      final Reservation[] routeReservations = new Reservation[] {
+         Reservation.intern(new Reservation(
+               "San Francisco", "Boston", dayStart, monthEnd, 2)),
+         Reservation.intern(new Reservation(
+               "Boston", "San Francisco", monthEnd, monthEnd, 1)),
+         Reservation.intern(new Reservation(
+               "Denver", "Boston", dayEnd, monthEnd, 4))
+      };
+      runner.add("RouteIndex.add+get",
+                 new BenchmarkRunner.Workload() {
+         /** cycles through the routes */
+         private int step;
+
+         @Override
+         public Object run() {
+            step = (step + 1) % routeReservations.length;
+            Reservation reservation = routeReservations[step];
+            routeIndex.add(reservation);
+            return routeIndex.get(reservation.getDepartureCityId(),
+                                  reservation.getArrivalCityId());
+         }
+      });
+
+      final Runnable nothing = new Runnable() {
+         @Override
+         public void run() {
+         }
+      };
+      final TimingWheel wheel =
+         new TimingWheel(10, TimeUnit.MILLISECONDS, "Benchmark wheel");
+      final ScheduledThreadPoolExecutor executor =
+         new ScheduledThreadPoolExecutor(1);
+      executor.setRemoveOnCancelPolicy(true);
+      for (int i = 0; i < PENDING_TIMER_COUNT; i++) {
+         long delay = TIMER_DELAY_MINUTES * 60000 + i;
+         wheel.schedule(nothing, delay, TimeUnit.MILLISECONDS);
+         executor.schedule(nothing, delay, TimeUnit.MILLISECONDS);
+      }
+      runner.add("TimingWheel.schedule+cancel(1M pending)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            TimingWheel.Timeout timeout = wheel.schedule(
+                  nothing, TIMER_DELAY_MINUTES, TimeUnit.MINUTES);
+            timeout.cancel();
+            return timeout;
+         }
+      });
+
+      runner.add("ScheduledThreadPoolExecutor.schedule+cancel(1M pending)",
+                 new BenchmarkRunner.Workload() {
+         @Override
+         public Object run() {
+            ScheduledFuture<?> future = executor.schedule(
+                  nothing, TIMER_DELAY_MINUTES, TimeUnit.MINUTES);
+            future.cancel(false);
+            return future;
+         }
+      });
+
+      runner.run();
+      wheel.stop();
+      executor.shutdownNow();
+   }
+
+   /**
+    * Private helper function to pack a day of the default booking window
+    */
+   private static int toPackedDate(int dayOrdinal, int hour) {
+      LocalDate day =
+         BookingWindow.getDefault().getFirstDay().plusDays(dayOrdinal);
+      return PackedDate.pack(day.getYear(),
+                             day.getMonthValue() - 1
+                             + GregorianCalendar.JANUARY,
+                             day.getDayOfMonth(), hour);
+   }
+}
@@ -0,0 +1,160 @@
+/**
+ * ValidationServerBenchmark.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many /validate requests per second a ValidationServer on
+ * the loopback address answers when many clients post reservations at
+ * once, and how long each request takes as seen by the client.  The
+ * clients run in the same JVM and reuse their connections, so the result
+ * is the throughput of the server and the HTTP stack, not of the network.
+ * Run with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.ValidationServerBenchmark \
+ *      [-t clients] [-r millis] [-i iterations]
+ * </pre>
+ */
+public class ValidationServerBenchmark {
+   /** the number of nanoseconds in one millisecond */
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   /** the number of nanoseconds in one microsecond */
+   private static final double NANOS_PER_MICRO = 1000.0;
+
+   /** the reservation posted by every request */
+   private static final byte[] FORM =
+      ("departureCity=San+Francisco&arrivalCity=Boston"
+       + "&departureDate=2011-03-14+07&returnDate=2011-03-20+00"
+       + "&numPassengers=2").getBytes(StandardCharsets.UTF_8);
+
+   /**
+    * Runs the benchmark
+    * @param args the command line arguments (see the class comment)
+    * @throws IOException if the server cannot be started
+    * @throws InterruptedException if interrupted while waiting for the
+    *         clients
+    */
+   public static void main(String[] args)
+         throws IOException, InterruptedException {
+      int clients = 16;
+      long millis = 2000;
+      int iterations = 3;
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-t")) {
+            clients = Integer.parseInt(args[++i]);
+         } else if (args[i].equals("-r")) {
+            millis = Long.parseLong(args[++i]);
+         } else if (args[i].equals("-i")) {
+            iterations = Integer.parseInt(args[++i]);
+         }
+      }
+
+      ValidationServer server = new ValidationServer(0);
+      server.start();
+      try {
+         URL url = new URL("http://127.0.0.1:" + server.getPort()
+                           + "/validate");
+         System.out.println("Clients: " + clients + ", processors: "
+                            + Runtime.getRuntime().availableProcessors());
+         System.out.println(String.format(Locale.US, "%-28s %12s %12s %12s",
+                                          "Benchmark", "requests/sec",
+                                          "p50 us", "p99 us"));
+         // one unreported round warms up the server and the clients
+         measure(url, clients, millis, new LatencyHistogram());
+         for (int i = 0; i < iterations; i++) {
+            LatencyHistogram latencies = new LatencyHistogram();
+            long requests = measure(url, clients, millis, latencies);
+            System.out.println(String.format(
+                  Locale.US, "%-28s %12.0f %12.1f %12.1f",
+                  "POST /validate", requests * 1000.0 / millis,
+                  latencies.getPercentile(50) / NANOS_PER_MICRO,
+                  latencies.getPercentile(99) / NANOS_PER_MICRO));
+         }
+      } finally {
+         server.stop(0);
+      }
+   }
+
+   /**
+    * Private helper function to run the clients for one round
+    * @return the number of requests answered
+    */
+   private static long measure(final URL url, int clients, final long millis,
+                               final LatencyHistogram latencies)
+         throws InterruptedException {
+      final LongAdder requests = new LongAdder();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] workers = new Thread[clients];
+      for (int i = 0; i < clients; i++) {
+         workers[i] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+               byte[] buffer = new byte[4096];
+               try {
+                  start.await();
+                  long deadline = System.nanoTime() + millis * NANOS_PER_MILLI;
+                  long now;
+                  do {
+                     long begin = System.nanoTime();
+                     post(url, buffer);
+                     now = System.nanoTime();
+                     latencies.record(now - begin);
+                     requests.increment();
+                  } while (now < deadline);
+               } catch (InterruptedException ie) {
+                  return;
+               } catch (IOException ioe) {
+                  throw new RuntimeException(ioe);
+               }
+            }
+         });
+         workers[i].start();
+      }
+      start.countDown();
+      for (Thread worker : workers) {
+         worker.join();
+      }
+      return requests.sum();
+   }
+
+   /**
+    * Private helper function to post the reservation and read the whole
+    * response, so that the connection can be reused by the next request
+    */
+   private static void post(URL url, byte[] buffer) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setFixedLengthStreamingMode(FORM.length);
+      connection.setRequestProperty("Content-Type",
+                                    "application/x-www-form-urlencoded");
+      try (OutputStream out = connection.getOutputStream()) {
+         out.write(FORM);
+      }
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+         throw new IOException("Unexpected response: "
+                               + connection.getResponseCode());
+      }
+      try (InputStream in = connection.getInputStream()) {
+         while (in.read(buffer) != -1) {
+            // discard the response
+         }
+      }
+   }
+}
@@ -0,0 +1,102 @@
+/**
+ * BatchRecordResult.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The outcome of validating one record during a batch run.  Instances are
+ * immutable.
+ */
+public final class BatchRecordResult {
+   /** the position of the record in the batch, starting at 1 */
+   private final long recordNumber;
+
+   /** the outcome of validating the record, or null if it was malformed */
+   private final ValidationResult result;
+
+   /** the reason the record could not be read, or null if it was read */
+   private final String problem;
+
+   /**
+    * Creates the result for a record that was read and validated
+    * @param recordNumber the position of the record in the batch
+    * @param result the outcome of validating the record
+    */
+   public BatchRecordResult(long recordNumber, ValidationResult result) {
+      this.recordNumber = recordNumber;
+      this.result = result;
+      this.problem = null;
+   }
+
+   /**
+    * Creates the result for a record that could not be read
+    * @param recordNumber the position of the record in the batch
+    * @param problem a description of why the record could not be read
+    */
+   public BatchRecordResult(long recordNumber, String problem) {
+      this.recordNumber = recordNumber;
+      this.result = null;
+      this.problem = problem;
+   }
+
+   /**
+    * @return the position of the record in the batch, starting at 1
+    */
+   public long getRecordNumber() {
+      return recordNumber;
+   }
+
+   /**
+    * @return the outcome of validating the record, or null if the record
+    *         could not be read
+    */
+   public ValidationResult getResult() {
+      return result;
+   }
+
+   /**
+    * @return true if the record passed every business rule
+    */
+   public boolean isValid() {
+      return result != null && result.isValid();
+   }
+
+   /**
+    * @return true if the record could not be read at all
+    */
+   public boolean isMalformed() {
+      return result == null;
+   }
+
+   /**
+    * @return an unmodifiable set of the rules that the record failed
+    */
+   public Set<ValidationRule> getFailures() {
+      if (result == null) {
+         return Collections.emptySet();
+      }
+      return result.getFailures();
+   }
+
+   /**
+    * @return the error messages, or the reason the record could not be read
+    */
+   public String getErrorMessages() {
+      return (result == null ? problem : result.getErrorMessages());
+   }
+
+   /**
+    * @return the itinerary generated for the record
+    */
+   public String getItinerary() {
+      return (result == null ? "" : result.getItinerary());
+   }
+}
@@ -0,0 +1,144 @@
+/**
+ * BatchValidationReport.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Locale;
+
+/**
+ * Summarizes a batch validation run: how many records were processed, how
+ * long it took, and how many records failed each rule.  A report is filled
+ * in by the BatchValidator while the batch runs and should only be read
+ * once the run is over.
+ */
+public class BatchValidationReport {
+   /** the number of nanoseconds in one second */
+   private static final double NANOS_PER_SECOND = 1e9;
+
+   /** the total number of records processed, including malformed ones */
+   private long numRecords;
+
+   /** the number of records that passed every rule */
+   private long numValid;
+
+   /** the number of records that could not be read */
+   private long numMalformed;
+
+   /** the number of records that failed each rule, indexed by ordinal */
+   private long[] failuresPerRule;
+
+   /** the wall-clock duration of the run in nanoseconds */
+   private long elapsedNanos;
+
+   /**
+    * Creates an empty report
+    */
+   public BatchValidationReport() {
+      failuresPerRule = new long[ValidationRule.values().length];
+   }
+
+   /**
+    * Adds one record's outcome to the totals
+    * @param result the outcome of validating the record
+    */
+   void record(BatchRecordResult result) {
+      numRecords++;
+      if (result.isMalformed()) {
+         numMalformed++;
+      } else if (result.isValid()) {
+         numValid++;
+      }
+      for (ValidationRule rule : result.getFailures()) {
+         failuresPerRule[rule.ordinal()]++;
+      }
+   }
+
+   /**
+    * @param elapsedNanos the wall-clock duration of the run in nanoseconds
+    */
+   void setElapsedNanos(long elapsedNanos) {
+      this.elapsedNanos = elapsedNanos;
+   }
+
+   /**
+    * @return the total number of records processed
+    */
+   public long getNumRecords() {
+      return numRecords;
+   }
+
+   /**
+    * @return the number of records that passed every rule
+    */
+   public long getNumValid() {
+      return numValid;
+   }
+
+   /**
+    * @return the number of records that failed one or more rules
+    */
+   public long getNumInvalid() {
+      return numRecords - numValid - numMalformed;
+   }
+
+   /**
+    * @return the number of records that could not be read
+    */
+   public long getNumMalformed() {
+      return numMalformed;
+   }
+
+   /**
+    * @param rule the rule of interest
+    * @return the number of records that failed the given rule
+    */
+   public long getFailures(ValidationRule rule) {
+      return failuresPerRule[rule.ordinal()];
+   }
+
+   /**
+    * @return the wall-clock duration of the run in nanoseconds
+    */
+   public long getElapsedNanos() {
+      return elapsedNanos;
+   }
+
+   /**
+    * @return the number of records processed per second of wall-clock time
+    */
+   public double getRecordsPerSecond() {
+      if (elapsedNanos == 0) {
+         return 0;
+      }
+      return numRecords * NANOS_PER_SECOND / elapsedNanos;
+   }
+
+   /**
+    * @return a multi-line, "human-readable" summary of the run
+    */
+   @Override
+   public String toString() {
+      StringBuilder report = new StringBuilder();
+      report.append("Records:   ").append(numRecords).append("\n")
+            .append("Valid:     ").append(numValid).append("\n")
+            .append("Invalid:   ").append(getNumInvalid()).append("\n")
+            .append("Malformed: ").append(numMalformed).append("\n")
+            .append(String.format(Locale.US, "Elapsed:   %.3f s\n",
+                                  elapsedNanos / NANOS_PER_SECOND))
+            .append(String.format(Locale.US, "Throughput: %.0f records/sec\n",
+                                  getRecordsPerSecond()))
+            .append("Failures per rule:\n");
+      for (ValidationRule rule : ValidationRule.values()) {
+         report.append(String.format(Locale.US, "  rule %d  %-34s %d\n",
+                                     rule.getRuleNumber(),
+                                     rule.getDescription(),
+                                     failuresPerRule[rule.ordinal()]));
+      }
+      return report.toString();
+   }
+}
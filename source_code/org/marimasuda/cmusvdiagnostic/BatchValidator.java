@@ -0,0 +1,525 @@
+/**
+ * BatchValidator.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Applies the reservation business rules (see ReservationValidator) to many
+ * reservations at once without a GUI.  Each record produces a
+ * BatchRecordResult that is handed to a caller-supplied consumer, and the
+ * run as a whole produces a BatchValidationReport with throughput and
+ * per-rule failure counts.  This class does not depend on any AWT or Swing
+ * classes, so it can be run on a headless server.
+ *
+ * Large files can also be validated in parallel on a ForkJoinPool.  The
+ * records are read in chunks on the calling thread; each chunk is then
+ * parsed and validated by the pool, split in halves until the pieces are
+ * small, while the next chunks are being read.  The results are handed to
+ * the consumer on the calling thread in input order, exactly as a
+ * sequential run would hand them over, and only a bounded number of chunks
+ * is held in memory at once.
+ */
+public class BatchValidator {
+   /** the number of records read into one chunk in a parallel run */
+   private static final int CHUNK_SIZE = 8192;
+
+   /** the largest number of records a fork/join task validates without
+    * splitting
+    */
+   private static final int SPLIT_THRESHOLD = 512;
+
+   /** the number of chunks per pool thread that may be in flight at once */
+   private static final int CHUNKS_PER_THREAD = 2;
+
+   /** the validator that applies the business rules to each record */
+   private final ReservationValidator validator;
+
+   /**
+    * Creates a new BatchValidator that uses its own ReservationValidator
+    */
+   public BatchValidator() {
+      this(new ReservationValidator());
+   }
+
+   /**
+    * Creates a new BatchValidator.  A BatchValidator holds no per-run state,
+    * so one instance may be used by several threads at once.
+    * @param validator the validator that applies the business rules
+    */
+   public BatchValidator(ReservationValidator validator) {
+      this.validator = validator;
+   }
+
+   /**
+    * Validates every reservation produced by the given iterator
+    * @param reservations the reservations to validate
+    * @param results receives the result for each reservation, in order
+    * @return a report summarizing the run
+    */
+   public BatchValidationReport validate(Iterator<Reservation> reservations,
+                                         Consumer<BatchRecordResult> results) {
+      BatchValidationReport report = new BatchValidationReport();
+      long start = System.nanoTime();
+      long recordNumber = 0;
+      while (reservations.hasNext()) {
+         BatchRecordResult result =
+            validate(++recordNumber, reservations.next());
+         report.record(result);
+         results.accept(result);
+      }
+      report.setElapsedNanos(System.nanoTime() - start);
+      return report;
+   }
+
+   /**
+    * Validates every reservation in a text stream in the format described
+    * by ReservationRecordReader.  Malformed records are reported as such
+    * and do not stop the run.
+    * @param in the stream containing the reservation records
+    * @param results receives the result for each record, in order
+    * @return a report summarizing the run
+    * @throws IOException if the stream cannot be read
+    */
+   public BatchValidationReport validate(Reader in,
+                                         Consumer<BatchRecordResult> results)
+         throws IOException {
+      BatchValidationReport report = new BatchValidationReport();
+      ReservationRecordReader reader = new ReservationRecordReader(in);
+      long start = System.nanoTime();
+      long recordNumber = 0;
+      while (true) {
+         BatchRecordResult result;
+         try {
+            Reservation reservation = reader.readNext();
+            if (reservation == null) {
+               break;
+            }
+            result = validate(++recordNumber, reservation);
+         } catch (IllegalArgumentException iae) {
+            result = new BatchRecordResult(
+                  ++recordNumber,
+                  "Line " + reader.getLineNumber() + ": " + iae.getMessage());
+         }
+         report.record(result);
+         results.accept(result);
+      }
+      report.setElapsedNanos(System.nanoTime() - start);
+      return report;
+   }
+
+   /**
+    * Validates every reservation in a UTF-8 text file in the format described
+    * by ReservationRecordReader
+    * @param file the file containing the reservation records
+    * @param results receives the result for each record, in order
+    * @return a report summarizing the run
+    * @throws IOException if the file cannot be read
+    */
+   public BatchValidationReport validateFile(Path file,
+                                             Consumer<BatchRecordResult> results)
+         throws IOException {
+      try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+         return validate(in, results);
+      }
+   }
+
+   /**
+    * Validates every record of a binary file in the format described by
+    * BinaryReservationFormat.  The records are read straight from the
+    * mapped file by one cursor, without creating a Reservation per record.
+    * Records that are corrupt are reported as malformed.
+    * @param file the binary file containing the reservation records
+    * @param results receives the result for each record, in order
+    * @return a report summarizing the run
+    * @throws IOException if the file cannot be read or is not a binary
+    *         reservation file
+    */
+   public BatchValidationReport validateBinaryFile(
+         Path file, Consumer<BatchRecordResult> results) throws IOException {
+      BatchValidationReport report = new BatchValidationReport();
+      try (MappedReservationFile records = new MappedReservationFile(file)) {
+         MappedReservationFile.Cursor cursor = records.cursor();
+         long start = System.nanoTime();
+         int count = records.getRecordCount();
+         for (int i = 0; i < count; i++) {
+            BatchRecordResult result;
+            try {
+               cursor.moveTo(i);
+               result = validate(i + 1, cursor);
+            } catch (IllegalArgumentException iae) {
+               result = new BatchRecordResult(
+                     i + 1, "Record " + (i + 1) + ": " + iae.getMessage());
+            }
+            report.record(result);
+            results.accept(result);
+         }
+         report.setElapsedNanos(System.nanoTime() - start);
+      }
+      return report;
+   }
+
+   /**
+    * Validates every reservation in a text stream in parallel.  The
+    * results are the same, and arrive in the same order on the calling
+    * thread, as those of validate(Reader, Consumer).
+    * @param in the stream containing the reservation records
+    * @param results receives the result for each record, in order
+    * @param pool the pool that parses and validates the records
+    * @return a report summarizing the run
+    * @throws IOException if the stream cannot be read
+    */
+   public BatchValidationReport validate(Reader in,
+                                         Consumer<BatchRecordResult> results,
+                                         ForkJoinPool pool)
+         throws IOException {
+      BatchValidationReport report = new BatchValidationReport();
+      ReservationRecordReader reader = new ReservationRecordReader(in);
+      int maxInFlight = Math.max(2, pool.getParallelism() * CHUNKS_PER_THREAD);
+      Deque<ChunkTask> inFlight = new ArrayDeque<ChunkTask>(maxInFlight);
+      long start = System.nanoTime();
+      long recordNumber = 0;
+      while (true) {
+         ChunkTask chunk = readChunk(reader, recordNumber + 1);
+         if (chunk == null) {
+            break;
+         }
+         recordNumber += chunk.size;
+         pool.execute(chunk);
+         inFlight.addLast(chunk);
+         if (inFlight.size() >= maxInFlight) {
+            deliver(inFlight.removeFirst(), report, results);
+         }
+      }
+      while (!inFlight.isEmpty()) {
+         deliver(inFlight.removeFirst(), report, results);
+      }
+      report.setElapsedNanos(System.nanoTime() - start);
+      return report;
+   }
+
+   /**
+    * Validates every reservation in a UTF-8 text file in parallel (see
+    * validate(Reader, Consumer, ForkJoinPool))
+    * @param file the file containing the reservation records
+    * @param results receives the result for each record, in order
+    * @param pool the pool that parses and validates the records
+    * @return a report summarizing the run
+    * @throws IOException if the file cannot be read
+    */
+   public BatchValidationReport validateFile(Path file,
+                                             Consumer<BatchRecordResult> results,
+                                             ForkJoinPool pool)
+         throws IOException {
+      try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+         return validate(in, results, pool);
+      }
+   }
+
+   /**
+    * Private helper function to read the next chunk of records
+    * @return the chunk, or null if there are no more records
+    */
+   private ChunkTask readChunk(ReservationRecordReader reader,
+                               long firstRecordNumber) throws IOException {
+      String[] lines = new String[CHUNK_SIZE];
+      long[] lineNumbers = new long[CHUNK_SIZE];
+      int size = 0;
+      while (size < CHUNK_SIZE) {
+         String line = reader.readNextLine();
+         if (line == null) {
+            break;
+         }
+         lines[size] = line;
+         lineNumbers[size] = reader.getLineNumber();
+         size++;
+      }
+      return (size == 0
+              ? null
+              : new ChunkTask(lines, lineNumbers, firstRecordNumber, size));
+   }
+
+   /**
+    * Private helper function to wait for a chunk and hand its results over
+    * in order
+    */
+   private static void deliver(ChunkTask chunk,
+                               BatchValidationReport report,
+                               Consumer<BatchRecordResult> results) {
+      chunk.join();
+      for (int i = 0; i < chunk.size; i++) {
+         report.record(chunk.results[i]);
+         results.accept(chunk.results[i]);
+      }
+   }
+
+   /**
+    * Parses and validates one chunk of records, splitting the work in
+    * halves until each piece is no larger than SPLIT_THRESHOLD
+    */
+   private class ChunkTask extends RecursiveAction {
+      /** the version of the serialized form */
+      private static final long serialVersionUID = 1L;
+
+      /** the text of each record */
+      private final String[] lines;
+
+      /** the line number of each record, for error messages */
+      private final long[] lineNumbers;
+
+      /** the position of the chunk's first record in the batch */
+      private final long firstRecordNumber;
+
+      /** the number of records in the chunk */
+      private final int size;
+
+      /** receives the outcome of each record */
+      private final BatchRecordResult[] results;
+
+      /** the first record this task validates */
+      private final int from;
+
+      /** the index after the last record this task validates */
+      private final int to;
+
+      /**
+       * Creates the task for a whole chunk
+       * @param lines the text of each record
+       * @param lineNumbers the line number of each record
+       * @param firstRecordNumber the position of the first record in the
+       *                          batch
+       * @param size the number of records in the chunk
+       */
+      ChunkTask(String[] lines,
+                long[] lineNumbers,
+                long firstRecordNumber,
+                int size) {
+         this(lines, lineNumbers, firstRecordNumber, size,
+              new BatchRecordResult[size], 0, size);
+      }
+
+      /**
+       * Creates the task for part of a chunk
+       */
+      private ChunkTask(String[] lines,
+                        long[] lineNumbers,
+                        long firstRecordNumber,
+                        int size,
+                        BatchRecordResult[] results,
+                        int from,
+                        int to) {
+         this.lines = lines;
+         this.lineNumbers = lineNumbers;
+         this.firstRecordNumber = firstRecordNumber;
+         this.size = size;
+         this.results = results;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from > SPLIT_THRESHOLD) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(lines, lineNumbers, firstRecordNumber,
+                                    size, results, from, middle),
+                      new ChunkTask(lines, lineNumbers, firstRecordNumber,
+                                    size, results, middle, to));
+            return;
+         }
+         for (int i = from; i < to; i++) {
+            long recordNumber = firstRecordNumber + i;
+            try {
+               results[i] = validate(
+                     recordNumber,
+                     ReservationRecordReader.parseRecord(lines[i]));
+            } catch (IllegalArgumentException iae) {
+               results[i] = new BatchRecordResult(
+                     recordNumber,
+                     "Line " + lineNumbers[i] + ": " + iae.getMessage());
+            }
+         }
+      }
+   }
+
+   /**
+    * Private helper function to apply the business rules to one record
+    * @param recordNumber the position of the record in the batch
+    * @param reservation the record to validate
+    * @return the outcome of validating the record
+    */
+   private BatchRecordResult validate(long recordNumber,
+                                      ReservationData reservation) {
+      return new BatchRecordResult(recordNumber,
+                                   validator.validate(reservation));
+   }
+
+   /**
+    * Validates a file of reservations from the command line.  Prints one
+    * line per record followed by the report.
+    * <pre>
+    * usage: BatchValidator [--quiet] [--fail-fast] [--timing]
+    *                       [--sequential | --threads n] &lt;file | -&gt;
+    * </pre>
+    * Use "-" to read the records from standard input.  With --quiet only
+    * the report is printed.  With --fail-fast each record stops at its
+    * first failed rule, which is faster but reports only that rule.  With
+    * --timing the time spent in each rule is printed after the report.
+    * The records are validated in parallel on every core, or on n threads
+    * with --threads, unless --sequential asks for a single-threaded run,
+    * e.g., to compare the throughput of the two.  A binary file written by
+    * BinaryReservationWriter is recognized by its first bytes and always
+    * validated on one thread straight from the mapped file.
+    * @param args the command line arguments
+    * @throws IOException if the records cannot be read
+    */
+   public static void main(String[] args) throws IOException {
+      try {
+         BookingWindow.getDefault();
+      } catch (ExceptionInInitializerError eie) {
+         System.err.println(eie.getCause().getMessage());
+         System.exit(2);
+      }
+      boolean quiet = false;
+      ValidationMode mode = ValidationMode.FULL_REPORT;
+      boolean timed = false;
+      boolean sequential = false;
+      int threads = Runtime.getRuntime().availableProcessors();
+      String source = null;
+      boolean usage = false;
+      for (int i = 0; i < args.length && !usage; i++) {
+         String arg = args[i];
+         if (arg.equals("--quiet")) {
+            quiet = true;
+         } else if (arg.equals("--fail-fast")) {
+            mode = ValidationMode.FAIL_FAST;
+         } else if (arg.equals("--timing")) {
+            timed = true;
+         } else if (arg.equals("--sequential")) {
+            sequential = true;
+         } else if (arg.equals("--threads")) {
+            usage = (++i == args.length);
+            if (!usage) {
+               try {
+                  threads = Integer.parseInt(args[i]);
+                  usage = (threads < 1);
+               } catch (NumberFormatException nfe) {
+                  usage = true;
+               }
+            }
+         } else {
+            source = arg;
+         }
+      }
+      if (usage || source == null) {
+         System.err.println("usage: BatchValidator [--quiet] [--fail-fast] "
+                            + "[--timing] [--sequential | --threads n] "
+                            + "<file | ->");
+         System.exit(2);
+      }
+
+      final PrintStream out = System.out;
+      Consumer<BatchRecordResult> printer;
+      if (quiet) {
+         printer = new Consumer<BatchRecordResult>() {
+            @Override
+            public void accept(BatchRecordResult result) {
+            }
+         };
+      } else {
+         printer = new ResultPrinter(out);
+      }
+
+      ReservationValidator rules = new ReservationValidator(
+            ReservationValidator.getDefaultRules(), mode, timed);
+      BatchValidator validator = new BatchValidator(rules);
+      BatchValidationReport report;
+      if (!source.equals("-")
+          && MappedReservationFile.isBinaryFile(Paths.get(source))) {
+         out.print(validator.validateBinaryFile(Paths.get(source), printer));
+         if (timed) {
+            out.println();
+            out.print(rules.getRuleTimings());
+         }
+         return;
+      }
+      Reader in = (source.equals("-")
+                   ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                   : Files.newBufferedReader(Paths.get(source),
+                                             StandardCharsets.UTF_8));
+      try {
+         if (sequential) {
+            report = validator.validate(in, printer);
+         } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+               report = validator.validate(in, printer, pool);
+            } finally {
+               pool.shutdown();
+            }
+         }
+      } finally {
+         in.close();
+      }
+      out.print(report);
+      if (!sequential) {
+         out.println("Threads:   " + threads);
+      }
+      if (timed) {
+         out.println();
+         out.print(rules.getRuleTimings());
+      }
+   }
+
+   /**
+    * Prints one line per record: the record number, its status, and the
+    * rules it failed.
+    */
+   static class ResultPrinter implements Consumer<BatchRecordResult> {
+      /** where the lines are printed */
+      private PrintStream out;
+
+      /**
+       * @param out where the lines are printed
+       */
+      ResultPrinter(PrintStream out) {
+         this.out = out;
+      }
+
+      @Override
+      public void accept(BatchRecordResult result) {
+         StringBuilder line = new StringBuilder();
+         line.append(result.getRecordNumber()).append('\t');
+         if (result.isMalformed()) {
+            line.append("MALFORMED\t").append(result.getErrorMessages());
+         } else if (result.isValid()) {
+            line.append("VALID");
+         } else {
+            line.append("INVALID");
+            for (ValidationRule rule : result.getFailures()) {
+               line.append('\t').append(rule.name());
+            }
+         }
+         out.println(line);
+      }
+   }
+}
@@ -0,0 +1,88 @@
+/**
+ * BinaryReservationFormat.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * Describes a compact binary file of reservations, written by
+ * BinaryReservationWriter and read by MappedReservationFile.  Every value
+ * is big-endian.  The file starts with a fixed-size header:
+ * <pre>
+ * offset  size  contents
+ *      0     4  MAGIC
+ *      4     2  VERSION
+ *      6     2  RECORD_SIZE
+ *      8     8  the number of records
+ *     16     8  the offset of the city table
+ * </pre>
+ * The records follow the header back to back, each RECORD_SIZE bytes:
+ * <pre>
+ * offset  size  contents
+ *      0     4  the departure city ID
+ *      4     4  the arrival city ID
+ *      8     4  the packed departure date and hour (see PackedDate)
+ *     12     4  the packed return date and hour
+ *     16     1  the number of passengers, signed
+ * </pre>
+ * A city ID is an index into the city table, which comes after the
+ * records so that a file can be written in one pass.  It holds a 4-byte
+ * count followed by each city name as a 2-byte unsigned length and that
+ * many bytes of UTF-8.  ID 0 is always the blank city, "".
+ */
+public final class BinaryReservationFormat {
+   /** identifies the file format: "CMRV" in ASCII */
+   public static final int MAGIC = 0x434D5256;
+
+   /** the version of the format described here */
+   public static final short VERSION = 1;
+
+   /** the size of the header in bytes */
+   public static final int HEADER_SIZE = 24;
+
+   /** the size of each record in bytes */
+   public static final int RECORD_SIZE = 17;
+
+   /** the ID of the blank city */
+   public static final int BLANK_CITY_ID = 0;
+
+   /** the longest city name, in bytes of UTF-8 */
+   public static final int MAX_CITY_BYTES = 0xFFFF;
+
+   /** the offset of VERSION within the header */
+   static final int VERSION_OFFSET = 4;
+
+   /** the offset of RECORD_SIZE within the header */
+   static final int RECORD_SIZE_OFFSET = 6;
+
+   /** the offset of the record count within the header */
+   static final int RECORD_COUNT_OFFSET = 8;
+
+   /** the offset of the city table offset within the header */
+   static final int CITY_TABLE_OFFSET = 16;
+
+   /** the offset of the departure city ID within a record */
+   static final int DEPARTURE_CITY = 0;
+
+   /** the offset of the arrival city ID within a record */
+   static final int ARRIVAL_CITY = 4;
+
+   /** the offset of the departure date within a record */
+   static final int DEPARTURE_DATE = 8;
+
+   /** the offset of the return date within a record */
+   static final int RETURN_DATE = 12;
+
+   /** the offset of the number of passengers within a record */
+   static final int NUM_PASSENGERS = 16;
+
+   /**
+    * There is no reason to create a BinaryReservationFormat
+    */
+   private BinaryReservationFormat() {
+   }
+}
@@ -0,0 +1,225 @@
+/**
+ * BinaryReservationWriter.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes reservations to a file in the format described by
+ * BinaryReservationFormat.  The records are written as they arrive, in one
+ * pass; the city table and the header are completed by close(), so a file
+ * that was not closed is not readable.
+ */
+public class BinaryReservationWriter implements Closeable {
+   /** the size of the buffer the records are collected in.  It must hold
+    * the count of cities and the longest city name that can be written,
+    * since close() only writes out the buffer between entries.
+    */
+   private static final int BUFFER_SIZE = 128 * 1024;
+
+   /** the file being written */
+   private final FileChannel channel;
+
+   /** collects records until it is full */
+   private final ByteBuffer buffer;
+
+   /** one more than the ID within the file of every city written so far,
+    * indexed by its ID in CityDictionary.getDefault(), or 0 if the city
+    * has not been written yet
+    */
+   private int[] fileCityIds;
+
+   /** every city written so far, indexed by ID within the file */
+   private final List<String> cities;
+
+   /** the number of records written */
+   private long recordCount;
+
+   /**
+    * Creates a new file, replacing any existing one
+    * @param file the file to write
+    * @throws IOException if the file cannot be created
+    */
+   public BinaryReservationWriter(Path file) throws IOException {
+      channel = FileChannel.open(file,
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.WRITE);
+      buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      fileCityIds = new int[CityDictionary.getDefault().size()];
+      cities = new ArrayList<String>();
+      fileCityIds[CityDictionary.BLANK_ID] =
+         BinaryReservationFormat.BLANK_CITY_ID + 1;
+      cities.add("");
+      recordCount = 0;
+      // leave room for the header, which is written by close()
+      channel.position(BinaryReservationFormat.HEADER_SIZE);
+   }
+
+   /**
+    * Writes one reservation
+    * @param reservation the reservation to write
+    * @throws IOException if the file cannot be written
+    * @throws IllegalArgumentException if the number of passengers does not
+    *         fit in a byte or a city name is too long
+    */
+   public void write(ReservationData reservation) throws IOException {
+      int numPassengers = reservation.getNumPassengers();
+      if (numPassengers < Byte.MIN_VALUE || numPassengers > Byte.MAX_VALUE) {
+         throw new IllegalArgumentException(
+               "Invalid number of passengers: " + numPassengers);
+      }
+      int departureCity =
+         getCityId(Reservation.internDepartureCity(reservation));
+      int arrivalCity = getCityId(Reservation.internArrivalCity(reservation));
+      if (buffer.remaining() < BinaryReservationFormat.RECORD_SIZE) {
+         flush();
+      }
+      buffer.putInt(departureCity)
+            .putInt(arrivalCity)
+            .putInt(reservation.getDepartureDate())
+            .putInt(reservation.getReturnDate())
+            .put((byte) numPassengers);
+      recordCount++;
+   }
+
+   /**
+    * @return the number of records written so far
+    */
+   public long getRecordCount() {
+      return recordCount;
+   }
+
+   /**
+    * Writes the city table and the header and closes the file.  Closing a
+    * writer that is already closed has no effect.
+    * @throws IOException if the file cannot be written
+    */
+   @Override
+   public void close() throws IOException {
+      if (!channel.isOpen()) {
+         return;
+      }
+      try {
+         flush();
+         long cityTableOffset = channel.position();
+         buffer.putInt(cities.size());
+         for (String city : cities) {
+            byte[] name = city.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < 2 + name.length) {
+               flush();
+            }
+            buffer.putShort((short) name.length).put(name);
+         }
+         flush();
+
+         buffer.putInt(BinaryReservationFormat.MAGIC)
+               .putShort(BinaryReservationFormat.VERSION)
+               .putShort((short) BinaryReservationFormat.RECORD_SIZE)
+               .putLong(recordCount)
+               .putLong(cityTableOffset);
+         buffer.flip();
+         long position = 0;
+         while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+         }
+         buffer.clear();
+      } finally {
+         channel.close();
+      }
+   }
+
+   /**
+    * Private helper function to look up the ID within the file of a city,
+    * adding it to the table if it is new.  Cities are found by their ID in
+    * CityDictionary.getDefault(), so no name is hashed per record.
+    */
+   private int getCityId(int dictionaryId) {
+      if (dictionaryId >= fileCityIds.length) {
+         fileCityIds = Arrays.copyOf(
+               fileCityIds,
+               Math.max(dictionaryId + 1, fileCityIds.length * 2));
+      }
+      int id = fileCityIds[dictionaryId] - 1;
+      if (id < 0) {
+         String city = CityDictionary.getDefault().nameOf(dictionaryId);
+         if (city.getBytes(StandardCharsets.UTF_8).length
+             > BinaryReservationFormat.MAX_CITY_BYTES) {
+            throw new IllegalArgumentException("City name too long: " + city);
+         }
+         id = cities.size();
+         fileCityIds[dictionaryId] = id + 1;
+         cities.add(city);
+      }
+      return id;
+   }
+
+   /**
+    * Private helper function to write out the buffer
+    */
+   private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      buffer.clear();
+   }
+
+   /**
+    * Converts a text file of reservations in the format described by
+    * ReservationRecordReader into a binary file.  Malformed records are
+    * reported and left out.
+    * <pre>
+    * usage: BinaryReservationWriter &lt;text file&gt; &lt;binary file&gt;
+    * </pre>
+    * @param args the command line arguments
+    * @throws IOException if a file cannot be read or written
+    */
+   public static void main(String[] args) throws IOException {
+      if (args.length != 2) {
+         System.err.println(
+               "usage: BinaryReservationWriter <text file> <binary file>");
+         System.exit(2);
+      }
+      long malformed = 0;
+      try (Reader in = Files.newBufferedReader(Paths.get(args[0]),
+                                               StandardCharsets.UTF_8);
+           BinaryReservationWriter out =
+              new BinaryReservationWriter(Paths.get(args[1]))) {
+         ReservationRecordReader reader = new ReservationRecordReader(in);
+         while (true) {
+            try {
+               Reservation reservation = reader.readNext();
+               if (reservation == null) {
+                  break;
+               }
+               out.write(reservation);
+            } catch (IllegalArgumentException iae) {
+               malformed++;
+               System.err.println("Line " + reader.getLineNumber() + ": "
+                                  + iae.getMessage());
+            }
+         }
+         System.err.println("Wrote " + out.getRecordCount() + " records, "
+                            + "skipped " + malformed + " malformed records");
+      }
+   }
+}
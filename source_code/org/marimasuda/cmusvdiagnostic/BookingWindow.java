@@ -0,0 +1,340 @@
+/**
+ * BookingWindow.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.GregorianCalendar;
+
+/**
+ * The range of days on which travel may be booked, from the first day at
+ * hour 0 through the last day at hour 23.  The business rules, the error
+ * messages, and the years offered by the date pickers all come from the
+ * window returned by getDefault(), which is configured at startup with
+ * the system properties START_PROPERTY and END_PROPERTY and defaults to
+ * Jan. 1, 2011 through Dec. 31, 2012.  For example,
+ * <pre>
+ * -Dcmusvdiagnostic.bookingWindow.start=today
+ * -Dcmusvdiagnostic.bookingWindow.end=+330
+ * </pre>
+ * allows booking from today through 330 days from today.  The properties
+ * are read when the class is initialized, so a malformed value makes that
+ * fail with an ExceptionInInitializerError whose cause is the
+ * IllegalArgumentException naming the property; any later use of the
+ * class, or of a class whose constants come from the window, then throws
+ * NoClassDefFoundError.  The main methods check the window first and
+ * report such a value as an error.
+ *
+ * Everything about the window is computed once, for every day of every
+ * year it touches: an index giving each day a number, counted from
+ * Jan. 1 of the first year, and a bitmap of which of those days are in
+ * the window.  Checking a packed date (see PackedDate) is then a table
+ * lookup and an integer comparison or a bit test, with no calendar
+ * arithmetic at all.
+ */
+public final class BookingWindow {
+   /** the system property that sets the first day of the default window:
+    * an ISO date such as "2011-01-01", or "today"
+    */
+   public static final String START_PROPERTY =
+      "cmusvdiagnostic.bookingWindow.start";
+
+   /** the system property that sets the last day of the default window: an
+    * ISO date such as "2012-12-31", or "+n" for n days after the first day
+    */
+   public static final String END_PROPERTY =
+      "cmusvdiagnostic.bookingWindow.end";
+
+   /** the first day of the default window if START_PROPERTY is not set */
+   private static final String DEFAULT_START = "2011-01-01";
+
+   /** the last day of the default window if END_PROPERTY is not set */
+   private static final String DEFAULT_END = "2012-12-31";
+
+   /** the last hour of a day */
+   private static final int LAST_HOUR = 23;
+
+   /** the number of bits in each word of the bitmap */
+   private static final int BITS_PER_WORD = 64;
+
+   /** the window shared by the whole program */
+   private static final BookingWindow DEFAULT = createDefault();
+
+   /** the first day in the window */
+   private final LocalDate firstDay;
+
+   /** the last day in the window */
+   private final LocalDate lastDay;
+
+   /** the earliest packed date in the window, the first day at hour 0 */
+   private final int minDate;
+
+   /** the latest packed date in the window, the last day at hour 23 */
+   private final int maxDate;
+
+   /** the year of the first day */
+   private final int firstYear;
+
+   /** the year of the last day */
+   private final int lastYear;
+
+   /** the number of the first day of each month, counted from Jan. 1 of
+    * firstYear, indexed by (year - firstYear) * MONTHS_PER_YEAR + month
+    */
+   private final int[] monthStarts;
+
+   /** the number of the first day in the window */
+   private final int firstIndex;
+
+   /** the number of the last day in the window */
+   private final int lastIndex;
+
+   /** one bit for every day of every year the window touches, set if the
+    * day is in the window
+    */
+   private final long[] days;
+
+   /**
+    * Creates a new window
+    * @param firstDay the first day on which travel may be booked
+    * @param lastDay the last day on which travel may be booked
+    * @throws IllegalArgumentException if lastDay is before firstDay, or
+    *         either cannot be packed (see PackedDate)
+    */
+   public BookingWindow(LocalDate firstDay, LocalDate lastDay) {
+      if (lastDay.isBefore(firstDay)) {
+         throw new IllegalArgumentException(
+               "The booking window ends before it starts: " + firstDay
+               + " to " + lastDay);
+      }
+      this.firstDay = firstDay;
+      this.lastDay = lastDay;
+      minDate = PackedDate.pack(firstDay.getYear(), toMonth(firstDay),
+                                firstDay.getDayOfMonth(), 0);
+      maxDate = PackedDate.pack(lastDay.getYear(), toMonth(lastDay),
+                                lastDay.getDayOfMonth(), LAST_HOUR);
+      firstYear = firstDay.getYear();
+      lastYear = lastDay.getYear();
+
+      CalendarTable calendarTable = CalendarTable.getDefault();
+      int numMonths =
+         (lastYear - firstYear + 1) * CalendarTable.MONTHS_PER_YEAR;
+      monthStarts = new int[numMonths + 1];
+      for (int i = 0; i < numMonths; i++) {
+         monthStarts[i + 1] = monthStarts[i] + calendarTable.getMonthLength(
+               firstYear + i / CalendarTable.MONTHS_PER_YEAR,
+               i % CalendarTable.MONTHS_PER_YEAR);
+      }
+      firstIndex = getIndex(minDate);
+      lastIndex = getIndex(maxDate);
+      days = new long[(monthStarts[numMonths] + BITS_PER_WORD - 1)
+                      / BITS_PER_WORD];
+      for (int i = firstIndex; i <= lastIndex; i++) {
+         days[i / BITS_PER_WORD] |= 1L << (i % BITS_PER_WORD);
+      }
+   }
+
+   /**
+    * @return the window shared by the whole program, configured by
+    * START_PROPERTY and END_PROPERTY
+    */
+   public static BookingWindow getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * @return the first day in the window
+    */
+   public LocalDate getFirstDay() {
+      return firstDay;
+   }
+
+   /**
+    * @return the last day in the window
+    */
+   public LocalDate getLastDay() {
+      return lastDay;
+   }
+
+   /**
+    * @return the earliest packed date in the window, the first day at
+    * hour 0 (see PackedDate)
+    */
+   public int getMinDate() {
+      return minDate;
+   }
+
+   /**
+    * @return the latest packed date in the window, the last day at hour 23
+    * (see PackedDate)
+    */
+   public int getMaxDate() {
+      return maxDate;
+   }
+
+   /**
+    * @return the year of the first day in the window
+    */
+   public int getFirstYear() {
+      return firstYear;
+   }
+
+   /**
+    * @return the year of the last day in the window
+    */
+   public int getLastYear() {
+      return lastYear;
+   }
+
+   /**
+    * @return the number of days in the window
+    */
+   public int getDayCount() {
+      return lastIndex - firstIndex + 1;
+   }
+
+   /**
+    * @param date a packed date (see PackedDate)
+    * @return true if the date is set and its day is in the window
+    */
+   public boolean contains(int date) {
+      if (!PackedDate.isSet(date)) {
+         return false;
+      }
+      int year = PackedDate.getYear(date);
+      if (year < firstYear || year > lastYear) {
+         return false;
+      }
+      int index = getIndex(date);
+      return (days[index / BITS_PER_WORD] & (1L << (index % BITS_PER_WORD)))
+             != 0;
+   }
+
+   /**
+    * @param date a packed date (see PackedDate).  An UNSET date counts as
+    *             Jan. 1, 1970, as in PackedDate.compare().
+    * @return true if the date is before the first day of the window
+    */
+   public boolean isBefore(int date) {
+      int year = PackedDate.getYear(date);
+      if (year != firstYear) {
+         return year < firstYear;
+      }
+      return getIndex(date) < firstIndex;
+   }
+
+   /**
+    * @param date a packed date (see PackedDate).  An UNSET date counts as
+    *             Jan. 1, 1970, as in PackedDate.compare().
+    * @return true if the date is after the last day of the window
+    */
+   public boolean isAfter(int date) {
+      int year = PackedDate.getYear(date);
+      if (year != lastYear) {
+         return year > lastYear;
+      }
+      return getIndex(date) > lastIndex;
+   }
+
+   /**
+    * Numbers the days of the window, e.g., to index per-day tables
+    * @param date a packed date (see PackedDate) within the years the
+    *             window touches
+    * @return the number of days from the first day of the window to the
+    *         date, which is negative if the date is before the window
+    * @throws IllegalArgumentException if the date is not set or its year
+    *         is outside the years the window touches
+    */
+   public int getDayOrdinal(int date) {
+      int year = PackedDate.getYear(date);
+      if (!PackedDate.isSet(date) || year < firstYear || year > lastYear) {
+         throw new IllegalArgumentException(
+               "Date outside the booking window's years: "
+               + PackedDate.format(date));
+      }
+      return getIndex(date) - firstIndex;
+   }
+
+   /**
+    * @return a description such as "2011-01-01 to 2012-12-31"
+    */
+   @Override
+   public String toString() {
+      return firstDay + " to " + lastDay;
+   }
+
+   /**
+    * Private helper function to number a day within the years the window
+    * touches, counting from Jan. 1 of firstYear
+    */
+   private int getIndex(int date) {
+      return monthStarts[(PackedDate.getYear(date) - firstYear)
+                         * CalendarTable.MONTHS_PER_YEAR
+                         + PackedDate.getMonth(date)]
+             + PackedDate.getDay(date) - 1;
+   }
+
+   /**
+    * Private helper function to convert the month of a LocalDate into a
+    * zero-based month such as GregorianCalendar.JANUARY
+    */
+   private static int toMonth(LocalDate day) {
+      return day.getMonthValue() - 1 + GregorianCalendar.JANUARY;
+   }
+
+   /**
+    * Private helper function to create the default window from
+    * START_PROPERTY and END_PROPERTY
+    */
+   private static BookingWindow createDefault() {
+      LocalDate first =
+         parseStart(System.getProperty(START_PROPERTY, DEFAULT_START));
+      return new BookingWindow(
+            first, parseEnd(first, System.getProperty(END_PROPERTY,
+                                                      DEFAULT_END)));
+   }
+
+   /**
+    * Private helper function to read START_PROPERTY
+    */
+   private static LocalDate parseStart(String text) {
+      if (text.trim().equalsIgnoreCase("today")) {
+         return LocalDate.now();
+      }
+      return parseDay(START_PROPERTY, text);
+   }
+
+   /**
+    * Private helper function to read END_PROPERTY
+    */
+   private static LocalDate parseEnd(LocalDate firstDay, String text) {
+      String trimmed = text.trim();
+      if (trimmed.startsWith("+")) {
+         try {
+            return firstDay.plusDays(Integer.parseInt(trimmed.substring(1)));
+         } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException(
+                  "Invalid " + END_PROPERTY + ": " + text, nfe);
+         }
+      }
+      return parseDay(END_PROPERTY, trimmed);
+   }
+
+   /**
+    * Private helper function to read an ISO date from a system property
+    */
+   private static LocalDate parseDay(String property, String text) {
+      try {
+         return LocalDate.parse(text.trim());
+      } catch (DateTimeParseException dtpe) {
+         throw new IllegalArgumentException(
+               "Invalid " + property + ": " + text, dtpe);
+      }
+   }
+}
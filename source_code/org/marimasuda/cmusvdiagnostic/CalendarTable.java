@@ -0,0 +1,175 @@
+/**
+ * CalendarTable.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.text.DateFormatSymbols;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+
+/**
+ * An immutable table of calendar metadata, precomputed for a range of
+ * years: the length of every month, which years are leap years, and the
+ * localized month names.  Looking up a value is an array read, so the date
+ * pickers and the validation code never need to create a GregorianCalendar
+ * just to ask how long a month is or what it is called.  Years outside the
+ * table's range are still answered correctly, only more slowly.
+ *
+ * One table, returned by getDefault(), is shared by the whole program.  Its
+ * range can be configured at startup with the system properties
+ * "cmusvdiagnostic.calendar.minYear" and "cmusvdiagnostic.calendar.maxYear".
+ */
+public final class CalendarTable {
+   /** the system property that overrides the default table's first year */
+   public static final String MIN_YEAR_PROPERTY =
+      "cmusvdiagnostic.calendar.minYear";
+
+   /** the system property that overrides the default table's last year */
+   public static final String MAX_YEAR_PROPERTY =
+      "cmusvdiagnostic.calendar.maxYear";
+
+   /** the default table's first year.  It must include 1970, the year that
+    * an unset date reports (see PackedDate.UNSET).
+    */
+   private static final int DEFAULT_MIN_YEAR = 1970;
+
+   /** the default table's last year */
+   private static final int DEFAULT_MAX_YEAR = 2099;
+
+   /** the locale the month names have always been displayed in */
+   private static final Locale DEFAULT_LOCALE = new Locale("US");
+
+   /** the number of months in a year */
+   public static final int MONTHS_PER_YEAR = 12;
+
+   /** the number of days in each month of a non-leap year */
+   private static final int[] MONTH_LENGTHS =
+      { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+   /** the table shared by the whole program */
+   private static final CalendarTable DEFAULT = new CalendarTable(
+         Integer.getInteger(MIN_YEAR_PROPERTY, DEFAULT_MIN_YEAR),
+         Integer.getInteger(MAX_YEAR_PROPERTY, DEFAULT_MAX_YEAR),
+         DEFAULT_LOCALE);
+
+   /** the first year in the table */
+   private final int minYear;
+
+   /** the last year in the table */
+   private final int maxYear;
+
+   /** the length of each month, indexed by
+    * (year - minYear) * MONTHS_PER_YEAR + month
+    */
+   private final byte[] monthLengths;
+
+   /** whether each year is a leap year, indexed by year - minYear */
+   private final boolean[] leapYears;
+
+   /** the full month names, indexed by zero-based month */
+   private final String[] monthNames;
+
+   /**
+    * Creates a new table
+    * @param minYear the first year to precompute
+    * @param maxYear the last year to precompute
+    * @param locale the locale of the month names
+    * @throws IllegalArgumentException if maxYear is before minYear
+    */
+   public CalendarTable(int minYear, int maxYear, Locale locale) {
+      if (maxYear < minYear) {
+         throw new IllegalArgumentException(
+               "Invalid year range: " + minYear + "-" + maxYear);
+      }
+      this.minYear = minYear;
+      this.maxYear = maxYear;
+      int numYears = maxYear - minYear + 1;
+      leapYears = new boolean[numYears];
+      monthLengths = new byte[numYears * MONTHS_PER_YEAR];
+      for (int year = minYear; year <= maxYear; year++) {
+         leapYears[year - minYear] = computeLeapYear(year);
+         for (int month = 0; month < MONTHS_PER_YEAR; month++) {
+            monthLengths[(year - minYear) * MONTHS_PER_YEAR + month] =
+               (byte) computeMonthLength(year, month);
+         }
+      }
+      String[] names = new DateFormatSymbols(locale).getMonths();
+      monthNames = new String[MONTHS_PER_YEAR];
+      System.arraycopy(names, 0, monthNames, 0, MONTHS_PER_YEAR);
+   }
+
+   /**
+    * @return the table shared by the whole program
+    */
+   public static CalendarTable getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * @return the first year in the table
+    */
+   public int getMinYear() {
+      return minYear;
+   }
+
+   /**
+    * @return the last year in the table
+    */
+   public int getMaxYear() {
+      return maxYear;
+   }
+
+   /**
+    * @param year the year
+    * @param month the zero-based month, e.g., GregorianCalendar.JANUARY
+    * @return the number of days in the given month
+    */
+   public int getMonthLength(int year, int month) {
+      if (year >= minYear && year <= maxYear) {
+         return monthLengths[(year - minYear) * MONTHS_PER_YEAR + month];
+      }
+      return computeMonthLength(year, month);
+   }
+
+   /**
+    * @param year the year
+    * @return true if the year is a leap year
+    */
+   public boolean isLeapYear(int year) {
+      if (year >= minYear && year <= maxYear) {
+         return leapYears[year - minYear];
+      }
+      return computeLeapYear(year);
+   }
+
+   /**
+    * @param month the zero-based month, e.g., GregorianCalendar.JANUARY
+    * @return the full name of the month, e.g., "January"
+    */
+   public String getMonthName(int month) {
+      return monthNames[month];
+   }
+
+   /**
+    * Private helper function to compute whether a year is a leap year in
+    * the (proleptic) Gregorian calendar
+    */
+   private static boolean computeLeapYear(int year) {
+      return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+   }
+
+   /**
+    * Private helper function to compute the length of a month
+    */
+   private static int computeMonthLength(int year, int month) {
+      if (month == GregorianCalendar.FEBRUARY && computeLeapYear(year)) {
+         return 29;
+      }
+      return MONTH_LENGTHS[month];
+   }
+}
@@ -0,0 +1,296 @@
+/**
+ * CityAutocomplete.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Shows a list of suggested cities below a JTextField as the user types,
+ * taken from CityIndex.getDefault().  The arrow keys move through the
+ * suggestions, Enter or a click copies the chosen one into the text field,
+ * and Escape hides them.
+ *
+ * Lookups never run on the event dispatch thread.  Every edit is given a
+ * sequence number and its lookup is handed to a single background thread;
+ * the suggestions are then shown on the event dispatch thread, but only if
+ * no later edit has been made in the meantime.  A lookup that is still
+ * waiting when a later edit arrives is skipped altogether, so however fast
+ * the user types, typing never waits for a lookup and stale suggestions
+ * are never shown.  The city list itself is read on the background thread
+ * too, as soon as the first CityAutocomplete is created.
+ */
+public class CityAutocomplete implements DocumentListener {
+   /** the most suggestions shown at once */
+   public static final int MAX_SUGGESTIONS = 10;
+
+   /** runs the lookups of every text field, one at a time, off the event
+    * dispatch thread
+    */
+   private static final ExecutorService LOOKUPS =
+      Executors.newSingleThreadExecutor(new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "city-autocomplete");
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+
+   /** the text field whose text is completed */
+   private final JTextField textField;
+
+   /** the suggestions currently shown */
+   private final DefaultListModel<String> suggestions;
+
+   /** shows the suggestions */
+   private final JList<String> suggestionList;
+
+   /** holds the suggestion list below the text field */
+   private final JPopupMenu popup;
+
+   /** the sequence number of the latest edit.  Only the lookup for that
+    * edit may show its results.
+    */
+   private final AtomicLong latestQuery;
+
+   /** the number of lookups that were skipped or whose results were
+    * discarded because a later edit had been made
+    */
+   private final AtomicLong staleQueries;
+
+   /** true while a suggestion is being copied into the text field, so
+    * that the copy does not start another lookup
+    */
+   private boolean applyingSuggestion;
+
+   /**
+    * Creates a new autocomplete and registers it with the text field.  Must
+    * be called on the event dispatch thread.
+    * @param textField the text field whose text is completed
+    */
+   public CityAutocomplete(JTextField textField) {
+      this.textField = textField;
+      suggestions = new DefaultListModel<String>();
+      suggestionList = new JList<String>(suggestions);
+      suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+      suggestionList.setFocusable(false);
+      suggestionList.addMouseListener(new MouseAdapter() {
+         @Override
+         public void mouseClicked(MouseEvent me) {
+            int index = suggestionList.locationToIndex(me.getPoint());
+            if (index >= 0) {
+               accept(suggestions.get(index));
+            }
+         }
+      });
+      JScrollPane scrollPane = new JScrollPane(suggestionList);
+      scrollPane.setFocusable(false);
+      popup = new JPopupMenu();
+      popup.setFocusable(false);
+      popup.add(scrollPane);
+      latestQuery = new AtomicLong();
+      staleQueries = new AtomicLong();
+      applyingSuggestion = false;
+
+      textField.getDocument().addDocumentListener(this);
+      textField.addKeyListener(new SuggestionKeyListener());
+      textField.addFocusListener(new FocusAdapter() {
+         @Override
+         public void focusLost(FocusEvent fe) {
+            hideSuggestions();
+         }
+      });
+
+      // read the city list now, so the first lookup does not have to
+      LOOKUPS.execute(new Runnable() {
+         @Override
+         public void run() {
+            CityIndex.getDefault();
+         }
+      });
+   }
+
+   @Override
+   public void insertUpdate(DocumentEvent de) {
+      textChanged();
+   }
+
+   @Override
+   public void removeUpdate(DocumentEvent de) {
+      textChanged();
+   }
+
+   @Override
+   public void changedUpdate(DocumentEvent de) {
+      // attribute changes do not affect the text
+   }
+
+   /**
+    * @return true if suggestions are currently shown
+    */
+   public boolean isShowingSuggestions() {
+      return popup.isVisible();
+   }
+
+   /**
+    * @return the number of lookups that were skipped, or whose results
+    * were discarded, because a later edit had been made
+    */
+   public long getStaleQueryCount() {
+      return staleQueries.get();
+   }
+
+   /**
+    * Private helper function to start a lookup for the current text.  Any
+    * lookup started earlier is made stale.
+    */
+   private void textChanged() {
+      if (applyingSuggestion) {
+         return;
+      }
+      final long query = latestQuery.incrementAndGet();
+      final String prefix = textField.getText().trim();
+      LOOKUPS.execute(new Runnable() {
+         @Override
+         public void run() {
+            if (latestQuery.get() != query) {
+               staleQueries.incrementAndGet();
+               return;
+            }
+            final List<String> found =
+               CityIndex.getDefault().suggest(prefix, MAX_SUGGESTIONS);
+            SwingUtilities.invokeLater(new Runnable() {
+               @Override
+               public void run() {
+                  if (latestQuery.get() != query) {
+                     staleQueries.incrementAndGet();
+                  } else {
+                     showSuggestions(prefix, found);
+                  }
+               }
+            });
+         }
+      });
+   }
+
+   /**
+    * Private helper function to show the results of the latest lookup.
+    * Nothing is shown if there are no suggestions, if the only suggestion
+    * is what has already been typed, or if the text field no longer has
+    * the focus.
+    */
+   private void showSuggestions(String prefix, List<String> found) {
+      if (found.isEmpty() || !textField.isShowing()
+          || !textField.hasFocus()
+          || (found.size() == 1 && found.get(0).equals(prefix))) {
+         hideSuggestions();
+         return;
+      }
+      suggestions.clear();
+      for (String city : found) {
+         suggestions.addElement(city);
+      }
+      suggestionList.clearSelection();
+      suggestionList.setVisibleRowCount(found.size());
+      // as wide as the text field, as tall as the suggestions need
+      popup.setPreferredSize(null);
+      popup.setPopupSize(textField.getWidth(),
+                         popup.getPreferredSize().height);
+      if (!popup.isVisible()) {
+         popup.show(textField, 0, textField.getHeight());
+      }
+   }
+
+   /**
+    * Private helper function to hide the suggestions
+    */
+   private void hideSuggestions() {
+      popup.setVisible(false);
+   }
+
+   /**
+    * Private helper function to copy a suggestion into the text field.
+    * Any lookup still in progress is made stale.
+    */
+   private void accept(String city) {
+      latestQuery.incrementAndGet();
+      applyingSuggestion = true;
+      try {
+         textField.setText(city);
+      } finally {
+         applyingSuggestion = false;
+      }
+      hideSuggestions();
+   }
+
+   /**
+    * Inner class to move through the suggestions and choose one with the
+    * keyboard while the text field keeps the focus.
+    */
+   private class SuggestionKeyListener extends KeyAdapter {
+      @Override
+      public void keyPressed(KeyEvent ke) {
+         if (!popup.isVisible()) {
+            return;
+         }
+         int selected = suggestionList.getSelectedIndex();
+         switch (ke.getKeyCode()) {
+         case KeyEvent.VK_DOWN:
+            select(Math.min(selected + 1, suggestions.size() - 1));
+            ke.consume();
+            break;
+         case KeyEvent.VK_UP:
+            select(Math.max(selected - 1, 0));
+            ke.consume();
+            break;
+         case KeyEvent.VK_ENTER:
+            if (selected >= 0) {
+               accept(suggestions.get(selected));
+               ke.consume();
+            }
+            break;
+         case KeyEvent.VK_ESCAPE:
+            latestQuery.incrementAndGet();
+            hideSuggestions();
+            ke.consume();
+            break;
+         default:
+            break;
+         }
+      }
+
+      /**
+       * Private helper function to select a suggestion and scroll to it
+       */
+      private void select(int index) {
+         suggestionList.setSelectedIndex(index);
+         suggestionList.ensureIndexIsVisible(index);
+      }
+   }
+}
@@ -0,0 +1,153 @@
+/**
+ * CityDictionary.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every distinct city name a small, stable int ID, so that a
+ * reservation can hold two ints instead of two Strings.  However many
+ * reservations name the same city, only one copy of the name is kept, and
+ * comparing or grouping cities becomes comparing ints.  ID 0 is always the
+ * blank city, "".
+ *
+ * Names are stored exactly as given; callers normalize them first by
+ * trimming them, just as the GUI and the record readers always have, so
+ * the itinerary shows the city exactly as before.  IDs are never reused or
+ * forgotten, so the dictionary only grows.  That is why only the cities of
+ * reservations that are kept, i.e., held, stored, or persisted, are given
+ * IDs with idOf() (see Reservation.intern()).  Transient text, such as a
+ * city being typed, and untrusted input that is only validated, such as
+ * requests to ValidationServer or batch files, is looked up with find(),
+ * which never adds a name; a city without an ID is reported as UNKNOWN_ID
+ * and its name is kept by the reservation itself.
+ *
+ * Looking up a name that already has an ID, and looking up the name of an
+ * ID, never lock, so any number of threads may use one dictionary at once.
+ * Only assigning a new ID is done under a lock, which is rare once the
+ * common cities have been seen.
+ */
+public final class CityDictionary {
+   /** the ID of the blank city, "" */
+   public static final int BLANK_ID = 0;
+
+   /** stands for a city that has not been given an ID (see find()) */
+   public static final int UNKNOWN_ID = -1;
+
+   /** the initial capacity of the table of names */
+   private static final int INITIAL_CAPACITY = 1024;
+
+   /** the dictionary shared by the whole program */
+   private static final CityDictionary DEFAULT = new CityDictionary();
+
+   /** the ID of every name */
+   private final ConcurrentHashMap<String, Integer> ids;
+
+   /** the names, indexed by ID.  Entries below count never change, and the
+    * array is replaced by a larger copy before it fills up.
+    */
+   private volatile String[] names;
+
+   /** the number of IDs assigned.  It is written after the name it makes
+    * visible, so a reader that sees an ID below count also sees its name.
+    */
+   private volatile int count;
+
+   /**
+    * Creates a dictionary that only contains the blank city.  Callers are
+    * encouraged to share getDefault() instead.
+    */
+   public CityDictionary() {
+      ids = new ConcurrentHashMap<String, Integer>(INITIAL_CAPACITY);
+      names = new String[INITIAL_CAPACITY];
+      names[BLANK_ID] = "";
+      ids.put("", BLANK_ID);
+      count = 1;
+   }
+
+   /**
+    * @return the dictionary shared by the whole program
+    */
+   public static CityDictionary getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * Looks up the ID of a city, assigning a new one if the city has not
+    * been seen before.  Only call this for a city that is to be kept,
+    * since the ID is never freed.
+    * @param name the trimmed name of the city, or "" if it is blank
+    * @return the city's ID
+    */
+   public int idOf(String name) {
+      Integer id = ids.get(name);
+      return (id != null ? id : assign(name));
+   }
+
+   /**
+    * Looks up the ID of a city without assigning one
+    * @param name the trimmed name of the city, or "" if it is blank
+    * @return the city's ID, or UNKNOWN_ID if it has not been given one
+    */
+   public int find(String name) {
+      Integer id = ids.get(name);
+      return (id != null ? id : UNKNOWN_ID);
+   }
+
+   /**
+    * @param id an ID returned by idOf()
+    * @return the name of the city with the given ID
+    * @throws IllegalArgumentException if no city has the given ID
+    */
+   public String nameOf(int id) {
+      if (id < 0 || id >= count) {
+         throw new IllegalArgumentException("Unknown city ID: " + id);
+      }
+      return names[id];
+   }
+
+   /**
+    * @param id an int that may be a city ID
+    * @return true if a city has the given ID
+    */
+   public boolean contains(int id) {
+      return id >= 0 && id < count;
+   }
+
+   /**
+    * @return the number of cities, including the blank city
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Private helper function to assign the next ID to a new name.  Another
+    * thread may have assigned it in the meantime, so the map is checked
+    * again under the lock.
+    */
+   private synchronized int assign(String name) {
+      Integer existing = ids.get(name);
+      if (existing != null) {
+         return existing;
+      }
+      int id = count;
+      String[] table = names;
+      if (id == table.length) {
+         String[] larger = new String[table.length * 2];
+         System.arraycopy(table, 0, larger, 0, table.length);
+         names = larger;
+         table = larger;
+      }
+      table[id] = name;
+      count = id + 1;
+      ids.put(name, id);
+      return id;
+   }
+}
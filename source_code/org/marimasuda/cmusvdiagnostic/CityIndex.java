@@ -0,0 +1,207 @@
+/**
+ * CityIndex.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable list of city names that can be searched by prefix, used to
+ * suggest cities as the user types.  The names are kept in one array sorted
+ * by their lower case form, so the cities that start with a prefix are a
+ * contiguous run found by binary search.  A lookup costs O(log n) string
+ * comparisons plus one per suggestion returned, and allocates nothing but
+ * the list it returns, so even hundreds of thousands of cities answer in
+ * well under a millisecond.
+ *
+ * Matching ignores case, but suggestions are returned exactly as they
+ * appear in the city list.  The index that getDefault() returns is read
+ * from the file named by the CITY_LIST_PROPERTY system property.
+ */
+public final class CityIndex {
+   /** the system property that names the city list file read by
+    * getDefault().  The file holds one city per line, in UTF-8; blank lines
+    * and repeated cities are ignored.
+    */
+   public static final String CITY_LIST_PROPERTY =
+      "cmusvdiagnostic.cityListFile";
+
+   /** the index shared by the whole program, created on first use */
+   private static CityIndex defaultIndex;
+
+   /** the names, sorted by key and then by name */
+   private final String[] names;
+
+   /** the lower case form of each name, indexed like names */
+   private final String[] keys;
+
+   /**
+    * Creates an index of the given cities.  Names are trimmed, and blank
+    * or repeated names are ignored.
+    * @param cities the names of the cities
+    */
+   public CityIndex(Collection<String> cities) {
+      Entry[] sorted = new Entry[cities.size()];
+      int count = 0;
+      for (String city : cities) {
+         String name = city.trim();
+         if (!name.isEmpty()) {
+            sorted[count++] = new Entry(name);
+         }
+      }
+      Arrays.sort(sorted, 0, count, new Comparator<Entry>() {
+         @Override
+         public int compare(Entry a, Entry b) {
+            int result = a.key.compareTo(b.key);
+            return (result != 0 ? result : a.name.compareTo(b.name));
+         }
+      });
+      int unique = 0;
+      for (int i = 0; i < count; i++) {
+         if (unique == 0 || !sorted[i].name.equals(sorted[unique - 1].name)) {
+            sorted[unique++] = sorted[i];
+         }
+      }
+      names = new String[unique];
+      keys = new String[unique];
+      for (int i = 0; i < unique; i++) {
+         names[i] = sorted[i].name;
+         keys[i] = sorted[i].key;
+      }
+   }
+
+   /**
+    * Reads a city list file
+    * @param file holds one city per line, in UTF-8
+    * @return an index of the cities in the file
+    * @throws IOException if the file cannot be read
+    */
+   public static CityIndex load(Path file) throws IOException {
+      List<String> cities = new ArrayList<String>();
+      try (BufferedReader in =
+              Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+         String line;
+         while ((line = in.readLine()) != null) {
+            cities.add(line);
+         }
+      }
+      return new CityIndex(cities);
+   }
+
+   /**
+    * Returns the index shared by the whole program, reading the file named
+    * by CITY_LIST_PROPERTY the first time.  If the property is not set or
+    * the file cannot be read, the index is empty.  Since reading a large
+    * file takes a while, the first call should not be made on the event
+    * dispatch thread.
+    * @return the shared index
+    */
+   public static synchronized CityIndex getDefault() {
+      if (defaultIndex == null) {
+         String fileName = System.getProperty(CITY_LIST_PROPERTY);
+         List<String> none = Collections.emptyList();
+         defaultIndex = new CityIndex(none);
+         if (fileName != null) {
+            try {
+               defaultIndex = load(Paths.get(fileName));
+            } catch (IOException ioe) {
+               // suggestions are a convenience, so carry on without them
+               System.err.println("Could not read city list " + fileName
+                                  + ": " + ioe);
+            }
+         }
+      }
+      return defaultIndex;
+   }
+
+   /**
+    * @return the number of cities in this index
+    */
+   public int size() {
+      return names.length;
+   }
+
+   /**
+    * Finds the cities whose names start with a prefix, ignoring case
+    * @param prefix the text typed so far
+    * @param limit the most suggestions to return
+    * @return up to limit cities in alphabetical order, or an empty list if
+    *         the prefix is blank
+    */
+   public List<String> suggest(String prefix, int limit) {
+      String key = toKey(prefix.trim());
+      if (key.isEmpty() || limit <= 0) {
+         return Collections.emptyList();
+      }
+      List<String> suggestions = new ArrayList<String>(limit);
+      for (int i = lowerBound(key);
+           i < keys.length && suggestions.size() < limit
+              && keys[i].startsWith(key);
+           i++) {
+         suggestions.add(names[i]);
+      }
+      return suggestions;
+   }
+
+   /**
+    * Private helper function to find the first key that is not less than
+    * the given key
+    */
+   private int lowerBound(String key) {
+      int low = 0;
+      int high = keys.length;
+      while (low < high) {
+         int middle = (low + high) >>> 1;
+         if (keys[middle].compareTo(key) < 0) {
+            low = middle + 1;
+         } else {
+            high = middle;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Inner class pairing a name with its key while the index is sorted
+    */
+   private static class Entry {
+      /** the name of the city */
+      private final String name;
+
+      /** the lower case form of the name */
+      private final String key;
+
+      /**
+       * @param name the trimmed name of the city
+       */
+      private Entry(String name) {
+         this.name = name;
+         this.key = toKey(name);
+      }
+   }
+
+   /**
+    * Private helper function to compute the form of a name that is
+    * compared when searching
+    */
+   private static String toKey(String name) {
+      return name.toLowerCase(Locale.ROOT);
+   }
+}
@@ -0,0 +1,151 @@
+/**
+ * CoalescingTextFieldListener.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.function.Consumer;
+
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Listens for changes to the text of a JTextField and passes the trimmed
+ * text on to a handler, collapsing bursts of edits into a single update.
+ * Only changes to the document count, so moving the caret with the arrow
+ * keys or the mouse causes no work at all.
+ *
+ * With a quiet period of 0, every edit made while handling one batch of
+ * events is collapsed into one update that runs later on the same event
+ * dispatch thread pass.  With a positive quiet period, the update runs
+ * once no edit has been made for that many milliseconds.  Either way, the
+ * handler is always called on the event dispatch thread, and flush() can be
+ * used to deliver a pending update immediately, e.g., before validating.
+ */
+public class CoalescingTextFieldListener implements DocumentListener {
+   /** the text field whose text is passed on */
+   private final JTextField textField;
+
+   /** receives the trimmed text */
+   private final Consumer<String> handler;
+
+   /** delivers the update after the quiet period, or null if there is none */
+   private final Timer timer;
+
+   /** true if an edit has been made that the handler has not seen yet */
+   private boolean pending;
+
+   /** the number of document events received */
+   private volatile long rawEventCount;
+
+   /** the number of updates passed on to the handler */
+   private volatile long updateCount;
+
+   /**
+    * Creates a new listener and registers it with the text field's document
+    * @param textField the text field whose text is passed on
+    * @param quietPeriodMillis how long the text must stay unchanged before
+    *                          the update is delivered, or 0 to deliver it
+    *                          once per pass of the event dispatch thread
+    * @param handler receives the trimmed text
+    */
+   public CoalescingTextFieldListener(JTextField textField,
+                                      int quietPeriodMillis,
+                                      Consumer<String> handler) {
+      this.textField = textField;
+      this.handler = handler;
+      if (quietPeriodMillis > 0) {
+         timer = new Timer(quietPeriodMillis, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent ae) {
+               flush();
+            }
+         });
+         timer.setRepeats(false);
+      } else {
+         timer = null;
+      }
+      pending = false;
+      textField.getDocument().addDocumentListener(this);
+   }
+
+   @Override
+   public void insertUpdate(DocumentEvent de) {
+      textChanged();
+   }
+
+   @Override
+   public void removeUpdate(DocumentEvent de) {
+      textChanged();
+   }
+
+   @Override
+   public void changedUpdate(DocumentEvent de) {
+      // attribute changes do not affect the text
+   }
+
+   /**
+    * Passes the current text on to the handler right away if an edit is
+    * pending.  Must be called on the event dispatch thread.
+    */
+   public void flush() {
+      if (timer != null) {
+         timer.stop();
+      }
+      if (pending) {
+         pending = false;
+         updateCount++;
+         handler.accept(textField.getText().trim());
+      }
+   }
+
+   /**
+    * @return the number of document events received
+    */
+   public long getRawEventCount() {
+      return rawEventCount;
+   }
+
+   /**
+    * @return the number of updates passed on to the handler
+    */
+   public long getUpdateCount() {
+      return updateCount;
+   }
+
+   /**
+    * @return the number of document events that were collapsed into
+    * another update instead of causing one of their own
+    */
+   public long getCollapsedEventCount() {
+      return rawEventCount - updateCount - (pending ? 1 : 0);
+   }
+
+   /**
+    * Private helper function to record an edit and schedule the update
+    */
+   private void textChanged() {
+      rawEventCount++;
+      if (timer != null) {
+         pending = true;
+         timer.restart();
+      } else if (!pending) {
+         pending = true;
+         SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+               flush();
+            }
+         });
+      }
+   }
+}
@@ -8,6 +8,8 @@
 
 package org.marimasuda.cmusvdiagnostic;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Represents one item to be contained in a combo box model.  Use of this 
  * class allows the text displayed in the combo box to be different than
@@ -16,6 +18,13 @@ package org.marimasuda.cmusvdiagnostic;
  * respective values are the integers 1, 2, and 3.
  */
 public class ComboBoxItem {
+   /** the number of numeric items kept in the shared pool (see valueOf()) */
+   private static final int POOL_SIZE = 4096;
+
+   /** the shared pool of numeric items, filled in as they are needed */
+   private static final AtomicReferenceArray<ComboBoxItem> POOL = 
+      new AtomicReferenceArray<ComboBoxItem>(POOL_SIZE);
+
    /** the internal "machine" value of the represented item */
    private int value;
 
@@ -36,6 +45,27 @@ public class ComboBoxItem {
          (description == null ? value.toString() : description);
    }
 
+   /**
+    * Gets a numeric item whose description is its value, e.g., the item for
+    * day 5 or the year 2011.  Items for small non-negative values come from
+    * a shared pool, so every combo box offering the same number offers the
+    * same object.
+    * @param value an int representing the "machine" value
+    * @return an item with the given value and its String representation
+    * as the description
+    */
+   public static ComboBoxItem valueOf(int value) {
+      if (value < 0 || value >= POOL_SIZE) {
+         return new ComboBoxItem(value, null);
+      }
+      ComboBoxItem item = POOL.get(value);
+      if (item == null) {
+         POOL.compareAndSet(value, null, new ComboBoxItem(value, null));
+         item = POOL.get(value);
+      }
+      return item;
+   }
+
    /**
     * @return the "machine" value
     */
@@ -0,0 +1,385 @@
+/**
+ * DateIndex.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Arrays;
+
+/**
+ * Indexes reservation IDs by one of their packed dates (see PackedDate), so
+ * that the IDs whose date falls in a range can be listed or counted
+ * without looking at every reservation.  ReservationStore keeps one for
+ * departure dates and one for return dates.
+ *
+ * Every day of a BookingWindow is divided into SLOTS_PER_DAY hour slots,
+ * one per time of day offered by the date pickers, starting at the hours
+ * in SLOT_HOURS, and each slot of each day is a bucket: an array of the IDs
+ * whose date falls in it.  Dates outside the window, which should be rare,
+ * share one extra bucket that every query checks.  A bitmap of non-empty
+ * buckets lets a listing skip empty ones 64 at a time, and a Fenwick tree
+ * (binary indexed tree) of bucket sizes counts a range in O(log n).  Only
+ * the buckets at either end of a range, when the range starts or ends
+ * partway through their slot, are checked date by date.
+ *
+ * Adding and removing an ID take constant time, apart from the Fenwick
+ * tree update: each ID's position in its bucket is remembered, and a
+ * removed ID is replaced by the last one in the bucket.  Everything is kept
+ * in int and long arrays, indexed by ID.  An ID can be in the index only
+ * once.  This class is not thread-safe.
+ */
+public class DateIndex {
+   /** the first hour of each slot of a day, in order */
+   public static final int[] SLOT_HOURS = {
+      DatePickerController.ANYTIME_HOUR,
+      DatePickerController.MORNING_HOUR,
+      DatePickerController.NOON_HOUR,
+      DatePickerController.EVENING_HOUR,
+      DatePickerController.LATENIGHT_HOUR
+   };
+
+   /** the number of buckets per day */
+   public static final int SLOTS_PER_DAY = SLOT_HOURS.length;
+
+   /** the slot of every hour that fits in a packed date */
+   private static final int[] SLOT_OF_HOUR = new int[32];
+
+   static {
+      for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+         int end = (slot + 1 < SLOTS_PER_DAY
+                    ? SLOT_HOURS[slot + 1] : SLOT_OF_HOUR.length);
+         Arrays.fill(SLOT_OF_HOUR, SLOT_HOURS[slot], end, slot);
+      }
+   }
+
+   /** the last hour of a day */
+   private static final int LAST_HOUR = 23;
+
+   /** the number of bits in each word of the bitmap */
+   private static final int BITS_PER_WORD = 64;
+
+   /** the initial capacity of a bucket */
+   private static final int INITIAL_BUCKET_SIZE = 4;
+
+   /** the days that have buckets of their own */
+   private final BookingWindow window;
+
+   /** the number of buckets for the days of the window.  The bucket after
+    * them holds the dates outside the window.
+    */
+   private final int bucketCount;
+
+   /** the IDs in each bucket, or null if the bucket has always been empty */
+   private final int[][] buckets;
+
+   /** the number of IDs in each bucket */
+   private final int[] sizes;
+
+   /** a Fenwick tree of the sizes of the window's buckets, one-based */
+   private final int[] tree;
+
+   /** one bit for each of the window's buckets, set if it is not empty */
+   private final long[] nonEmpty;
+
+   /** the date each ID was added with, indexed by ID */
+   private int[] dates;
+
+   /** the position of each ID in its bucket, or -1 if it is not in the
+    * index, indexed by ID
+    */
+   private int[] positions;
+
+   /** the number of IDs in the index */
+   private int count;
+
+   /**
+    * Creates a new empty index
+    * @param window the days whose dates are indexed by bucket
+    */
+   public DateIndex(BookingWindow window) {
+      this.window = window;
+      bucketCount = window.getDayCount() * SLOTS_PER_DAY;
+      buckets = new int[bucketCount + 1][];
+      sizes = new int[bucketCount + 1];
+      tree = new int[bucketCount + 1];
+      nonEmpty = new long[(bucketCount + BITS_PER_WORD - 1) / BITS_PER_WORD];
+      dates = new int[0];
+      positions = new int[0];
+      count = 0;
+   }
+
+   /**
+    * Adds an ID to the index
+    * @param id a non-negative ID, e.g., from ReservationStore
+    * @param date the packed date to index it by (see PackedDate)
+    * @throws IllegalArgumentException if the ID is negative or already in
+    *         the index
+    */
+   public void add(int id, int date) {
+      if (id < 0) {
+         throw new IllegalArgumentException("Invalid ID: " + id);
+      }
+      if (id >= positions.length) {
+         int capacity = Math.max(id + 1, positions.length * 2);
+         dates = Arrays.copyOf(dates, capacity);
+         int oldLength = positions.length;
+         positions = Arrays.copyOf(positions, capacity);
+         Arrays.fill(positions, oldLength, capacity, -1);
+      }
+      if (positions[id] >= 0) {
+         throw new IllegalArgumentException("ID already indexed: " + id);
+      }
+      int bucket = getBucket(date);
+      int size = sizes[bucket];
+      if (buckets[bucket] == null) {
+         buckets[bucket] = new int[INITIAL_BUCKET_SIZE];
+      } else if (size == buckets[bucket].length) {
+         buckets[bucket] = Arrays.copyOf(buckets[bucket], size * 2);
+      }
+      buckets[bucket][size] = id;
+      sizes[bucket] = size + 1;
+      dates[id] = date;
+      positions[id] = size;
+      count++;
+      if (bucket < bucketCount) {
+         updateTree(bucket, 1);
+         nonEmpty[bucket / BITS_PER_WORD] |= 1L << (bucket % BITS_PER_WORD);
+      }
+   }
+
+   /**
+    * Removes an ID from the index
+    * @param id the ID to remove
+    * @return true if the ID was removed, or false if it was not in the
+    *         index
+    */
+   public boolean remove(int id) {
+      if (!contains(id)) {
+         return false;
+      }
+      int bucket = getBucket(dates[id]);
+      int position = positions[id];
+      int last = buckets[bucket][--sizes[bucket]];
+      buckets[bucket][position] = last;
+      positions[last] = position;
+      positions[id] = -1;
+      count--;
+      if (bucket < bucketCount) {
+         updateTree(bucket, -1);
+         if (sizes[bucket] == 0) {
+            nonEmpty[bucket / BITS_PER_WORD] &=
+               ~(1L << (bucket % BITS_PER_WORD));
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @param id an ID
+    * @return true if the ID is in the index
+    */
+   public boolean contains(int id) {
+      return (id >= 0 && id < positions.length && positions[id] >= 0);
+   }
+
+   /**
+    * @return the number of IDs in the index
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Lists the IDs whose date is in a range, in no particular order.  This
+    * takes time proportional to the number of IDs found, plus one step per
+    * 64 buckets in the range.
+    * @param from the first packed date of the range (see PackedDate)
+    * @param to the last packed date of the range, inclusive
+    * @return the IDs
+    */
+   public int[] find(int from, int to) {
+      int[] found = new int[INITIAL_BUCKET_SIZE];
+      int numFound = 0;
+      int first = getFirstBucket(from);
+      int last = getLastBucket(to);
+      if (PackedDate.compare(from, to) <= 0 && first <= last) {
+         int bucket = nextNonEmpty(first, last);
+         while (bucket >= 0) {
+            boolean whole = (bucket != first || startsSlot(from, first))
+                            && (bucket != last || endsSlot(to, last));
+            int[] ids = buckets[bucket];
+            for (int i = 0; i < sizes[bucket]; i++) {
+               if (whole || inRange(dates[ids[i]], from, to)) {
+                  if (numFound == found.length) {
+                     found = Arrays.copyOf(found, numFound * 2);
+                  }
+                  found[numFound++] = ids[i];
+               }
+            }
+            bucket = (bucket == last ? -1 : nextNonEmpty(bucket + 1, last));
+         }
+      }
+      int[] outside = buckets[bucketCount];
+      for (int i = 0; i < sizes[bucketCount]; i++) {
+         if (inRange(dates[outside[i]], from, to)) {
+            if (numFound == found.length) {
+               found = Arrays.copyOf(found, numFound * 2);
+            }
+            found[numFound++] = outside[i];
+         }
+      }
+      return Arrays.copyOf(found, numFound);
+   }
+
+   /**
+    * Counts the IDs whose date is in a range, in O(log n) time unless the
+    * range starts or ends partway through a slot or dates outside the
+    * window have been added
+    * @param from the first packed date of the range (see PackedDate)
+    * @param to the last packed date of the range, inclusive
+    * @return the number of IDs
+    */
+   public int count(int from, int to) {
+      int total = 0;
+      int first = getFirstBucket(from);
+      int last = getLastBucket(to);
+      if (PackedDate.compare(from, to) <= 0 && first <= last) {
+         int lo = first;
+         int hi = last;
+         if (!startsSlot(from, first)) {
+            total += countInBucket(first, from, to);
+            lo++;
+         }
+         if (hi >= lo && !endsSlot(to, last)) {
+            total += countInBucket(last, from, to);
+            hi--;
+         }
+         if (hi >= lo) {
+            total += sumTree(hi) - sumTree(lo - 1);
+         }
+      }
+      return total + countInBucket(bucketCount, from, to);
+   }
+
+   /**
+    * Private helper function to find the bucket of a date
+    */
+   private int getBucket(int date) {
+      if (!window.contains(date)) {
+         return bucketCount;
+      }
+      return window.getDayOrdinal(date) * SLOTS_PER_DAY
+             + SLOT_OF_HOUR[PackedDate.getHour(date)];
+   }
+
+   /**
+    * Private helper function to find the first of the window's buckets
+    * that can hold dates on or after a date, or bucketCount if there is
+    * none
+    */
+   private int getFirstBucket(int date) {
+      if (window.isAfter(date)) {
+         return bucketCount;
+      }
+      return (window.isBefore(date) ? 0 : getBucket(date));
+   }
+
+   /**
+    * Private helper function to find the last of the window's buckets
+    * that can hold dates on or before a date, or -1 if there is none
+    */
+   private int getLastBucket(int date) {
+      if (window.isBefore(date)) {
+         return -1;
+      }
+      return (window.isAfter(date) ? bucketCount - 1 : getBucket(date));
+   }
+
+   /**
+    * Private helper function to check whether every date in a bucket is on
+    * or after a date
+    */
+   private boolean startsSlot(int from, int bucket) {
+      return (window.isBefore(from)
+              || PackedDate.getHour(from)
+                 <= SLOT_HOURS[bucket % SLOTS_PER_DAY]);
+   }
+
+   /**
+    * Private helper function to check whether every date in a bucket is on
+    * or before a date
+    */
+   private boolean endsSlot(int to, int bucket) {
+      int slot = bucket % SLOTS_PER_DAY;
+      int lastHour = (slot + 1 < SLOTS_PER_DAY
+                      ? SLOT_HOURS[slot + 1] - 1 : LAST_HOUR);
+      return (window.isAfter(to) || PackedDate.getHour(to) >= lastHour);
+   }
+
+   /**
+    * Private helper function to check whether a date is in a range
+    */
+   private static boolean inRange(int date, int from, int to) {
+      return PackedDate.compare(date, from) >= 0
+             && PackedDate.compare(date, to) <= 0;
+   }
+
+   /**
+    * Private helper function to count the IDs in a bucket whose date is in
+    * a range
+    */
+   private int countInBucket(int bucket, int from, int to) {
+      int total = 0;
+      int[] ids = buckets[bucket];
+      for (int i = 0; i < sizes[bucket]; i++) {
+         if (inRange(dates[ids[i]], from, to)) {
+            total++;
+         }
+      }
+      return total;
+   }
+
+   /**
+    * Private helper function to find the first non-empty bucket from
+    * first through last, or -1 if they are all empty
+    */
+   private int nextNonEmpty(int first, int last) {
+      int word = first / BITS_PER_WORD;
+      long bits = nonEmpty[word] & (-1L << (first % BITS_PER_WORD));
+      while (bits == 0) {
+         word++;
+         if (word * BITS_PER_WORD > last) {
+            return -1;
+         }
+         bits = nonEmpty[word];
+      }
+      int bucket = word * BITS_PER_WORD + Long.numberOfTrailingZeros(bits);
+      return (bucket <= last ? bucket : -1);
+   }
+
+   /**
+    * Private helper function to add to the size of a bucket in the Fenwick
+    * tree
+    */
+   private void updateTree(int bucket, int delta) {
+      for (int i = bucket + 1; i <= bucketCount; i += i & -i) {
+         tree[i] += delta;
+      }
+   }
+
+   /**
+    * Private helper function to add up the sizes of the buckets from 0
+    * through the given bucket
+    */
+   private int sumTree(int bucket) {
+      int total = 0;
+      for (int i = bucket + 1; i > 0; i -= i & -i) {
+         total += tree[i];
+      }
+      return total;
+   }
+}
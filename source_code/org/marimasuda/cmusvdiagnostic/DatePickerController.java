@@ -9,9 +9,8 @@
 package org.marimasuda.cmusvdiagnostic;
 
 import java.util.GregorianCalendar;
-import java.util.Locale;
 
-import javax.swing.DefaultComboBoxModel;
+import javax.swing.ComboBoxModel;
 
 /**
  * Contains business logic related to the dates that are considered valid, 
@@ -20,11 +19,15 @@ import javax.swing.DefaultComboBoxModel;
  * appropriate choices in the date picker combo boxes.
  */
 public class DatePickerController {
-   /** the minimum year to be displayed in the year picker combo box */
-   public static final int MIN_YEAR = 2011;
+   /** the minimum year to be displayed in the year picker combo box, the 
+    * first year of the default BookingWindow
+    */
+   public static final int MIN_YEAR = BookingWindow.getDefault().getFirstYear();
    
-   /** the maximum year to be displayed in the year picker combo box */   
-   public static final int MAX_YEAR = 2012;
+   /** the maximum year to be displayed in the year picker combo box, the 
+    * last year of the default BookingWindow
+    */   
+   public static final int MAX_YEAR = BookingWindow.getDefault().getLastYear();
    
    /** a "machine" value to be stored and used by the hour picker combo box*/
    public static final int ANYTIME_HOUR = 0;
@@ -72,19 +75,24 @@ public class DatePickerController {
 
    /** the underlying model that holds the data being represented */
    private DatePickerModel model;
+
+   /** the shared table used to look up month lengths and names */
+   private CalendarTable calendarTable;
    
    /**
-    * Constructs a new DatePickerModel and initializes isDaySticky
+    * Constructs a new DatePickerModel, looks up the shared CalendarTable, 
+    * and initializes isDaySticky
     */
    public DatePickerController() {
       model = new DatePickerModel();
+      calendarTable = CalendarTable.getDefault();
       isDaySticky = false;
    }
    
    /**
-    * @return a cloned copy of the underlying DatePickerModel's 
-    * GregorianCalendar if all values have been manually set, or a blank 
-    * calendar otherwise
+    * @return a new GregorianCalendar holding the underlying 
+    * DatePickerModel's date if all values have been manually set, or a 
+    * blank calendar otherwise.  getPackedValue() is cheaper.
     */
    public GregorianCalendar getValue() {
       if (model.isYearIsSet() &&
@@ -99,6 +107,24 @@ public class DatePickerController {
       }
    }
 
+   /**
+    * @return the underlying DatePickerModel's date packed into an int (see 
+    * PackedDate) if all values have been manually set, or PackedDate.UNSET 
+    * otherwise.  Unlike getValue(), no calendar is copied.
+    */
+   public int getPackedValue() {
+      if (model.isYearIsSet() &&
+          model.isMonthIsSet() &&
+          model.isDayIsSet()) {
+         return PackedDate.pack(model.getYear(), 
+                                model.getMonth(), 
+                                model.getDay(), 
+                                model.getHour());
+      } else {
+         return PackedDate.UNSET;
+      }
+   }
+
    /**
     * @return value of isDaySticky
     */
@@ -111,8 +137,7 @@ public class DatePickerController {
     */
    public void setYear(int newYear) {
       if (newYear != COMBO_BOX_FIRST_ITEM_PLACEHOLDER) {
-         int diff = newYear - model.getYear();
-         model.add(GregorianCalendar.YEAR, diff);
+         model.setYear(newYear);
          model.setIsYearSet(true);
       } else {
          model.setIsYearSet(false);
@@ -124,8 +149,7 @@ public class DatePickerController {
     */
    public void setMonth(int newMonth) {
       if (newMonth != COMBO_BOX_FIRST_ITEM_PLACEHOLDER) {
-         int diff = newMonth - model.getMonth();
-         model.add(GregorianCalendar.MONTH, diff);
+         model.setMonth(newMonth);
          model.setIsMonthSet(true);
       } else {
          model.setIsMonthSet(false);
@@ -137,8 +161,7 @@ public class DatePickerController {
     */
    public void setDay(int newDay) {
       if (newDay != COMBO_BOX_FIRST_ITEM_PLACEHOLDER) {
-         int diff = newDay - model.getDay();
-         model.add(GregorianCalendar.DAY_OF_MONTH, diff);
+         model.setDay(newDay);
          model.setIsDaySet(true);
          isDaySticky = true;
       } else {
@@ -151,84 +174,97 @@ public class DatePickerController {
     * @param newHour an int indicating the hour of day to set in the model
     */
    public void setHour(int newHour) {
-      int diff = newHour - model.getHour();
-      model.add(GregorianCalendar.HOUR_OF_DAY, diff);
+      model.setHour(newHour);
    }
    
    /**
-    * @return a DefaultComboBoxModel containing the acceptable values for the 
+    * @return a read-only model containing the acceptable values for the 
     * year combo box
     */
-   public DefaultComboBoxModel getYearModel() {
-      DefaultComboBoxModel dcbModel = new DefaultComboBoxModel();
-      dcbModel.addElement(
-            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select year")
-      );
-      for (Integer i = MIN_YEAR; i <= MAX_YEAR; i++) {
-         dcbModel.addElement(new ComboBoxItem(i, i.toString()));
-      }
-      return dcbModel;
+   public ComboBoxModel<ComboBoxItem> getYearModel() {
+      return new ReadOnlyComboBoxModel(SharedItems.YEARS);
    }
    
    /**
-    * @return a DefaultComboBoxModel containing the acceptable values for the 
+    * @return a read-only model containing the acceptable values for the 
     * month combo box
     */
-   public DefaultComboBoxModel getMonthModel() {
-      DefaultComboBoxModel dcbModel = new DefaultComboBoxModel();
-      dcbModel.addElement(
-            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select month")
-      );
-      int min = model.getActualMinimum(GregorianCalendar.MONTH);
-      int max = model.getActualMaximum(GregorianCalendar.MONTH);
-      GregorianCalendar dummyCalendar = new GregorianCalendar();
-      dummyCalendar.clear();
-      for (Integer i = min; i <= max; i++) {
-         String description = dummyCalendar.getDisplayName(
-               GregorianCalendar.MONTH,
-               GregorianCalendar.LONG,
-               new Locale("US")
-         );
-         ComboBoxItem item = new ComboBoxItem(i, description);
-         dummyCalendar.roll(GregorianCalendar.MONTH, true);
-         dcbModel.addElement(item);
-      }
-      return dcbModel;
+   public ComboBoxModel<ComboBoxItem> getMonthModel() {
+      return new ReadOnlyComboBoxModel(SharedItems.MONTHS);
    }
 
    /**
-    * @return a DefaultComboBoxModel containing the acceptable values for the 
-    * day of month combo box
-    */
-   public DefaultComboBoxModel getDayModel() {
-      DefaultComboBoxModel dcbModel = new DefaultComboBoxModel();
-      dcbModel.addElement(
-            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select day")
-      );
-      int min = model.getActualMinimum(GregorianCalendar.DAY_OF_MONTH);
-      int max = model.getActualMaximum(GregorianCalendar.DAY_OF_MONTH);
-      for (Integer i = min; i <= max; i++) {
-         ComboBoxItem item = new ComboBoxItem(i, i.toString());
-         dcbModel.addElement(item);
-         if (isDaySticky() && 
-             model.getDay() == item.getValue()) {
-            dcbModel.setSelectedItem(item);
-         }
+    * @return a read-only model containing the acceptable values for the 
+    * day of month combo box, with the model's day selected if the day 
+    * is sticky
+    */
+   public ComboBoxModel<ComboBoxItem> getDayModel() {
+      int max = calendarTable.getMonthLength(model.getYear(), model.getMonth());
+      ComboBoxModel<ComboBoxItem> cbModel =
+         new ReadOnlyComboBoxModel(SharedItems.DAYS, max + 1);
+      if (isDaySticky() && model.getDay() <= max) {
+         cbModel.setSelectedItem(SharedItems.DAYS[model.getDay()]);
       }
-      return dcbModel;
+      return cbModel;
    }
 
    /**
-    * @return a DefaultComboBoxModel containing the acceptable values for the 
+    * @return a read-only model containing the acceptable values for the 
     * hour of day combo box
     */
-   public DefaultComboBoxModel getHours() {
-      DefaultComboBoxModel dcbModel = new DefaultComboBoxModel();
-      dcbModel.addElement(new ComboBoxItem(ANYTIME_HOUR, ANYTIME_TEXT));
-      dcbModel.addElement(new ComboBoxItem(MORNING_HOUR, MORNING_TEXT));
-      dcbModel.addElement(new ComboBoxItem(NOON_HOUR, NOON_TEXT));
-      dcbModel.addElement(new ComboBoxItem(EVENING_HOUR, EVENING_TEXT));
-      dcbModel.addElement(new ComboBoxItem(LATENIGHT_HOUR, LATENIGHT_TEXT));
-      return dcbModel;
+   public ComboBoxModel<ComboBoxItem> getHours() {
+      return new ReadOnlyComboBoxModel(SharedItems.HOURS);
+   }
+
+   /**
+    * Holds the combo box items shared by every DatePickerController.  The 
+    * items are created the first time a model is requested and are never 
+    * modified afterwards.
+    */
+   private static class SharedItems {
+      /** "Select year" followed by the acceptable years */
+      static final ComboBoxItem[] YEARS = 
+         new ComboBoxItem[MAX_YEAR - MIN_YEAR + 2];
+
+      /** "Select month" followed by the months of the year */
+      static final ComboBoxItem[] MONTHS = 
+         new ComboBoxItem[CalendarTable.MONTHS_PER_YEAR + 1];
+
+      /** "Select day" followed by every possible day of the month; the 
+       * item for a day is at the index equal to the day
+       */
+      static final ComboBoxItem[] DAYS = new ComboBoxItem[32];
+
+      /** the choices for the hour of day */
+      static final ComboBoxItem[] HOURS = {
+         new ComboBoxItem(ANYTIME_HOUR, ANYTIME_TEXT),
+         new ComboBoxItem(MORNING_HOUR, MORNING_TEXT),
+         new ComboBoxItem(NOON_HOUR, NOON_TEXT),
+         new ComboBoxItem(EVENING_HOUR, EVENING_TEXT),
+         new ComboBoxItem(LATENIGHT_HOUR, LATENIGHT_TEXT)
+      };
+
+      static {
+         YEARS[0] = 
+            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select year");
+         for (int i = MIN_YEAR; i <= MAX_YEAR; i++) {
+            YEARS[i - MIN_YEAR + 1] = ComboBoxItem.valueOf(i);
+         }
+
+         CalendarTable calendarTable = CalendarTable.getDefault();
+         MONTHS[0] = 
+            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select month");
+         for (int i = GregorianCalendar.JANUARY; 
+              i <= GregorianCalendar.DECEMBER; 
+              i++) {
+            MONTHS[i + 1] = new ComboBoxItem(i, calendarTable.getMonthName(i));
+         }
+
+         DAYS[0] = 
+            new ComboBoxItem(COMBO_BOX_FIRST_ITEM_PLACEHOLDER, "Select day");
+         for (int i = 1; i < DAYS.length; i++) {
+            DAYS[i] = ComboBoxItem.valueOf(i);
+         }
+      }
    }
 }
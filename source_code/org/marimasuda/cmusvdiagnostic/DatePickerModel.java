@@ -8,15 +8,31 @@
 
 package org.marimasuda.cmusvdiagnostic;
 
+import java.time.LocalDate;
 import java.util.GregorianCalendar;
 
 /**
  * A model that keeps track of a date and whether the year, month, and 
  * day of month fields of that date have been set manually by the user.
+ * The date is held as an immutable LocalDate plus an hour of day, so 
+ * reading it never needs a copy, and each update just replaces the 
+ * LocalDate with a new one.  getCopyOfCalendar() still provides a 
+ * GregorianCalendar for callers that need one.
  */
 public class DatePickerModel {
-   /** A GregorianCalendar to hold the date information */
-   private GregorianCalendar calendar;
+   /** the date reported before any field has been changed, the same as 
+    * that of a cleared calendar
+    */
+   private static final LocalDate INITIAL_DATE = LocalDate.of(1970, 1, 1);
+
+   /** the number of hours in a day */
+   private static final int HOURS_PER_DAY = 24;
+
+   /** the date, without the hour of day */
+   private LocalDate date;
+
+   /** the hour of day, 0-23 */
+   private int hour;
 
    /** a flag indicating whether the year field was set by the user in order
     * to differentiate from when the year field gets set as a side effect of 
@@ -37,36 +53,70 @@ public class DatePickerModel {
    private boolean isDaySet;
    
    /**
-    * Creates a new GregorianCalendar to hold the date data and initializes 
-    * the flags indicating whether certain fields have been manually set.
+    * Starts the date at Jan 1, 1970, midnight, as a cleared calendar would,
+    * and initializes the flags indicating whether certain fields have been
+    * manually set.
     */
    public DatePickerModel() {
-      calendar = new GregorianCalendar();
-      calendar.clear();
-      calendar.setLenient(false);
+      date = INITIAL_DATE;
+      hour = 0;
       isYearSet = false;
       isMonthSet = false;
       isDaySet = false;
    }
 
    /**
-    * gets a deep copy of the calendar contained in this DatePickerModel 
-    * so that other objects can access the values without having to worry 
-    * about them changing the "real" data in the model
-    * @return
+    * @return the date held by this model, without the hour of day.  The 
+    * LocalDate is immutable, so it can be shared without copying.
+    */
+   public LocalDate getDate() {
+      return date;
+   }
+
+   /**
+    * creates a new calendar holding the date and hour of this model, for 
+    * callers that still need a GregorianCalendar.  Changing the calendar 
+    * does not change the model.
+    * @return a non-lenient GregorianCalendar with the year, month, day of
+    * month, and hour of day set
     */
    public GregorianCalendar getCopyOfCalendar() {
-      return (GregorianCalendar) calendar.clone();
+      GregorianCalendar calendar = new GregorianCalendar();
+      calendar.clear();
+      calendar.setLenient(false);
+      calendar.set(date.getYear(), getMonth(), date.getDayOfMonth(), 
+                   hour, 0, 0);
+      return calendar;
    }
    
    /**
-    * wrapper to add an amount to a specific field in the model's calendar
-    * @param field an int constant indicating which field of the 
-    *              GregorianCalendar should be updated
+    * adds an amount to a specific field of the model's date, just as 
+    * GregorianCalendar.add() would, e.g., adding a year to Feb. 29 gives 
+    * Feb. 28 and adding a day to Jan. 31 gives Feb. 1
+    * @param field GregorianCalendar.YEAR, MONTH, DAY_OF_MONTH, or 
+    *              HOUR_OF_DAY
     * @param amount a signed int indicating the amount to add
+    * @throws IllegalArgumentException if the field is not supported
     */
    public void add(int field, int amount) {
-      calendar.add(field, amount);
+      switch (field) {
+      case GregorianCalendar.YEAR:
+         date = date.plusYears(amount);
+         break;
+      case GregorianCalendar.MONTH:
+         date = date.plusMonths(amount);
+         break;
+      case GregorianCalendar.DAY_OF_MONTH:
+         date = date.plusDays(amount);
+         break;
+      case GregorianCalendar.HOUR_OF_DAY:
+         int hours = hour + amount;
+         date = date.plusDays(Math.floorDiv(hours, HOURS_PER_DAY));
+         hour = Math.floorMod(hours, HOURS_PER_DAY);
+         break;
+      default:
+         throw new IllegalArgumentException("Unsupported field: " + field);
+      }
    }
    
    /**
@@ -78,7 +128,7 @@ public class DatePickerModel {
     *         field can hold
     */
    public int getActualMinimum(int field) {
-      return calendar.getActualMinimum(field);
+      return getCopyOfCalendar().getActualMinimum(field);
    }
    
    /**
@@ -90,7 +140,7 @@ public class DatePickerModel {
     *         field can hold
     */
    public int getActualMaximum(int field) {
-      return calendar.getActualMaximum(field);
+      return getCopyOfCalendar().getActualMaximum(field);
    }
    
    /**
@@ -152,31 +202,34 @@ public class DatePickerModel {
     * @return an int representing the year
     */
    public int getYear() {
-      return calendar.get(GregorianCalendar.YEAR);
+      return date.getYear();
    }
    
    /**
-    * wrapper to set the year stored by the model
+    * sets the year stored by the model.  If the day of month does not 
+    * exist in that year, i.e., Feb. 29, it becomes the last day of the 
+    * month.
     * @param an int representing the year
     */
    public void setYear(int year) {
-      calendar.set(GregorianCalendar.YEAR, year);
+      date = date.withYear(year);
    }
    
    /**
     * wrapper to get the month stored by the model
-    * @return an int representing the month
+    * @return an int representing the month, e.g., GregorianCalendar.MARCH
     */
    public int getMonth() {
-      return calendar.get(GregorianCalendar.MONTH);
+      return date.getMonthValue() - 1 + GregorianCalendar.JANUARY;
    }
    
    /**
-    * wrapper to set the month stored by the model
-    * @param an int representing the month
+    * sets the month stored by the model.  If the day of month does not 
+    * exist in that month, it becomes the last day of the month.
+    * @param an int representing the month, e.g., GregorianCalendar.MARCH
     */
    public void setMonth(int month) {
-      calendar.set(GregorianCalendar.MONTH, month);
+      date = date.withMonth(month - GregorianCalendar.JANUARY + 1);
    }
    
    /**
@@ -184,15 +237,16 @@ public class DatePickerModel {
     * @return an int representing the day of the month
     */
    public int getDay() {
-      return calendar.get(GregorianCalendar.DAY_OF_MONTH);
+      return date.getDayOfMonth();
    }
    
    /**
-    * wrapper to set the day stored by the model
+    * sets the day stored by the model
     * @param an int representing the day of the month
+    * @throws java.time.DateTimeException if the month has no such day
     */
    public void setDay(int day) {
-      calendar.set(GregorianCalendar.DAY_OF_MONTH, day);
+      date = date.withDayOfMonth(day);
    }
    
    /**
@@ -200,14 +254,18 @@ public class DatePickerModel {
     * @return an int representing the hour of day
     */
    public int getHour() {
-      return calendar.get(GregorianCalendar.HOUR_OF_DAY);
+      return hour;
    }
    
    /**
-    * wrapper to set the hour of day stored by the model
-    * @param an int representing the hour of day
+    * sets the hour of day stored by the model
+    * @param an int representing the hour of day, 0-23
+    * @throws IllegalArgumentException if the hour is out of range
     */
    public void setHour(int hour) {
-      calendar.set(GregorianCalendar.HOUR_OF_DAY, hour);
+      if (hour < 0 || hour >= HOURS_PER_DAY) {
+         throw new IllegalArgumentException("Invalid hour: " + hour);
+      }
+      this.hour = hour;
    }
-}
\ No newline at end of file
+}
@@ -13,7 +13,6 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.GregorianCalendar;
 
 import javax.swing.JComboBox;
 import javax.swing.JPanel;
@@ -22,6 +21,13 @@ import javax.swing.JPanel;
  * A Swing GUI to front a DatePickerModel.  Displays as four JComboBoxes
  * in a horizontal row with one combo box each for picking the month,
  * day of month, year, and hour of day.
+ *
+ * Listeners are told about a new date through a property change named
+ * PROPERTY_CHANGE_IDENTIFIER whose values are Integers holding packed 
+ * dates (see PackedDate), so comparing two values is one int comparison.
+ * An event is only fired when the date actually changes, and changing the
+ * year or month, which rebuilds the day combo box, fires at most one 
+ * event for the whole change.
  */
 public class DatePickerView extends JPanel {
    /** constant used by firePropertyChange to differentiate the event's source */
@@ -35,23 +41,37 @@ public class DatePickerView extends JPanel {
    /** this view's controller */
    private DatePickerController controller;
 
-   /** a GregorianCalendar used to hold the value of the model before it was 
-    * changed so that firePropertyChange can send both the old state and the 
-    * new state
+   /** the packed date that listeners were last told about (see 
+    * PackedDate), so that firePropertyChange can send both the old state 
+    * and the new state
     */
-   private GregorianCalendar oldModel;
+   private int value;
+
+   /** true while a change to the year or month is rebuilding the day 
+    * combo box, during which no events are fired
+    */
+   private boolean adjusting;
+
+   /** the number of events fired */
+   private long firedEventCount;
+
+   /** the number of combo box actions that did not fire an event, either 
+    * because the date did not change or because they were part of a 
+    * larger change
+    */
+   private long suppressedEventCount;
 
    /** combo box holding the available months */
-   private JComboBox monthPicker;
+   private JComboBox<ComboBoxItem> monthPicker;
 
    /** combo box holding the available days of the month */
-   private JComboBox dayPicker;
+   private JComboBox<ComboBoxItem> dayPicker;
 
    /** combo box holding the available years */
-   private JComboBox yearPicker;
+   private JComboBox<ComboBoxItem> yearPicker;
    
    /** combo box holding the available hours of the day */
-   private JComboBox hourPicker;
+   private JComboBox<ComboBoxItem> hourPicker;
    
    /** GUI layout helper object */
    private GridBagConstraints gbc;
@@ -63,12 +83,13 @@ public class DatePickerView extends JPanel {
    public DatePickerView() {
       super(new GridBagLayout());
       controller = new DatePickerController();
-      oldModel = null;
+      value = PackedDate.UNSET;
+      adjusting = false;
       
-      yearPicker = new JComboBox(controller.getYearModel());
-      monthPicker = new JComboBox(controller.getMonthModel());
-      dayPicker = new JComboBox(controller.getDayModel());
-      hourPicker = new JComboBox(controller.getHours());
+      yearPicker = new JComboBox<ComboBoxItem>(controller.getYearModel());
+      monthPicker = new JComboBox<ComboBoxItem>(controller.getMonthModel());
+      dayPicker = new JComboBox<ComboBoxItem>(controller.getDayModel());
+      hourPicker = new JComboBox<ComboBoxItem>(controller.getHours());
       
       DatePickerYearListener yearListener = new DatePickerYearListener();
       DatePickerMonthListener monthListener = new DatePickerMonthListener();
@@ -107,6 +128,66 @@ public class DatePickerView extends JPanel {
       add(hourPicker, gbc);
    }
       
+   /**
+    * @return the packed date currently shown (see PackedDate), or 
+    * PackedDate.UNSET if the year, month, or day has not been picked
+    */
+   public int getValue() {
+      return value;
+   }
+
+   /**
+    * @return the number of property change events fired
+    */
+   public long getFiredEventCount() {
+      return firedEventCount;
+   }
+
+   /**
+    * @return the number of combo box actions that did not fire a property
+    * change event
+    */
+   public long getSuppressedEventCount() {
+      return suppressedEventCount;
+   }
+
+   /**
+    * Private helper function to tell listeners about the controller's 
+    * date, unless it is the date they already know about or the day combo
+    * box is being rebuilt
+    */
+   private void valueMayHaveChanged() {
+      if (adjusting) {
+         suppressedEventCount++;
+         return;
+      }
+      int newValue = controller.getPackedValue();
+      if (newValue == value) {
+         suppressedEventCount++;
+         return;
+      }
+      int oldValue = value;
+      value = newValue;
+      firedEventCount++;
+      firePropertyChange(PROPERTY_CHANGE_IDENTIFIER, oldValue, newValue);
+   }
+
+   /**
+    * Private helper function to rebuild the day combo box after the year 
+    * or month has changed.  Any actions that the rebuild causes update the
+    * controller as usual but fire no event of their own; one event, if 
+    * any, is fired afterwards.
+    */
+   private void rebuildDayPicker() {
+      adjusting = true;
+      try {
+         dayPicker.setModel(controller.getDayModel());
+      } finally {
+         adjusting = false;
+      }
+      valueMayHaveChanged();
+   }
+      
    /**
     * Inner class to handle events when the year is changed
     */
@@ -114,15 +195,10 @@ public class DatePickerView extends JPanel {
       @Override
       public void actionPerformed(ActionEvent ae) {
          ComboBoxItem selectedItem = 
-            (ComboBoxItem) ((JComboBox) ae.getSource()).getSelectedItem();
+            (ComboBoxItem) ((JComboBox<?>) ae.getSource()).getSelectedItem();
          int year = selectedItem.getValue();
          controller.setYear(year);
-         dayPicker.setModel(controller.getDayModel());
-         GregorianCalendar newModel = controller.getValue();
-         firePropertyChange(PROPERTY_CHANGE_IDENTIFIER, 
-                            oldModel, 
-                            newModel);
-         oldModel = newModel;
+         rebuildDayPicker();
       }
    }
    
@@ -133,15 +209,10 @@ public class DatePickerView extends JPanel {
       @Override
       public void actionPerformed(ActionEvent ae) {
          ComboBoxItem selectedItem = 
-            (ComboBoxItem) ((JComboBox) ae.getSource()).getSelectedItem();
+            (ComboBoxItem) ((JComboBox<?>) ae.getSource()).getSelectedItem();
          int month = selectedItem.getValue();
          controller.setMonth(month);
-         dayPicker.setModel(controller.getDayModel());
-         GregorianCalendar newModel = controller.getValue();
-         firePropertyChange(PROPERTY_CHANGE_IDENTIFIER, 
-                            oldModel, 
-                            newModel);
-         oldModel = newModel;
+         rebuildDayPicker();
       }
    }
    
@@ -152,14 +223,10 @@ public class DatePickerView extends JPanel {
       @Override
       public void actionPerformed(ActionEvent ae) {
          ComboBoxItem selectedItem = 
-            (ComboBoxItem) ((JComboBox) ae.getSource()).getSelectedItem();
+            (ComboBoxItem) ((JComboBox<?>) ae.getSource()).getSelectedItem();
          int day = selectedItem.getValue();
          controller.setDay(day);
-         GregorianCalendar newModel = controller.getValue();
-         firePropertyChange(PROPERTY_CHANGE_IDENTIFIER, 
-                            oldModel, 
-                            newModel);
-         oldModel = newModel;
+         valueMayHaveChanged();
       }
    }
    
@@ -170,14 +237,10 @@ public class DatePickerView extends JPanel {
       @Override
       public void actionPerformed(ActionEvent ae) {
          ComboBoxItem selectedItem = 
-            (ComboBoxItem) ((JComboBox) ae.getSource()).getSelectedItem();
+            (ComboBoxItem) ((JComboBox<?>) ae.getSource()).getSelectedItem();
          int hour = selectedItem.getValue();
          controller.setHour(hour);
-         GregorianCalendar newModel = controller.getValue();
-         firePropertyChange(PROPERTY_CHANGE_IDENTIFIER, 
-                            oldModel, 
-                            newModel);
-         oldModel = newModel;
+         valueMayHaveChanged();
       }
    }   
 }
@@ -0,0 +1,143 @@
+/**
+ * EdtLatencyProbe.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures how responsive the event dispatch thread is.  Every period, a
+ * background thread posts a small task to the event dispatch thread and
+ * records, in a LatencyHistogram, how long the task waited before it ran.
+ * That wait is how long a key press or mouse click arriving at the same
+ * moment would have waited, so a UI that stays responsive shows a p99 of a
+ * few milliseconds at most.
+ *
+ * Only one probe is outstanding at a time.  If the event dispatch thread
+ * is blocked, the probe that is waiting records the whole stall once,
+ * instead of probes piling up in the event queue behind it.
+ */
+public class EdtLatencyProbe {
+   /** how often a probe is posted, in milliseconds */
+   private final long periodMillis;
+
+   /** how long each probe waited */
+   private final LatencyHistogram latencies;
+
+   /** true while a probe is waiting to run */
+   private final AtomicBoolean outstanding;
+
+   /** posts the probes */
+   private final ScheduledExecutorService scheduler;
+
+   /** the scheduled posting, or null if the probe is stopped */
+   private ScheduledFuture<?> posting;
+
+   /**
+    * Creates a new probe, which does nothing until start() is called
+    * @param periodMillis how often a probe is posted, in milliseconds
+    */
+   public EdtLatencyProbe(long periodMillis) {
+      if (periodMillis <= 0) {
+         throw new IllegalArgumentException(
+               "The period must be positive: " + periodMillis);
+      }
+      this.periodMillis = periodMillis;
+      latencies = new LatencyHistogram();
+      outstanding = new AtomicBoolean(false);
+      scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "edt-latency-probe");
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+      posting = null;
+   }
+
+   /**
+    * Starts posting probes, if they are not being posted already
+    */
+   public synchronized void start() {
+      if (posting == null) {
+         posting = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+               post();
+            }
+         }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Stops posting probes.  A probe that is already waiting still records
+    * its latency.
+    */
+   public synchronized void stop() {
+      if (posting != null) {
+         posting.cancel(false);
+         posting = null;
+      }
+   }
+
+   /**
+    * @return how long each probe waited for the event dispatch thread
+    */
+   public LatencyHistogram getLatencies() {
+      return latencies;
+   }
+
+   /**
+    * Prints a summary of the latencies to System.err when the program
+    * exits
+    */
+   public void reportOnExit() {
+      Runtime.getRuntime().addShutdownHook(
+            new Thread("edt-latency-report") {
+         @Override
+         public void run() {
+            System.err.println("EDT latency: " + latencies);
+         }
+      });
+   }
+
+   /**
+    * @return a one-line summary of the latencies (see LatencyHistogram)
+    */
+   @Override
+   public String toString() {
+      return latencies.toString();
+   }
+
+   /**
+    * Private helper function to post one probe, unless one is still
+    * waiting
+    */
+   private void post() {
+      if (!outstanding.compareAndSet(false, true)) {
+         return;
+      }
+      final long posted = System.nanoTime();
+      SwingUtilities.invokeLater(new Runnable() {
+         @Override
+         public void run() {
+            latencies.record(System.nanoTime() - posted);
+            outstanding.set(false);
+         }
+      });
+   }
+}
@@ -0,0 +1,156 @@
+/**
+ * IncrementalValidator.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates the same reservation over and over as it is being edited,
+ * re-running only the rules that read a field that changed since the
+ * previous validation.  The error messages, itinerary lines, and failures
+ * of every other rule are reused from the previous validation, and if
+ * nothing changed at all the previous ValidationResult is returned as is.
+ * The results are exactly the same as those of
+ * ReservationValidator.validate(), including the order of the validator's
+ * pipeline and its ValidationMode.  Every call is recorded into the
+ * validator's ValidationMetrics, if it has any, as one validation, but the
+ * "any time" exception of rule 5 is only counted when rule 5 runs again.
+ *
+ * An IncrementalValidator remembers the previous validation, so each form
+ * being edited needs its own, and it must not be shared between threads.
+ */
+public class IncrementalValidator {
+   /** applies the business rules */
+   private final ReservationValidator validator;
+
+   /** the error messages produced by each rule, indexed by position */
+   private final List<List<String>> errorSegments;
+
+   /** the itinerary lines produced by each rule, indexed by position */
+   private final String[] itinerarySegments;
+
+   /** the outcomes that failed in each rule, indexed by position */
+   private final List<Set<ValidationRule>> failureSegments;
+
+   /** the outcome of the previous validation, or null if there was none */
+   private ValidationResult lastResult;
+
+   /** the number of rules that were run, for diagnostics */
+   private long checksRun;
+
+   /** the number of rules whose previous outcome was reused */
+   private long checksReused;
+
+   /**
+    * Creates a new IncrementalValidator
+    * @param validator the validator that applies the business rules
+    */
+   public IncrementalValidator(ReservationValidator validator) {
+      this.validator = validator;
+      int numRules = validator.getRules().size();
+      errorSegments = new ArrayList<List<String>>(numRules);
+      failureSegments = new ArrayList<Set<ValidationRule>>(numRules);
+      for (int i = 0; i < numRules; i++) {
+         errorSegments.add(new ArrayList<String>(2));
+         failureSegments.add(EnumSet.noneOf(ValidationRule.class));
+      }
+      itinerarySegments = new String[numRules];
+      lastResult = null;
+   }
+
+   /**
+    * Validates a reservation, re-running only the rules that read one of
+    * the changed fields.  The first call always runs every rule.  In
+    * ValidationMode.FAIL_FAST every changed rule still runs, so that its
+    * outcome can be reused later, but the result stops at the first error.
+    * @param reservation the reservation to validate
+    * @param changedFields the fields that changed since the previous call
+    * @return the outcome of the validation
+    */
+   public ValidationResult validate(Reservation reservation,
+                                    Set<ReservationField> changedFields) {
+      long start = validator.startTiming();
+      List<ReservationRule> rules = validator.getRules();
+      if (lastResult != null && changedFields.isEmpty()) {
+         checksReused += rules.size();
+         validator.record(lastResult, false, start);
+         return lastResult;
+      }
+
+      StringBuilder itinerary = new StringBuilder();
+      int anyTimeRule = -1;
+      for (int i = 0; i < rules.size(); i++) {
+         if (lastResult == null
+             || dependsOnAny(rules.get(i), changedFields)) {
+            List<String> errors = errorSegments.get(i);
+            Set<ValidationRule> failures = failureSegments.get(i);
+            errors.clear();
+            failures.clear();
+            itinerary.setLength(0);
+            if (validator.apply(i, reservation, errors, itinerary,
+                                failures)) {
+               anyTimeRule = i;
+            }
+            itinerarySegments[i] = itinerary.toString();
+            checksRun++;
+         } else {
+            checksReused++;
+         }
+      }
+
+      boolean failFast = (validator.getMode() == ValidationMode.FAIL_FAST);
+      boolean anyTimeException = false;
+      List<String> errors = new ArrayList<String>();
+      Set<ValidationRule> failures = EnumSet.noneOf(ValidationRule.class);
+      itinerary.setLength(0);
+      for (int i = 0; i < itinerarySegments.length; i++) {
+         errors.addAll(errorSegments.get(i));
+         failures.addAll(failureSegments.get(i));
+         itinerary.append(itinerarySegments[i]);
+         anyTimeException |= (i == anyTimeRule);
+         if (failFast && !errors.isEmpty()) {
+            break;
+         }
+      }
+      lastResult = new ValidationResult(errors, failures, itinerary.toString());
+      validator.record(lastResult, anyTimeException, start);
+      return lastResult;
+   }
+
+   /**
+    * @return the number of rules that were actually run
+    */
+   public long getChecksRun() {
+      return checksRun;
+   }
+
+   /**
+    * @return the number of rules whose previous outcome was reused
+    */
+   public long getChecksReused() {
+      return checksReused;
+   }
+
+   /**
+    * Private helper function to determine whether a rule reads any of the
+    * changed fields
+    */
+   private static boolean dependsOnAny(ReservationRule rule,
+                                       Set<ReservationField> changedFields) {
+      for (ReservationField field : rule.getInputs()) {
+         if (changedFields.contains(field)) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
@@ -0,0 +1,409 @@
+/**
+ * ItineraryRenderer.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the itinerary and the error messages of a reservation straight
+ * into a caller-supplied destination, for bulk confirmation output.  The
+ * text is exactly what ReservationValidator.validate() puts into
+ * ValidationResult.getItinerary() and getErrorMessages() with the standard
+ * rules in their original order, but no ValidationResult, String, or
+ * StringBuilder is created along the way: every fixed piece of text is
+ * looked up in a table built once, and numbers are written one digit at a
+ * time.
+ *
+ * Two kinds of destination are supported.  Any Appendable, e.g., a
+ * reused StringBuilder, a CharBuffer, or a Writer, receives the text as
+ * characters.  A ByteBuffer receives the text encoded as UTF-8, using
+ * tables of pre-encoded bytes for the labels, month names, and time slots;
+ * callers writing many records should clear() and reuse one buffer.
+ *
+ * A renderer holds only immutable tables, so one instance, returned by
+ * getDefault(), can be shared by any number of threads.
+ */
+public final class ItineraryRenderer {
+   /** the renderer shared by the whole program */
+   private static final ItineraryRenderer DEFAULT = new ItineraryRenderer();
+
+   /** the largest value an hour of day can have in a packed date */
+   private static final int MAX_PACKED_HOUR = 31;
+
+   /** the month names, indexed by zero-based month */
+   private final String[] monthNames;
+
+   /** the time slot names followed by a newline, indexed by hour of day */
+   private final String[] hourLines;
+
+   /** the UTF-8 encoding of each month name followed by a space */
+   private final byte[][] monthBytes;
+
+   /** the UTF-8 encoding of each entry of hourLines */
+   private final byte[][] hourLineBytes;
+
+   /** the UTF-8 encoding of RuleCheck.FROM_LABEL */
+   private final byte[] fromBytes;
+
+   /** the UTF-8 encoding of RuleCheck.TO_LABEL */
+   private final byte[] toBytes;
+
+   /** the UTF-8 encoding of RuleCheck.PASSENGERS_LABEL */
+   private final byte[] passengersBytes;
+
+   /** the UTF-8 encoding of RuleCheck.DEPARTING_LABEL */
+   private final byte[] departingBytes;
+
+   /** the UTF-8 encoding of RuleCheck.RETURNING_LABEL */
+   private final byte[] returningBytes;
+
+   /** the UTF-8 encoding of each error message followed by a newline,
+    * indexed by ValidationRule ordinal
+    */
+   private final byte[][] errorLineBytes;
+
+   /** each error message followed by a newline, indexed by ValidationRule
+    * ordinal
+    */
+   private final String[] errorLines;
+
+   /**
+    * Creates a new renderer using the month names of the default
+    * CalendarTable.  Callers are encouraged to share getDefault() instead.
+    */
+   public ItineraryRenderer() {
+      CalendarTable calendar = CalendarTable.getDefault();
+      monthNames = new String[CalendarTable.MONTHS_PER_YEAR];
+      monthBytes = new byte[CalendarTable.MONTHS_PER_YEAR][];
+      for (int month = 0; month < CalendarTable.MONTHS_PER_YEAR; month++) {
+         monthNames[month] = calendar.getMonthName(month);
+         monthBytes[month] = encode(monthNames[month] + " ");
+      }
+      hourLines = new String[MAX_PACKED_HOUR + 1];
+      hourLineBytes = new byte[MAX_PACKED_HOUR + 1][];
+      for (int hour = 0; hour <= MAX_PACKED_HOUR; hour++) {
+         hourLines[hour] = PackedDate.getHourText(hour) + "\n";
+         hourLineBytes[hour] = encode(hourLines[hour]);
+      }
+      fromBytes = encode(RuleCheck.FROM_LABEL);
+      toBytes = encode(RuleCheck.TO_LABEL);
+      passengersBytes = encode(RuleCheck.PASSENGERS_LABEL);
+      departingBytes = encode(RuleCheck.DEPARTING_LABEL);
+      returningBytes = encode(RuleCheck.RETURNING_LABEL);
+
+      ValidationRule[] rules = ValidationRule.values();
+      errorLines = new String[rules.length];
+      errorLineBytes = new byte[rules.length][];
+      for (ValidationRule rule : rules) {
+         errorLines[rule.ordinal()] = errorMessage(rule) + "\n";
+         errorLineBytes[rule.ordinal()] = encode(errorLines[rule.ordinal()]);
+      }
+   }
+
+   /**
+    * @return the renderer shared by the whole program
+    */
+   public static ItineraryRenderer getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * Writes the itinerary of a reservation, one detail per line
+    * @param reservation the reservation
+    * @param out receives the text
+    * @return out
+    * @throws IOException if out throws one
+    */
+   public <A extends Appendable> A renderItinerary(
+         ReservationData reservation, A out)
+         throws IOException {
+      if (reservation.getDepartureCityId() != CityDictionary.BLANK_ID) {
+         out.append(RuleCheck.FROM_LABEL)
+            .append(reservation.getDepartureCity())
+            .append('\n');
+      }
+      if (reservation.getArrivalCityId() != CityDictionary.BLANK_ID) {
+         out.append(RuleCheck.TO_LABEL).append(reservation.getArrivalCity())
+            .append('\n');
+      }
+      int numPassengers = reservation.getNumPassengers();
+      if (!RuleCheck.isNumPassengersOutOfRange(numPassengers)) {
+         out.append(RuleCheck.PASSENGERS_LABEL);
+         appendNumber(numPassengers, out);
+         out.append('\n');
+      }
+      int departureDate = reservation.getDepartureDate();
+      if (!RuleCheck.isDateOutOfRange(departureDate)) {
+         out.append(RuleCheck.DEPARTING_LABEL);
+         appendDateLine(departureDate, out);
+      }
+      int returnDate = reservation.getReturnDate();
+      if (!RuleCheck.isDateOutOfRange(returnDate)) {
+         out.append(RuleCheck.RETURNING_LABEL);
+         appendDateLine(returnDate, out);
+      }
+      return out;
+   }
+
+   /**
+    * Writes the error messages of a reservation, one per line.  Nothing is
+    * written if the reservation is valid.
+    * @param reservation the reservation
+    * @param out receives the text
+    * @return out
+    * @throws IOException if out throws one
+    */
+   public <A extends Appendable> A renderErrors(
+         ReservationData reservation, A out)
+         throws IOException {
+      int failures = getFailureBits(reservation);
+      for (int i = 0; failures != 0; i++, failures >>>= 1) {
+         if ((failures & 1) != 0) {
+            out.append(errorLines[i]);
+         }
+      }
+      return out;
+   }
+
+   /**
+    * Writes the itinerary of a reservation as UTF-8, one detail per line
+    * @param reservation the reservation
+    * @param out receives the bytes, starting at its position
+    * @return the number of bytes written
+    * @throws java.nio.BufferOverflowException if out is too small; its
+    *         position is then undefined
+    */
+   public int encodeItinerary(ReservationData reservation, ByteBuffer out) {
+      int start = out.position();
+      if (reservation.getDepartureCityId() != CityDictionary.BLANK_ID) {
+         out.put(fromBytes);
+         putUtf8(reservation.getDepartureCity(), out);
+         out.put((byte) '\n');
+      }
+      if (reservation.getArrivalCityId() != CityDictionary.BLANK_ID) {
+         out.put(toBytes);
+         putUtf8(reservation.getArrivalCity(), out);
+         out.put((byte) '\n');
+      }
+      int numPassengers = reservation.getNumPassengers();
+      if (!RuleCheck.isNumPassengersOutOfRange(numPassengers)) {
+         out.put(passengersBytes);
+         putNumber(numPassengers, out);
+         out.put((byte) '\n');
+      }
+      int departureDate = reservation.getDepartureDate();
+      if (!RuleCheck.isDateOutOfRange(departureDate)) {
+         out.put(departingBytes);
+         putDateLine(departureDate, out);
+      }
+      int returnDate = reservation.getReturnDate();
+      if (!RuleCheck.isDateOutOfRange(returnDate)) {
+         out.put(returningBytes);
+         putDateLine(returnDate, out);
+      }
+      return out.position() - start;
+   }
+
+   /**
+    * Writes the error messages of a reservation as UTF-8, one per line.
+    * Nothing is written if the reservation is valid.
+    * @param reservation the reservation
+    * @param out receives the bytes, starting at its position
+    * @return the number of bytes written
+    * @throws java.nio.BufferOverflowException if out is too small; its
+    *         position is then undefined
+    */
+   public int encodeErrors(ReservationData reservation, ByteBuffer out) {
+      int start = out.position();
+      int failures = getFailureBits(reservation);
+      for (int i = 0; failures != 0; i++, failures >>>= 1) {
+         if ((failures & 1) != 0) {
+            out.put(errorLineBytes[i]);
+         }
+      }
+      return out.position() - start;
+   }
+
+   /**
+    * Determines which rules a reservation fails, without building any error
+    * messages.  The ValidationRule constants are declared in the order in
+    * which their messages are produced, so the messages come out in the
+    * right order when the bits are read from lowest to highest.
+    * @param reservation the reservation
+    * @return a bit set with bit (1 &lt;&lt; rule.ordinal()) set for each
+    *         failed ValidationRule
+    */
+   static int getFailureBits(ReservationData reservation) {
+      int bits = 0;
+      if (reservation.getDepartureCityId() == CityDictionary.BLANK_ID) {
+         bits |= bit(ValidationRule.DEPARTURE_CITY_BLANK);
+      }
+      if (reservation.getArrivalCityId() == CityDictionary.BLANK_ID) {
+         bits |= bit(ValidationRule.ARRIVAL_CITY_BLANK);
+      }
+      if (RuleCheck.isNumPassengersOutOfRange(
+             reservation.getNumPassengers())) {
+         bits |= bit(ValidationRule.NUM_PASSENGERS_OUT_OF_RANGE);
+      }
+      int departureDate = reservation.getDepartureDate();
+      if (RuleCheck.isDateOutOfRange(departureDate)) {
+         bits |= bit(ValidationRule.DEPARTURE_DATE_OUT_OF_RANGE);
+      }
+      if (!PackedDate.isSet(departureDate)) {
+         bits |= bit(ValidationRule.DEPARTURE_DATE_NOT_SET);
+      }
+      int returnDate = reservation.getReturnDate();
+      if (RuleCheck.isDateOutOfRange(returnDate)) {
+         bits |= bit(ValidationRule.RETURN_DATE_OUT_OF_RANGE);
+      }
+      if (!PackedDate.isSet(returnDate)) {
+         bits |= bit(ValidationRule.RETURN_DATE_NOT_SET);
+      }
+      if (RuleCheck.isReturnBeforeDeparture(departureDate, returnDate)) {
+         bits |= bit(ValidationRule.RETURN_BEFORE_DEPARTURE);
+      }
+      return bits;
+   }
+
+   /**
+    * Private helper function to get the bit of a rule
+    */
+   private static int bit(ValidationRule rule) {
+      return 1 << rule.ordinal();
+   }
+
+   /**
+    * Private helper function to look up the error message of a rule
+    */
+   private static String errorMessage(ValidationRule rule) {
+      switch (rule) {
+         case DEPARTURE_CITY_BLANK:
+            return RuleCheck.DEPARTURE_CITY_ERROR;
+         case ARRIVAL_CITY_BLANK:
+            return RuleCheck.ARRIVAL_CITY_ERROR;
+         case NUM_PASSENGERS_OUT_OF_RANGE:
+            return RuleCheck.NUM_PASSENGERS_ERROR;
+         case DEPARTURE_DATE_OUT_OF_RANGE:
+            return RuleCheck.DEPARTURE_DATE_RANGE_ERROR;
+         case DEPARTURE_DATE_NOT_SET:
+            return RuleCheck.DEPARTURE_DATE_NOT_SET_ERROR;
+         case RETURN_DATE_OUT_OF_RANGE:
+            return RuleCheck.RETURN_DATE_RANGE_ERROR;
+         case RETURN_DATE_NOT_SET:
+            return RuleCheck.RETURN_DATE_NOT_SET_ERROR;
+         case RETURN_BEFORE_DEPARTURE:
+            return RuleCheck.RETURN_BEFORE_DEPARTURE_ERROR;
+         default:
+            throw new IllegalArgumentException("Unknown rule: " + rule);
+      }
+   }
+
+   /**
+    * Private helper function to write a date as PackedDate.format() does,
+    * followed by a newline
+    */
+   private void appendDateLine(int date, Appendable out) throws IOException {
+      out.append(monthNames[PackedDate.getMonth(date)]).append(' ');
+      appendNumber(PackedDate.getDay(date), out);
+      out.append(", ");
+      appendNumber(PackedDate.getYear(date), out);
+      out.append(' ').append(hourLines[PackedDate.getHour(date)]);
+   }
+
+   /**
+    * Private helper function to write a date as UTF-8 as PackedDate.format()
+    * does, followed by a newline
+    */
+   private void putDateLine(int date, ByteBuffer out) {
+      out.put(monthBytes[PackedDate.getMonth(date)]);
+      putNumber(PackedDate.getDay(date), out);
+      out.put((byte) ',').put((byte) ' ');
+      putNumber(PackedDate.getYear(date), out);
+      out.put((byte) ' ').put(hourLineBytes[PackedDate.getHour(date)]);
+   }
+
+   /**
+    * Private helper function to write an int in decimal without creating a
+    * String
+    */
+   private static void appendNumber(int value, Appendable out)
+         throws IOException {
+      long n = value;
+      if (n < 0) {
+         out.append('-');
+         n = -n;
+      }
+      long divisor = 1;
+      while (divisor * 10 <= n) {
+         divisor *= 10;
+      }
+      for (; divisor > 0; divisor /= 10) {
+         out.append((char) ('0' + (n / divisor) % 10));
+      }
+   }
+
+   /**
+    * Private helper function to write an int in decimal as ASCII bytes
+    */
+   private static void putNumber(int value, ByteBuffer out) {
+      long n = value;
+      if (n < 0) {
+         out.put((byte) '-');
+         n = -n;
+      }
+      long divisor = 1;
+      while (divisor * 10 <= n) {
+         divisor *= 10;
+      }
+      for (; divisor > 0; divisor /= 10) {
+         out.put((byte) ('0' + (n / divisor) % 10));
+      }
+   }
+
+   /**
+    * Private helper function to encode a String as UTF-8 without creating
+    * a byte array.  An unpaired surrogate is written as '?', just as
+    * String.getBytes() does.
+    */
+   private static void putUtf8(String text, ByteBuffer out) {
+      int length = text.length();
+      for (int i = 0; i < length; i++) {
+         char c = text.charAt(i);
+         if (c < 0x80) {
+            out.put((byte) c);
+         } else if (c < 0x800) {
+            out.put((byte) (0xC0 | (c >> 6)))
+               .put((byte) (0x80 | (c & 0x3F)));
+         } else if (Character.isHighSurrogate(c)
+                    && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(++i));
+            out.put((byte) (0xF0 | (codePoint >> 18)))
+               .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+               .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+               .put((byte) (0x80 | (codePoint & 0x3F)));
+         } else if (Character.isSurrogate(c)) {
+            out.put((byte) '?');
+         } else {
+            out.put((byte) (0xE0 | (c >> 12)))
+               .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+               .put((byte) (0x80 | (c & 0x3F)));
+         }
+      }
+   }
+
+   /**
+    * Private helper function to encode a String as UTF-8
+    */
+   private static byte[] encode(String text) {
+      return text.getBytes(StandardCharsets.UTF_8);
+   }
+}
@@ -0,0 +1,209 @@
+/**
+ * LatencyHistogram.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A low-overhead histogram of latencies in nanoseconds, for reporting
+ * percentiles.  Values are counted in log-linear buckets: every power of
+ * two is split into 16 equal buckets, so a reported percentile is never
+ * more than about 6% above the true value.  Values of 2^40 ns (about 18
+ * minutes) or more are counted in the last bucket.
+ *
+ * Recording never locks.  The counts are spread over several stripes,
+ * chosen by thread, so that threads recording at the same time rarely
+ * update the same memory; reading a percentile sums the stripes.
+ */
+public class LatencyHistogram {
+   /** log2 of the number of buckets per power of two */
+   private static final int SUB_BUCKET_BITS = 4;
+
+   /** the number of buckets per power of two */
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+   /** the largest power of two that is tracked */
+   private static final int MAX_EXPONENT = 40;
+
+   /** the total number of buckets */
+   private static final int NUM_BUCKETS =
+      (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+   /** the number of stripes; must be a power of two */
+   private static final int NUM_STRIPES = 8;
+
+   /** the number of nanoseconds in one microsecond */
+   private static final double NANOS_PER_MICRO = 1000.0;
+
+   /** the bucket counts, one array per stripe */
+   private final AtomicLongArray[] stripes;
+
+   /** the sum of every recorded value */
+   private final LongAdder total;
+
+   /** the largest recorded value */
+   private final LongAccumulator max;
+
+   /**
+    * Creates an empty histogram
+    */
+   public LatencyHistogram() {
+      stripes = new AtomicLongArray[NUM_STRIPES];
+      for (int i = 0; i < NUM_STRIPES; i++) {
+         stripes[i] = new AtomicLongArray(NUM_BUCKETS);
+      }
+      total = new LongAdder();
+      max = new LongAccumulator(Math::max, 0);
+   }
+
+   /**
+    * Records one latency
+    * @param nanos the latency in nanoseconds; negative values count as 0
+    */
+   public void record(long nanos) {
+      long value = Math.max(nanos, 0);
+      int stripe = (int) Thread.currentThread().getId() & (NUM_STRIPES - 1);
+      stripes[stripe].getAndIncrement(bucketOf(value));
+      total.add(value);
+      max.accumulate(value);
+   }
+
+   /**
+    * @return the number of recorded values
+    */
+   public long getCount() {
+      long count = 0;
+      for (AtomicLongArray stripe : stripes) {
+         for (int i = 0; i < NUM_BUCKETS; i++) {
+            count += stripe.get(i);
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return the mean of the recorded values in nanoseconds, or 0 if none
+    */
+   public double getMean() {
+      long count = getCount();
+      return (count == 0 ? 0 : (double) total.sum() / count);
+   }
+
+   /**
+    * @return the largest recorded value in nanoseconds
+    */
+   public long getMax() {
+      return max.get();
+   }
+
+   /**
+    * @param percentile a percentile between 0 and 100, e.g., 99.9
+    * @return an upper bound of the given percentile in nanoseconds, or 0 if
+    *         nothing has been recorded
+    */
+   public long getPercentile(double percentile) {
+      long[] counts = snapshot();
+      long count = 0;
+      for (long c : counts) {
+         count += c;
+      }
+      if (count == 0) {
+         return 0;
+      }
+      long rank = (long) Math.ceil(percentile / 100.0 * count);
+      rank = Math.max(1, Math.min(rank, count));
+      long seen = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+         seen += counts[i];
+         if (seen >= rank) {
+            return Math.min(upperBoundOf(i), getMax());
+         }
+      }
+      return getMax();
+   }
+
+   /**
+    * Forgets every recorded value.  Values recorded while the reset is in
+    * progress may or may not be kept.
+    */
+   public void reset() {
+      for (AtomicLongArray stripe : stripes) {
+         for (int i = 0; i < NUM_BUCKETS; i++) {
+            stripe.set(i, 0);
+         }
+      }
+      total.reset();
+      max.reset();
+   }
+
+   /**
+    * @return a one-line summary such as
+    * "count=10 mean=1.2us p50=1.1us p90=1.9us p99=2.0us p99.9=2.0us max=2.0us"
+    */
+   @Override
+   public String toString() {
+      return String.format(Locale.US,
+            "count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus "
+            + "p99.9=%.1fus max=%.1fus",
+            getCount(),
+            getMean() / NANOS_PER_MICRO,
+            getPercentile(50) / NANOS_PER_MICRO,
+            getPercentile(90) / NANOS_PER_MICRO,
+            getPercentile(99) / NANOS_PER_MICRO,
+            getPercentile(99.9) / NANOS_PER_MICRO,
+            getMax() / NANOS_PER_MICRO);
+   }
+
+   /**
+    * Private helper function to add up the stripes
+    * @return the total count of each bucket
+    */
+   private long[] snapshot() {
+      long[] counts = new long[NUM_BUCKETS];
+      for (AtomicLongArray stripe : stripes) {
+         for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += stripe.get(i);
+         }
+      }
+      return counts;
+   }
+
+   /**
+    * Private helper function to find the bucket of a non-negative value
+    */
+   private static int bucketOf(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      if (exponent > MAX_EXPONENT) {
+         return NUM_BUCKETS - 1;
+      }
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+                      & (SUB_BUCKETS - 1);
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   }
+
+   /**
+    * Private helper function to find the largest value counted in a bucket
+    */
+   private static long upperBoundOf(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+         return bucket;
+      }
+      int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      int subBucket = bucket % SUB_BUCKETS;
+      int shift = exponent - SUB_BUCKET_BITS;
+      long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+      return lower + (1L << shift) - 1;
+   }
+}
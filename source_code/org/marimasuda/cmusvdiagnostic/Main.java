@@ -8,12 +8,16 @@
 
 package org.marimasuda.cmusvdiagnostic;
 
+import java.io.IOException;
+import java.util.List;
+
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
 /**
- * A simple class to start the CMUSV coding diagnostic program.  Creates 
- * and displays the GUI on the event dispatch thread.
+ * A simple class to start the CMUSV coding diagnostic program.  Restores 
+ * the bookings saved in the reservation log, then creates and displays the 
+ * GUI on the event dispatch thread.
  */
 public class Main extends JFrame {
    public Main() {
@@ -26,6 +30,32 @@ public class Main extends JFrame {
    }
    
    public static void main(String[] args) {
+      try {
+         BookingWindow.getDefault();
+      } catch (ExceptionInInitializerError eie) {
+         System.err.println(eie.getCause().getMessage());
+         System.exit(2);
+      }
+      try {
+         List<Reservation> overbooked =
+            ReservationController.restoreBookings();
+         long discarded = ReservationLog.getDefault().getDiscardedBytes();
+         if (discarded > 0) {
+            System.err.println("Discarded " + discarded + " bytes of "
+                               + "incomplete data from the reservation log");
+         }
+         for (Reservation reservation : overbooked) {
+            System.err.println("Not enough free seats for the restored "
+                               + "booking from "
+                               + reservation.getDepartureCity() + " to "
+                               + reservation.getArrivalCity() + " on "
+                               + PackedDate.format(
+                                    reservation.getDepartureDate()));
+         }
+      } catch (IOException ioe) {
+         System.err.println("The reservation log could not be read: " 
+                            + ioe.getMessage());
+      }
       SwingUtilities.invokeLater(new Runnable() {
          public void run() {
             new Main();
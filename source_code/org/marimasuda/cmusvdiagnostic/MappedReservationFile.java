@@ -0,0 +1,300 @@
+/**
+ * MappedReservationFile.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file in the format described by BinaryReservationFormat by
+ * mapping it into memory.  Nothing is copied or parsed when the file is
+ * opened except the city table, whose names are decoded and looked up in
+ * CityDictionary.getDefault() once without being added to it; a Cursor
+ * then reads the fields of any record straight from the mapped memory, so
+ * a whole file can be validated without creating an object per record.
+ *
+ * Cursors only use absolute reads, so several threads may each use their
+ * own Cursor on the same file at once.  Files larger than 2 GB cannot be
+ * mapped in one piece and are rejected.
+ */
+public class MappedReservationFile implements Closeable {
+   /** the file */
+   private final FileChannel channel;
+
+   /** the contents of the file */
+   private final MappedByteBuffer buffer;
+
+   /** the number of records in the file */
+   private final int recordCount;
+
+   /** the city names, indexed by ID within the file */
+   private final String[] cities;
+
+   /** the ID in CityDictionary.getDefault() of each city, or
+    * CityDictionary.UNKNOWN_ID if it has none, indexed by ID within the file
+    */
+   private final int[] cityIds;
+
+   /**
+    * Opens and maps a file
+    * @param file the file to read
+    * @throws IOException if the file cannot be read or is not in the
+    *         expected format
+    */
+   public MappedReservationFile(Path file) throws IOException {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+      try {
+         long size = channel.size();
+         if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large to map: " + file);
+         }
+         if (size < BinaryReservationFormat.HEADER_SIZE) {
+            throw new IOException("Not a reservation file: " + file);
+         }
+         buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+         if (buffer.getInt(0) != BinaryReservationFormat.MAGIC) {
+            throw new IOException("Not a reservation file: " + file);
+         }
+         short version =
+            buffer.getShort(BinaryReservationFormat.VERSION_OFFSET);
+         short recordSize =
+            buffer.getShort(BinaryReservationFormat.RECORD_SIZE_OFFSET);
+         if (version != BinaryReservationFormat.VERSION
+             || recordSize != BinaryReservationFormat.RECORD_SIZE) {
+            throw new IOException("Unsupported reservation file version "
+                                  + version + ": " + file);
+         }
+         long count =
+            buffer.getLong(BinaryReservationFormat.RECORD_COUNT_OFFSET);
+         long cityTableOffset =
+            buffer.getLong(BinaryReservationFormat.CITY_TABLE_OFFSET);
+         if (count < 0
+             || cityTableOffset > size - 4
+             || BinaryReservationFormat.HEADER_SIZE
+                + count * BinaryReservationFormat.RECORD_SIZE
+                != cityTableOffset) {
+            throw new IOException("Corrupt reservation file: " + file);
+         }
+         recordCount = (int) count;
+         cities = readCities((int) cityTableOffset, file);
+         cityIds = new int[cities.length];
+         CityDictionary dictionary = CityDictionary.getDefault();
+         for (int i = 0; i < cities.length; i++) {
+            cityIds[i] = dictionary.find(cities[i]);
+         }
+      } catch (IOException | RuntimeException e) {
+         channel.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Determines whether a file is in the format described by
+    * BinaryReservationFormat, judging by its first bytes
+    * @param file the file to examine
+    * @return true if the file starts with BinaryReservationFormat.MAGIC
+    * @throws IOException if the file cannot be read
+    */
+   public static boolean isBinaryFile(Path file) throws IOException {
+      try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+         ByteBuffer magic = ByteBuffer.allocate(4);
+         while (magic.hasRemaining() && in.read(magic) >= 0) {
+            // keep reading until the magic number is complete
+         }
+         return !magic.hasRemaining()
+                && magic.getInt(0) == BinaryReservationFormat.MAGIC;
+      }
+   }
+
+   /**
+    * @return the number of records in the file
+    */
+   public int getRecordCount() {
+      return recordCount;
+   }
+
+   /**
+    * @return the number of distinct cities in the file, including the
+    *         blank city
+    */
+   public int getCityCount() {
+      return cities.length;
+   }
+
+   /**
+    * @return a new cursor, not yet positioned on any record
+    */
+   public Cursor cursor() {
+      return new Cursor();
+   }
+
+   /**
+    * Copies a record into a Reservation
+    * @param index the position of the record, starting at 0
+    * @return a new Reservation holding the record's values
+    * @throws IllegalArgumentException if the record is corrupt
+    * @throws IndexOutOfBoundsException if there is no such record
+    */
+   public Reservation getReservation(int index) {
+      Cursor cursor = cursor();
+      cursor.moveTo(index);
+      return new Reservation(cursor.getDepartureCity(),
+                             cursor.getArrivalCity(),
+                             cursor.getDepartureDate(),
+                             cursor.getReturnDate(),
+                             cursor.getNumPassengers());
+   }
+
+   /**
+    * Closes the file.  The mapped memory is released once it is no longer
+    * reachable, so cursors must not be used after the file is closed.
+    * @throws IOException if the file cannot be closed
+    */
+   @Override
+   public void close() throws IOException {
+      channel.close();
+   }
+
+   /**
+    * Private helper function to decode the city table
+    */
+   private String[] readCities(int offset, Path file) throws IOException {
+      int count = buffer.getInt(offset);
+      if (count < 1 || count > (buffer.limit() - offset - 4) / 2) {
+         throw new IOException("Corrupt city table: " + file);
+      }
+      String[] names = new String[count];
+      int position = offset + 4;
+      for (int i = 0; i < count; i++) {
+         if (position + 2 > buffer.limit()) {
+            throw new IOException("Corrupt city table: " + file);
+         }
+         int length = buffer.getShort(position) & 0xFFFF;
+         position += 2;
+         if (position + length > buffer.limit()) {
+            throw new IOException("Corrupt city table: " + file);
+         }
+         ByteBuffer name = buffer.duplicate();
+         name.limit(position + length).position(position);
+         names[i] = StandardCharsets.UTF_8.decode(name).toString();
+         position += length;
+      }
+      if (!names[BinaryReservationFormat.BLANK_CITY_ID].isEmpty()) {
+         throw new IOException("Corrupt city table: " + file);
+      }
+      return names;
+   }
+
+   /**
+    * A movable view of one record at a time.  Moving the cursor only
+    * changes an offset, so one cursor can visit every record of the file
+    * without creating any objects.
+    */
+   public class Cursor implements ReservationData {
+      /** the offset of the current record in the file, or -1 if none */
+      private int offset;
+
+      /** the current record's departure city, indexed by ID within the
+       * file
+       */
+      private int departureCity;
+
+      /** the current record's arrival city, indexed by ID within the file */
+      private int arrivalCity;
+
+      /**
+       * Creates a cursor that is not positioned on any record
+       */
+      private Cursor() {
+         offset = -1;
+      }
+
+      /**
+       * Positions the cursor on a record
+       * @param index the position of the record, starting at 0
+       * @throws IllegalArgumentException if the record refers to a city
+       *         that is not in the city table or holds an invalid date
+       * @throws IndexOutOfBoundsException if there is no such record
+       */
+      public void moveTo(int index) {
+         if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("No record " + index);
+         }
+         offset = BinaryReservationFormat.HEADER_SIZE
+                  + index * BinaryReservationFormat.RECORD_SIZE;
+         departureCity = getCity(BinaryReservationFormat.DEPARTURE_CITY);
+         arrivalCity = getCity(BinaryReservationFormat.ARRIVAL_CITY);
+         checkDate(getDepartureDate());
+         checkDate(getReturnDate());
+      }
+
+      @Override
+      public String getDepartureCity() {
+         return cities[departureCity];
+      }
+
+      @Override
+      public String getArrivalCity() {
+         return cities[arrivalCity];
+      }
+
+      @Override
+      public int getDepartureCityId() {
+         return cityIds[departureCity];
+      }
+
+      @Override
+      public int getArrivalCityId() {
+         return cityIds[arrivalCity];
+      }
+
+      @Override
+      public int getDepartureDate() {
+         return buffer.getInt(offset + BinaryReservationFormat.DEPARTURE_DATE);
+      }
+
+      @Override
+      public int getReturnDate() {
+         return buffer.getInt(offset + BinaryReservationFormat.RETURN_DATE);
+      }
+
+      @Override
+      public int getNumPassengers() {
+         return buffer.get(offset + BinaryReservationFormat.NUM_PASSENGERS);
+      }
+
+      /**
+       * Private helper function to reject a date that could not have been
+       * written by BinaryReservationWriter
+       */
+      private void checkDate(int date) {
+         if (!PackedDate.isValid(date)) {
+            throw new IllegalArgumentException(
+                  "Invalid date: 0x" + Integer.toHexString(date));
+         }
+      }
+
+      /**
+       * Private helper function to look up a city of the current record
+       */
+      private int getCity(int field) {
+         int id = buffer.getInt(offset + field);
+         if (id < 0 || id >= cities.length) {
+            throw new IllegalArgumentException("Invalid city ID: " + id);
+         }
+         return id;
+      }
+   }
+}
@@ -0,0 +1,260 @@
+/**
+ * PackedDate.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Static helpers for a compact encoding of a reservation date: the year,
+ * month, day of month, and hour of day (one of the hour picker values in
+ * DatePickerController) packed into a single int.  The bits are laid out,
+ * from most to least significant, as
+ * <pre>
+ *   0 | year (16 bits) | month (4 bits) | day (5 bits) | hour (5 bits) | unset
+ * </pre>
+ * so that comparing two packed dates shifted right by one bit orders them
+ * chronologically.  Months are zero-based like GregorianCalendar.MONTH.
+ *
+ * UNSET stands for a date the user never picked.  Its fields decode to
+ * January 1, 1970 at hour 0, which is what a cleared GregorianCalendar
+ * reports, so validation treats it exactly as it treated a cleared calendar.
+ */
+public final class PackedDate {
+   /** the bit that marks a packed date as unset */
+   private static final int UNSET_BIT = 1;
+
+   /** the position of the lowest bit of the hour of day */
+   private static final int HOUR_SHIFT = 1;
+
+   /** the position of the lowest bit of the day of month */
+   private static final int DAY_SHIFT = 6;
+
+   /** the position of the lowest bit of the month */
+   private static final int MONTH_SHIFT = 11;
+
+   /** the position of the lowest bit of the year */
+   private static final int YEAR_SHIFT = 15;
+
+   /** masks a five bit field */
+   private static final int FIVE_BITS = 0x1F;
+
+   /** masks a four bit field */
+   private static final int FOUR_BITS = 0xF;
+
+   /** the largest year that fits in the encoding */
+   public static final int MAX_ENCODABLE_YEAR = 0xFFFF;
+
+   /** the year reported by an unset date, as with a cleared calendar */
+   private static final int UNSET_YEAR = 1970;
+
+   /** the packed representation of a date that has not been set */
+   public static final int UNSET =
+      pack(UNSET_YEAR, GregorianCalendar.JANUARY, 1,
+           DatePickerController.ANYTIME_HOUR) | UNSET_BIT;
+
+   /**
+    * This class only contains static helpers and is not meant to be
+    * instantiated
+    */
+   private PackedDate() {
+   }
+
+   /**
+    * Packs a date.  The combination of fields must be a valid date, just as
+    * a non-lenient GregorianCalendar requires.
+    * @param year the year, e.g., 2011
+    * @param month the zero-based month, e.g., GregorianCalendar.JANUARY
+    * @param day the day of the month, starting at 1
+    * @param hour the hour of day, from 0 to 23
+    * @return the packed date
+    * @throws IllegalArgumentException if the fields do not form a valid date
+    */
+   public static int pack(int year, int month, int day, int hour) {
+      if (year < 1 || year > MAX_ENCODABLE_YEAR) {
+         throw new IllegalArgumentException("Invalid year: " + year);
+      }
+      if (month < GregorianCalendar.JANUARY
+          || month > GregorianCalendar.DECEMBER) {
+         throw new IllegalArgumentException("Invalid month: " + month);
+      }
+      if (day < 1 || day > CalendarTable.getDefault().getMonthLength(year, month)) {
+         throw new IllegalArgumentException("Invalid day: " + day);
+      }
+      if (hour < 0 || hour > 23) {
+         throw new IllegalArgumentException("Invalid hour: " + hour);
+      }
+      return (year << YEAR_SHIFT)
+             | (month << MONTH_SHIFT)
+             | (day << DAY_SHIFT)
+             | (hour << HOUR_SHIFT);
+   }
+
+   /**
+    * Determines whether an int read from outside the program, e.g., from a
+    * file, is a packed date that pack() could have produced, or UNSET
+    * @param date the int to check
+    * @return true if the int is UNSET or a valid packed date
+    */
+   public static boolean isValid(int date) {
+      if (date == UNSET) {
+         return true;
+      }
+      if (!isSet(date)) {
+         return false;
+      }
+      int year = getYear(date);
+      int month = getMonth(date);
+      return year >= 1
+             && year <= MAX_ENCODABLE_YEAR
+             && month <= GregorianCalendar.DECEMBER
+             && getDay(date) >= 1
+             && getDay(date)
+                <= CalendarTable.getDefault().getMonthLength(year, month)
+             && getHour(date) <= 23;
+   }
+
+   /**
+    * @param date a packed date
+    * @return true unless the date is UNSET
+    */
+   public static boolean isSet(int date) {
+      return (date & UNSET_BIT) == 0;
+   }
+
+   /**
+    * @param date a packed date
+    * @return the year
+    */
+   public static int getYear(int date) {
+      return date >>> YEAR_SHIFT;
+   }
+
+   /**
+    * @param date a packed date
+    * @return the zero-based month
+    */
+   public static int getMonth(int date) {
+      return (date >>> MONTH_SHIFT) & FOUR_BITS;
+   }
+
+   /**
+    * @param date a packed date
+    * @return the day of the month
+    */
+   public static int getDay(int date) {
+      return (date >>> DAY_SHIFT) & FIVE_BITS;
+   }
+
+   /**
+    * @param date a packed date
+    * @return the hour of day
+    */
+   public static int getHour(int date) {
+      return (date >>> HOUR_SHIFT) & FIVE_BITS;
+   }
+
+   /**
+    * @param date a packed date
+    * @param hour the new hour of day, from 0 to 23
+    * @return the same date with the hour of day replaced
+    */
+   public static int withHour(int date, int hour) {
+      return (date & ~(FIVE_BITS << HOUR_SHIFT)) | (hour << HOUR_SHIFT);
+   }
+
+   /**
+    * Compares two packed dates chronologically.  An UNSET date compares as
+    * January 1, 1970 at hour 0.
+    * @param date1 a packed date
+    * @param date2 another packed date
+    * @return a negative number, zero, or a positive number as date1 is
+    *         before, the same as, or after date2
+    */
+   public static int compare(int date1, int date2) {
+      return Integer.compare(date1 >>> HOUR_SHIFT, date2 >>> HOUR_SHIFT);
+   }
+
+   /**
+    * Converts a GregorianCalendar such as the ones produced by
+    * DatePickerController into a packed date
+    * @param calendar the date to convert
+    * @return the packed date, or UNSET if the year, month, or day of month
+    *         has not been set
+    */
+   public static int fromCalendar(GregorianCalendar calendar) {
+      if (!calendar.isSet(GregorianCalendar.YEAR)
+          || !calendar.isSet(GregorianCalendar.MONTH)
+          || !calendar.isSet(GregorianCalendar.DAY_OF_MONTH)) {
+         return UNSET;
+      }
+      return pack(calendar.get(GregorianCalendar.YEAR),
+                  calendar.get(GregorianCalendar.MONTH),
+                  calendar.get(GregorianCalendar.DAY_OF_MONTH),
+                  calendar.get(GregorianCalendar.HOUR_OF_DAY));
+   }
+
+   /**
+    * Converts a packed date into a new GregorianCalendar for callers that
+    * still need one
+    * @param date a packed date
+    * @return a non-lenient GregorianCalendar holding the date, or a cleared
+    *         one if the date is UNSET
+    */
+   public static GregorianCalendar toCalendar(int date) {
+      GregorianCalendar calendar = new GregorianCalendar();
+      calendar.clear();
+      calendar.setLenient(false);
+      if (isSet(date)) {
+         calendar.set(GregorianCalendar.YEAR, getYear(date));
+         calendar.set(GregorianCalendar.MONTH, getMonth(date));
+         calendar.set(GregorianCalendar.DAY_OF_MONTH, getDay(date));
+         calendar.set(GregorianCalendar.HOUR_OF_DAY, getHour(date));
+      }
+      return calendar;
+   }
+
+   /**
+    * Formats a packed date into something practical
+    * @param date a packed date
+    * @return a String such as "January 1, 2011 Morning"
+    */
+   public static String format(int date) {
+      StringBuilder text = new StringBuilder();
+      text.append(CalendarTable.getDefault().getMonthName(getMonth(date)))
+          .append(" ")
+          .append(getDay(date))
+          .append(", ")
+          .append(getYear(date))
+          .append(" ")
+          .append(getHourText(getHour(date)));
+      return text.toString();
+   }
+
+   /**
+    * @param hour an hour of day
+    * @return the "human-readable" name of the hour picker choice with the
+    *         given value, or "Unknown time" if there is none
+    */
+   public static String getHourText(int hour) {
+      switch (hour) {
+         case DatePickerController.ANYTIME_HOUR:
+            return DatePickerController.ANYTIME_TEXT;
+         case DatePickerController.MORNING_HOUR:
+            return DatePickerController.MORNING_TEXT;
+         case DatePickerController.NOON_HOUR:
+            return DatePickerController.NOON_TEXT;
+         case DatePickerController.EVENING_HOUR:
+            return DatePickerController.EVENING_TEXT;
+         case DatePickerController.LATENIGHT_HOUR:
+            return DatePickerController.LATENIGHT_TEXT;
+         default:
+            return "Unknown time";
+      }
+   }
+}
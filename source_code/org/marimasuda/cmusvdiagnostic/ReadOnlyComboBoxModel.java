@@ -0,0 +1,100 @@
+/**
+ * ReadOnlyComboBoxModel.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * A combo box model whose choices cannot be changed.  The choices are read
+ * on demand from an array of ComboBoxItems that is shared by every model
+ * offering the same kind of choice, so creating a model costs one small
+ * object no matter how many choices it offers.  Only the selection belongs
+ * to an individual model, which lets each combo box have its own selection
+ * while all of them share the same items.
+ */
+public class ReadOnlyComboBoxModel extends AbstractListModel<ComboBoxItem>
+      implements ComboBoxModel<ComboBoxItem> {
+   /** the version of the serialized form */
+   private static final long serialVersionUID = 1L;
+
+   /** the shared choices.  This array must never be modified. */
+   private final ComboBoxItem[] items;
+
+   /** how many of the shared choices this model offers */
+   private final int size;
+
+   /** the currently selected choice */
+   private Object selectedItem;
+
+   /**
+    * Creates a model offering all of the given choices with the first one
+    * selected
+    * @param items the shared choices, which must never be modified
+    */
+   public ReadOnlyComboBoxModel(ComboBoxItem[] items) {
+      this(items, items.length);
+   }
+
+   /**
+    * Creates a model offering the first size choices with the first one
+    * selected
+    * @param items the shared choices, which must never be modified
+    * @param size how many of the choices to offer
+    */
+   public ReadOnlyComboBoxModel(ComboBoxItem[] items, int size) {
+      if (size < 0 || size > items.length) {
+         throw new IllegalArgumentException("Invalid size: " + size);
+      }
+      this.items = items;
+      this.size = size;
+      this.selectedItem = (size > 0 ? items[0] : null);
+   }
+
+   /**
+    * @return the number of choices offered
+    */
+   @Override
+   public int getSize() {
+      return size;
+   }
+
+   /**
+    * @param index the position of the choice
+    * @return the choice at the given position, or null if there is none
+    */
+   @Override
+   public ComboBoxItem getElementAt(int index) {
+      if (index < 0 || index >= size) {
+         return null;
+      }
+      return items[index];
+   }
+
+   /**
+    * @return the currently selected choice
+    */
+   @Override
+   public Object getSelectedItem() {
+      return selectedItem;
+   }
+
+   /**
+    * Selects a choice and notifies the listeners if the selection changed
+    * @param item the choice to select
+    */
+   @Override
+   public void setSelectedItem(Object item) {
+      if ((selectedItem != null && !selectedItem.equals(item))
+          || (selectedItem == null && item != null)) {
+         selectedItem = item;
+         fireContentsChanged(this, -1, -1);
+      }
+   }
+}
@@ -0,0 +1,217 @@
+/**
+ * Reservation.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * An immutable snapshot of the details of a travel reservation.  Unlike a
+ * ReservationModel, a Reservation can be freely shared between threads,
+ * which makes it the unit of work for the ReservationValidator.  The
+ * cities are held as IDs in CityDictionary.getDefault(), so that millions
+ * of reservations naming the same cities share one copy of each name.
+ * Creating a Reservation from names never adds a city to the dictionary:
+ * the name of a city that has no ID yet is kept by the Reservation itself
+ * until intern() gives it one, when the reservation is to be kept.
+ */
+public final class Reservation implements ReservationData {
+   /** the ID of the city from which the user is departing */
+   private final int departureCityId;
+
+   /** the ID of the city to which the user is traveling */
+   private final int arrivalCityId;
+
+   /** the name of the departure city if it has no ID, or else null */
+   private final String departureCity;
+
+   /** the name of the arrival city if it has no ID, or else null */
+   private final String arrivalCity;
+
+   /** the departure date and hour of day (see PackedDate) */
+   private final int departureDate;
+
+   /** the return date and hour of day (see PackedDate) */
+   private final int returnDate;
+
+   /** the number of passengers */
+   private final int numPassengers;
+
+   /**
+    * Creates a new Reservation, looking up the IDs of the cities without
+    * assigning any (see CityDictionary.find())
+    * @param departureCity the trimmed name of the city from which the user
+    *                      is departing, or "" if it is blank
+    * @param arrivalCity the trimmed name of the city to which the user is
+    *                    traveling, or "" if it is blank
+    * @param departureDate the packed departure date (see PackedDate)
+    * @param returnDate the packed return date (see PackedDate)
+    * @param numPassengers the number of passengers
+    */
+   public Reservation(String departureCity,
+                      String arrivalCity,
+                      int departureDate,
+                      int returnDate,
+                      int numPassengers) {
+      CityDictionary cities = CityDictionary.getDefault();
+      departureCityId = cities.find(departureCity);
+      arrivalCityId = cities.find(arrivalCity);
+      this.departureCity = (departureCityId == CityDictionary.UNKNOWN_ID
+                            ? departureCity : null);
+      this.arrivalCity = (arrivalCityId == CityDictionary.UNKNOWN_ID
+                          ? arrivalCity : null);
+      this.departureDate = departureDate;
+      this.returnDate = returnDate;
+      this.numPassengers = numPassengers;
+   }
+
+   /**
+    * Creates a new Reservation from city IDs
+    * @param departureCityId the ID of the city from which the user is
+    *                        departing (see CityDictionary.getDefault())
+    * @param arrivalCityId the ID of the city to which the user is traveling
+    * @param departureDate the packed departure date (see PackedDate)
+    * @param returnDate the packed return date (see PackedDate)
+    * @param numPassengers the number of passengers
+    * @throws IllegalArgumentException if a city ID is unknown
+    */
+   public Reservation(int departureCityId,
+                      int arrivalCityId,
+                      int departureDate,
+                      int returnDate,
+                      int numPassengers) {
+      CityDictionary cities = CityDictionary.getDefault();
+      if (!cities.contains(departureCityId)
+          || !cities.contains(arrivalCityId)) {
+         throw new IllegalArgumentException(
+               "Unknown city ID: " + departureCityId + ", " + arrivalCityId);
+      }
+      this.departureCityId = departureCityId;
+      this.arrivalCityId = arrivalCityId;
+      departureCity = null;
+      arrivalCity = null;
+      this.departureDate = departureDate;
+      this.returnDate = returnDate;
+      this.numPassengers = numPassengers;
+   }
+
+   /**
+    * Gives the cities of a reservation that is to be kept, i.e., held,
+    * stored, or persisted, IDs in CityDictionary.getDefault()
+    * @param reservation the reservation
+    * @return the reservation itself if it is a Reservation whose cities
+    *         already have IDs, or else an equal Reservation whose cities
+    *         have IDs
+    */
+   public static Reservation intern(ReservationData reservation) {
+      if (reservation instanceof Reservation
+          && ((Reservation) reservation).isInterned()) {
+         return (Reservation) reservation;
+      }
+      return new Reservation(internDepartureCity(reservation),
+                             internArrivalCity(reservation),
+                             reservation.getDepartureDate(),
+                             reservation.getReturnDate(),
+                             reservation.getNumPassengers());
+   }
+
+   /**
+    * Gives the departure city of a reservation that is to be kept an ID in
+    * CityDictionary.getDefault() if it has none
+    * @param reservation the reservation
+    * @return the ID of the departure city
+    */
+   public static int internDepartureCity(ReservationData reservation) {
+      int id = reservation.getDepartureCityId();
+      return (id != CityDictionary.UNKNOWN_ID
+              ? id
+              : CityDictionary.getDefault().idOf(
+                     reservation.getDepartureCity()));
+   }
+
+   /**
+    * Gives the arrival city of a reservation that is to be kept an ID in
+    * CityDictionary.getDefault() if it has none
+    * @param reservation the reservation
+    * @return the ID of the arrival city
+    */
+   public static int internArrivalCity(ReservationData reservation) {
+      int id = reservation.getArrivalCityId();
+      return (id != CityDictionary.UNKNOWN_ID
+              ? id
+              : CityDictionary.getDefault().idOf(
+                     reservation.getArrivalCity()));
+   }
+
+   /**
+    * @return true if both cities have IDs in CityDictionary.getDefault()
+    */
+   public boolean isInterned() {
+      return departureCity == null && arrivalCity == null;
+   }
+
+   /**
+    * @return the name of the city from which the user will be departing
+    */
+   @Override
+   public String getDepartureCity() {
+      return (departureCity != null
+              ? departureCity
+              : CityDictionary.getDefault().nameOf(departureCityId));
+   }
+
+   /**
+    * @return the name of the city to which the user will be traveling
+    */
+   @Override
+   public String getArrivalCity() {
+      return (arrivalCity != null
+              ? arrivalCity
+              : CityDictionary.getDefault().nameOf(arrivalCityId));
+   }
+
+   /**
+    * @return the ID of the departure city in CityDictionary.getDefault(),
+    * or CityDictionary.UNKNOWN_ID if it has none
+    */
+   @Override
+   public int getDepartureCityId() {
+      return departureCityId;
+   }
+
+   /**
+    * @return the ID of the arrival city in CityDictionary.getDefault(), or
+    * CityDictionary.UNKNOWN_ID if it has none
+    */
+   @Override
+   public int getArrivalCityId() {
+      return arrivalCityId;
+   }
+
+   /**
+    * @return the packed departure date (see PackedDate)
+    */
+   @Override
+   public int getDepartureDate() {
+      return departureDate;
+   }
+
+   /**
+    * @return the packed return date (see PackedDate)
+    */
+   @Override
+   public int getReturnDate() {
+      return returnDate;
+   }
+
+   /**
+    * @return the number of passengers in the traveling party
+    */
+   @Override
+   public int getNumPassengers() {
+      return numPassengers;
+   }
+}
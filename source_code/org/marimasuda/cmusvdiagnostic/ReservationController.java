@@ -8,292 +8,293 @@
 
 package org.marimasuda.cmusvdiagnostic;
 
-import java.util.Calendar;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
-import java.util.Locale;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
-import javax.swing.DefaultComboBoxModel;
+import javax.swing.ComboBoxModel;
 
 /**
  * Contains business logic related to the values that are considered valid and 
  * translates GUI actions to model updates.
  */
 public class ReservationController {
-   /** defines the minimum acceptable date as given in the business rules */
-   private static final GregorianCalendar MIN_ACCEPTABLE_DATE = 
-      new GregorianCalendar(DatePickerController.MIN_YEAR, 
-            GregorianCalendar.JANUARY, 1, 0, 0, 0);
-
-   /** defines the maximum acceptable date as given in the business rules */
-   private static final GregorianCalendar MAX_ACCEPTABLE_DATE = 
-      new GregorianCalendar(DatePickerController.MAX_YEAR, 
-            GregorianCalendar.DECEMBER, 31, 23, 59, 59);
+   /** the validator that applies the business rules.  It holds no state,
+    * so one instance is shared by every controller.  Every validation is
+    * recorded into the default ValidationMetrics, which can be watched
+    * through JMX.
+    */
+   private static final ReservationValidator VALIDATOR = 
+      new ReservationValidator(ReservationValidator.getDefaultRules(),
+                               ValidationMode.FULL_REPORT,
+                               false,
+                               ValidationMetrics.getDefault());
 
-   /** defines the minimum acceptable number of passengers as given in the 
-    * business rules
+   /** the error message when a valid reservation cannot be booked because
+    * one of its flights does not have enough free seats
     */
-   private static final int MIN_PASSENGERS = 1;
+   static final String SEATS_UNAVAILABLE_ERROR =
+      "There are not enough seats available on the requested flights.";
 
-   /** defines the maximum acceptable number of passengers as given in the 
-    * business rules
+   /** the choices for the number of passengers, shared by every controller.
+    * This array must never be modified.
     */
-   private static final int MAX_PASSENGERS = 10;
+   private static final ComboBoxItem[] PASSENGER_ITEMS = 
+      new ComboBoxItem[ReservationValidator.MAX_PASSENGERS 
+                       - ReservationValidator.MIN_PASSENGERS + 1];
+
+   static {
+      for (int i = 0; i < PASSENGER_ITEMS.length; i++) {
+         PASSENGER_ITEMS[i] = 
+            ComboBoxItem.valueOf(ReservationValidator.MIN_PASSENGERS + i);
+      }
+   }
 
    /** underlying model that keeps track of the data
     */
    private ReservationModel model;
 
-   /** contains any error messages generated when the model is validated */
-   private StringBuilder errorMessages;
-   
-   /** contains the itinerary if no error messages are detected when the 
-    * model is validated
+   /** the seats that submitted reservations are booked from */
+   private SeatInventory seatInventory;
+
+   /** holds the seats of submitted reservations until they are confirmed */
+   private SeatHolds seatHolds;
+
+   /** the bookings confirmed through this controller are added here */
+   private ReservationStore reservationStore;
+
+   /** the totals per route of the bookings confirmed through this 
+    * controller
+    */
+   private RouteIndex routeIndex;
+
+   /** the hold placed by the most recent submission, or null if there is
+    * none.  It may have been confirmed or ended since.
+    */
+   private volatile SeatHolds.Hold currentHold;
+
+   /** re-runs only the checks affected by the fields that changed since 
+    * the previous validation.  Validations may run on a background thread,
+    * so it is only used while holding its lock.
+    */
+   private IncrementalValidator incrementalValidator;
+
+   /** the outcome of the most recent validation, or null if the model has
+    * not been validated yet
     */
-   private StringBuilder itinerary;
+   private volatile ValidationResult lastResult;
    
    /**
-    * Constructs a new model and initializes the error message and itinerary
+    * Constructs a new model and the validator that remembers its previous 
+    * validation
     */
    public ReservationController() {
       model = new ReservationModel();
-      errorMessages = new StringBuilder();
-      itinerary = new StringBuilder();
+      seatHolds = SeatHolds.getDefault();
+      seatInventory = SeatInventory.getDefault();
+      reservationStore = ReservationStore.getDefault();
+      routeIndex = RouteIndex.getDefault();
+      currentHold = null;
+      incrementalValidator = new IncrementalValidator(VALIDATOR);
+      lastResult = null;
    }
 
    /**
-    * Validates the contents of the model against the provided business rules.
+    * Validates the contents of the model against the provided business rules
+    * (see ReservationValidator).  Only the rules that read a field that 
+    * changed since the previous call are checked again, which makes this 
+    * cheap enough to call after every edit.
     * Basic business rules for validation to succeed:
     * 1. From: not blank
     * 2. To: not blank
     * 3. Departure date: combination of month/day/year must be a valid date
     * 4. Return date: combination of month/day/year must be a valid date
     * 5. Return date must be on or after the departure date
-    * 6. The years must be 2011-2012
+    * 6. The dates must be within the booking window, by default 2011-2012
+    *    (see BookingWindow)
     * 7. The number of passengers must be 1-10
     * @return true if all fields are valid or false if one or more fields 
     * is not valid
     */
    public boolean isValid() {
-      errorMessages.setLength(0);
-      itinerary.setLength(0);
-      validateDepartureCity(); // rule 1
-      validateArrivalCity();   // rule 2
-      validateNumPassengers(); // rule 7
-      validateDepartureDate(); // rule 3 and 6
-      validateReturnDate();    // rule 4 and 6
-      validateRelativeDates(); // rule 5
-      if (getErrorMessages().isEmpty()) {
-         return true;
-      } else {
-         return false;
-      }
+      return newValidation().get().isValid();
    }
-   
+
    /**
-    * Private helper function to ensure the departure city is not blank.  If 
-    * it is, an error message is generated.  If not, the itinerary is updated.
+    * Prepares a validation of the contents of the model, as isValid() 
+    * performs, that can be run on another thread.  The model is read right
+    * away, so this must be called on the thread that edits the model, but 
+    * the business rules are not checked until get() is called on the 
+    * returned task, which may happen on any thread.  Edits made in the 
+    * meantime are checked by the next validation.  Tasks must be run in 
+    * the order they were prepared, e.g., one at a time.
+    * @return a task that validates the model as it is now and returns the 
+    * outcome, which also becomes getLastResult()
     */
-   private void validateDepartureCity() {
-      if (model.getDepartureCity().isEmpty()) {
-         errorMessages.append("Departure city cannot be blank.\n");
-      } else {
-         itinerary.append("From: ")
-                  .append(model.getDepartureCity())
-                  .append("\n");
-      }
+   public Supplier<ValidationResult> newValidation() {
+      return newValidation(model.toReservation());
    }
-   
+
    /**
-    * Private helper function to ensure the arrival city is not blank.  If 
-    * it is, an error message is generated.  If not, the itinerary is updated.
+    * Prepares a submission of the contents of the model, which is a 
+    * validation, as newValidation() prepares, followed by holding one seat
+    * per passenger on both flights if the reservation is valid (see 
+    * SeatHolds).  The seats stay taken only if confirmBooking() is called
+    * before the hold expires.  Any unconfirmed hold from a previous 
+    * submission is released first.  The same threading rules as for 
+    * newValidation() apply.
+    * @return a task that validates and holds the model as it is now and 
+    * returns the outcome, which also becomes getLastResult().  If the 
+    * reservation is valid but the flights do not have enough free seats, 
+    * the outcome holds only SEATS_UNAVAILABLE_ERROR.
     */
-   private void validateArrivalCity() {
-      if (model.getArrivalCity().isEmpty()) {
-         errorMessages.append("Arrival city cannot be blank.\n");
-      } else {
-         itinerary.append("To: ")
-                  .append(model.getArrivalCity())
-                  .append("\n");
-      }
+   public Supplier<ValidationResult> newSubmission() {
+      final Reservation reservation = model.toReservation();
+      final Supplier<ValidationResult> validation = 
+         newValidation(reservation);
+      return new Supplier<ValidationResult>() {
+         @Override
+         public ValidationResult get() {
+            ValidationResult result = validation.get();
+            if (result.isValid()) {
+               releaseBooking();
+               currentHold = seatHolds.hold(reservation);
+               if (currentHold == null) {
+                  result = new ValidationResult(
+                        Collections.singletonList(SEATS_UNAVAILABLE_ERROR),
+                        EnumSet.noneOf(ValidationRule.class),
+                        "");
+                  lastResult = result;
+               }
+            }
+            return result;
+         }
+      };
    }
 
    /**
-    * Private helper function to ensure the number of passengers is valid.  If 
-    * not, an error message is generated.  If it is, the itinerary is updated.
+    * Books for good the seats held by the most recent submission, appends
+    * the reservation to the default ReservationLog, and adds it to the
+    * ReservationStore and the RouteIndex.  This waits for the log to be
+    * written to disk, so it should not be called on the event dispatch
+    * thread.
+    * @return true if the seats were booked, or false if there is no hold
+    * or it has already expired or been released
+    * @throws IOException if the reservation could not be logged, in which
+    *         case its seats are given back
     */
-   private void validateNumPassengers() {
-      if (!(model.getNumPassengers() >= MIN_PASSENGERS) 
-          &&
-          !(model.getNumPassengers() <= MAX_PASSENGERS)) {
-         errorMessages.append("Number of passengers must be between ")
-                      .append(MIN_PASSENGERS)
-                      .append(" and ")
-                      .append(MAX_PASSENGERS)
-                      .append(".\n");
-      } else {
-         itinerary.append("Number of passengers: ")
-                  .append(model.getNumPassengers())
-                  .append("\n");
+   public boolean confirmBooking() throws IOException {
+      SeatHolds.Hold hold = currentHold;
+      if (hold == null || !hold.confirm()) {
+         return false;
+      }
+      ReservationData reservation = hold.getReservation();
+      try {
+         ReservationLog.getDefault().append(reservation);
+      } catch (IOException ioe) {
+         seatInventory.release(reservation);
+         throw ioe;
       }
+      reservationStore.add(reservation);
+      routeIndex.add(reservation);
+      return true;
    }
 
    /**
-    * Private helper function to ensure the departure date is set and valid. If 
-    * not, an error message is generated.  If it is, the itinerary is updated.
+    * Books the seats of, and adds to the default ReservationStore and
+    * RouteIndex, every reservation recovered from the default
+    * ReservationLog.  It should be called once, when the program starts.
+    * A booking whose flights no longer have enough free seats, e.g.,
+    * because the number of seats per flight was lowered, is still restored,
+    * since it was confirmed, but it takes no seats.
+    * @return the restored bookings that took no seats because their
+    * flights were full, in the order they were logged
+    * @throws IOException if the log cannot be opened
     */
-   private void validateDepartureDate() {
-      if (!(model.getDepartureDate().compareTo(MIN_ACCEPTABLE_DATE) >= 0)
-          &&
-          !(model.getDepartureDate().compareTo(MAX_ACCEPTABLE_DATE) <= 0)) {
-         
-         errorMessages.append("Departure date must be between ")
-                      .append(formatDate(MIN_ACCEPTABLE_DATE))
-                      .append(" and ")
-                      .append(formatDate(MAX_ACCEPTABLE_DATE))
-                      .append(".\n");
-      } else {
-         itinerary.append("Departing: ")
-                  .append(formatDate(model.getDepartureDate()))
-                  .append("\n");
-      }
-      
-      if (!model.getDepartureDate().isSet(GregorianCalendar.YEAR) 
-          ||
-          !model.getDepartureDate().isSet(GregorianCalendar.MONTH)
-          ||
-          !model.getDepartureDate().isSet(GregorianCalendar.DAY_OF_MONTH)) {
-         
-         errorMessages.append("Departure date must be set.")
-                      .append("\n");
+   public static List<Reservation> restoreBookings() throws IOException {
+      List<Reservation> overbooked = new ArrayList<Reservation>();
+      for (Reservation reservation :
+              ReservationLog.getDefault().getRecoveredReservations()) {
+         if (!SeatInventory.getDefault().reserve(reservation)) {
+            overbooked.add(reservation);
+         }
+         ReservationStore.getDefault().add(reservation);
+         RouteIndex.getDefault().add(reservation);
       }
+      return overbooked;
    }
-   
+
    /**
-    * Private helper function to ensure the return date is set and valid. If 
-    * not, an error message is generated.  If it is, the itinerary is updated.
+    * Gives back the seats held by the most recent submission, if they 
+    * have not been confirmed
     */
-   private void validateReturnDate() {
-      if (!(model.getReturnDate().compareTo(MIN_ACCEPTABLE_DATE) >= 0) 
-          &&
-          !(model.getReturnDate().compareTo(MAX_ACCEPTABLE_DATE) <= 0)) {
-         
-         errorMessages.append("Return date must be between ")
-                      .append(formatDate(MIN_ACCEPTABLE_DATE))
-                      .append(" and ")
-                      .append(formatDate(MAX_ACCEPTABLE_DATE))
-                      .append(".\n");
-      } else {
-         itinerary.append("Returning: ")
-                  .append(formatDate(model.getReturnDate()))
-                  .append("\n");
-      }
-      
-      if (!model.getReturnDate().isSet(GregorianCalendar.YEAR) 
-          ||
-          !model.getReturnDate().isSet(GregorianCalendar.MONTH) 
-          ||
-          !model.getReturnDate().isSet(GregorianCalendar.DAY_OF_MONTH)) {
-         
-         errorMessages.append("Return date must be set.")
-                      .append("\n");
+   public void releaseBooking() {
+      SeatHolds.Hold hold = currentHold;
+      if (hold != null) {
+         hold.release();
       }
    }
-   
+
    /**
-    * Private helper function to ensure the departure date is on or before the 
-    * return date. If not, an error message is generated.  If it is, the 
-    * itinerary is updated.
+    * @return the seats that submitted reservations are booked from
     */
-   private void validateRelativeDates() {
-      // In this implementation, the value of the "any time" menu item 
-      // is 0, which represents the first hour of the day.  (In Java, 
-      // hours range from 0 to 23.)  Therefore, if the return date's 
-      // time is "any time" and the departure date's time is any choice 
-      // EXCEPT "any time", validation will fail if the rest 
-      // of the date (i.e., year/month/day) are the same.  For example, 
-      // if the departure date is "January 1, 2011 evening" and the 
-      // return date is "January 1, 2011 any time", logically this is 
-      // a valid combination because "any time" could include 
-      // "late night", which is after "evening", but in terms of pure 
-      // numbers, it would fail to validate because I have represented 
-      // "any time" as 0, "morning" as 7, "noon" as 12, "evening" as 17, 
-      // and "late night" as 21.  The below code checks for this 
-      // situation and makes sure that these date/time situations are 
-      // marked as valid.
-      
-      Calendar departureDateCopy = model.getDepartureDate();
-      Calendar returnDateCopy = model.getReturnDate();
+   public SeatInventory getSeatInventory() {
+      return seatInventory;
+   }
 
-      // if the departure date is on or before the return date, do nothing
-      // and return
-      if (departureDateCopy.compareTo(returnDateCopy) <= 0) {
-         return;
+   /**
+    * @return the store that confirmed bookings are added to
+    */
+   public ReservationStore getReservationStore() {
+      return reservationStore;
+   }
 
-      // otherwise...
-      } else {
-         // save the return date's hour of day
-         int returnHour = returnDateCopy.get(GregorianCalendar.HOUR_OF_DAY);
+   /**
+    * @return the totals per route of confirmed bookings
+    */
+   public RouteIndex getRouteIndex() {
+      return routeIndex;
+   }
 
-         // Ignore the hour of day for both the departure date and the 
-         // return date.
-         departureDateCopy.set(GregorianCalendar.HOUR_OF_DAY, 0);
-         returnDateCopy.set(GregorianCalendar.HOUR_OF_DAY, 0);
+   /**
+    * @return the holds placed on the seats of submitted reservations
+    */
+   public SeatHolds getSeatHolds() {
+      return seatHolds;
+   }
 
-         // Compare the modified departure and return dates to see if they 
-         // are the same and if they are, check the saved return hour to see
-         // if it represents "any time".  If it does, then do nothing and 
-         // return.
-         if (departureDateCopy.compareTo(returnDateCopy) == 0
-             &&
-             returnHour == DatePickerController.ANYTIME_HOUR) {
-            return;
-            
-         // Otherwise, we are in a situation where the return date is before 
-         // the departure date so we need to report the error.
-         } else {
-            errorMessages.append("Departure date/time must be on or before ")
-                         .append("return date/time.")
-                         .append("\n");
+   /**
+    * Private helper function to prepare a validation of a snapshot of the 
+    * model, clearing the model's dirty fields
+    */
+   private Supplier<ValidationResult> newValidation(
+         final Reservation reservation) {
+      final Set<ReservationField> changedFields = model.getDirtyFields();
+      model.clearDirtyFields();
+      return new Supplier<ValidationResult>() {
+         @Override
+         public ValidationResult get() {
+            synchronized (incrementalValidator) {
+               ValidationResult result = 
+                  incrementalValidator.validate(reservation, changedFields);
+               lastResult = result;
+               return result;
+            }
          }
-  
-      }      
+      };
    }
    
    /**
-    * Private helper function to format the date stored in a GregorianCalendar
-    * into something practical
+    * @return the outcome of the most recent validation, or null if the 
+    * model has not been validated yet
     */
-   private String formatDate(GregorianCalendar calendar) {
-      StringBuilder date = new StringBuilder();
-      date.append(calendar.getDisplayName(
-               GregorianCalendar.MONTH, 
-               GregorianCalendar.LONG, 
-               new Locale("US")))
-           .append(" ")
-           .append(calendar.get(GregorianCalendar.DAY_OF_MONTH))
-           .append(", ")
-           .append(calendar.get(GregorianCalendar.YEAR))
-           .append(" ");
-      switch (calendar.get(GregorianCalendar.HOUR_OF_DAY)) {
-         case DatePickerController.ANYTIME_HOUR:
-            date.append(DatePickerController.ANYTIME_TEXT);
-            break;
-         case DatePickerController.MORNING_HOUR:
-            date.append(DatePickerController.MORNING_TEXT);
-            break;
-         case DatePickerController.NOON_HOUR:
-            date.append(DatePickerController.NOON_TEXT);
-            break;
-         case DatePickerController.EVENING_HOUR:
-            date.append(DatePickerController.EVENING_TEXT);
-            break;
-         case DatePickerController.LATENIGHT_HOUR:
-            date.append(DatePickerController.LATENIGHT_TEXT);
-            break;
-         default:
-            date.append("Unknown time");
-      }
-      return date.toString();
+   public ValidationResult getLastResult() {
+      return lastResult;
    }
    
    /**
@@ -317,6 +318,14 @@ public class ReservationController {
     * @param departureDate is a GregorianCalendar
     */
    public void setDepartureDate(GregorianCalendar departureDate) {
+      model.setDepartureDate(PackedDate.fromCalendar(departureDate));
+   }
+   
+   /**
+    * wrapper to set the departure date
+    * @param departureDate is a packed date (see PackedDate)
+    */
+   public void setDepartureDate(int departureDate) {
       model.setDepartureDate(departureDate);
    }
    
@@ -325,6 +334,14 @@ public class ReservationController {
     * @param returnDate is a GregorianCalendar
     */
    public void setReturnDate(GregorianCalendar returnDate) {
+      model.setReturnDate(PackedDate.fromCalendar(returnDate));
+   }
+   
+   /**
+    * wrapper to set the return date
+    * @param returnDate is a packed date (see PackedDate)
+    */
+   public void setReturnDate(int returnDate) {
       model.setReturnDate(returnDate);
    }
    
@@ -341,7 +358,7 @@ public class ReservationController {
     * @return a String containing any error messages to be displayed to the user
     */
    public String getErrorMessages() {
-      return errorMessages.toString();
+      return (lastResult == null ? "" : lastResult.getErrorMessages());
    }
    
    /**
@@ -349,24 +366,23 @@ public class ReservationController {
     * @return a String containing the itinerary to be displayed to the user
     */
    public String getItinerary() {
-      return itinerary.toString();
+      return (lastResult == null ? "" : lastResult.getItinerary());
    }
    
    /**
-    * a DefaultComboBoxModel containing the acceptable values for the 
-    * number of passengers combo box
-    * @return a DefaultComboBoxModel representing the choices for the 
+    * a read-only model containing the acceptable values for the 
     * number of passengers combo box
+    * @return a ComboBoxModel representing the choices for the 
+    * number of passengers combo box, with the model's number of 
+    * passengers selected
     */
-   public DefaultComboBoxModel getPassengerModel() {
-      DefaultComboBoxModel dcbModel = new DefaultComboBoxModel();
-      for (Integer i = MIN_PASSENGERS; i <= MAX_PASSENGERS; i++) {
-         ComboBoxItem item = new ComboBoxItem(i, i.toString());
-         dcbModel.addElement(item);
-         if (model.getNumPassengers() == item.getValue()) {
-            dcbModel.setSelectedItem(item);
-         }
+   public ComboBoxModel<ComboBoxItem> getPassengerModel() {
+      ComboBoxModel<ComboBoxItem> cbModel =
+         new ReadOnlyComboBoxModel(PASSENGER_ITEMS);
+      int index = model.getNumPassengers() - ReservationValidator.MIN_PASSENGERS;
+      if (index >= 0 && index < PASSENGER_ITEMS.length) {
+         cbModel.setSelectedItem(PASSENGER_ITEMS[index]);
       }
-      return dcbModel;
+      return cbModel;
    }
 }
@@ -0,0 +1,61 @@
+/**
+ * ReservationData.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * Read-only access to the details of a travel reservation, which is all
+ * that the business rules need.  Reservation is the usual implementation,
+ * but a record can also be validated where it lies, e.g., in a memory-mapped
+ * file (see MappedReservationFile), without copying it into a Reservation
+ * first.  Cities are available both as names and as IDs in
+ * CityDictionary.getDefault(); comparing IDs is cheaper than comparing
+ * names.
+ */
+public interface ReservationData {
+   /**
+    * @return the name of the city from which the user will be departing,
+    *         or an empty String if it is blank
+    */
+   String getDepartureCity();
+
+   /**
+    * @return the name of the city to which the user will be traveling, or
+    *         an empty String if it is blank
+    */
+   String getArrivalCity();
+
+   /**
+    * @return the ID of the departure city in CityDictionary.getDefault(),
+    *         CityDictionary.BLANK_ID if it is blank, or
+    *         CityDictionary.UNKNOWN_ID if it has not been given an ID
+    */
+   int getDepartureCityId();
+
+   /**
+    * @return the ID of the arrival city in CityDictionary.getDefault(),
+    *         CityDictionary.BLANK_ID if it is blank, or
+    *         CityDictionary.UNKNOWN_ID if it has not been given an ID
+    */
+   int getArrivalCityId();
+
+   /**
+    * @return the packed departure date (see PackedDate)
+    */
+   int getDepartureDate();
+
+   /**
+    * @return the packed return date (see PackedDate)
+    */
+   int getReturnDate();
+
+   /**
+    * @return the number of passengers in the traveling party
+    */
+   int getNumPassengers();
+}
@@ -0,0 +1,31 @@
+/**
+ * ReservationField.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * Enumerates the fields of a reservation.  Used to keep track of which
+ * fields of a ReservationModel have changed and which fields each business
+ * rule depends on.
+ */
+public enum ReservationField {
+   /** the city from which the user is departing */
+   DEPARTURE_CITY,
+
+   /** the city to which the user is traveling */
+   ARRIVAL_CITY,
+
+   /** the departure date and hour of day */
+   DEPARTURE_DATE,
+
+   /** the return date and hour of day */
+   RETURN_DATE,
+
+   /** the number of passengers */
+   NUM_PASSENGERS
+}
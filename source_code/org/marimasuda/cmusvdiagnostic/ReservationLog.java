@@ -0,0 +1,558 @@
+/**
+ * ReservationLog.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only write-ahead log of booked reservations, so that they
+ * survive a restart.  append() returns only once its reservation is on
+ * disk, and opening a log recovers every reservation appended to it (see
+ * getRecoveredReservations()).
+ *
+ * Forcing a file to disk takes milliseconds, so rather than forcing once
+ * per reservation, the log commits in groups: appended records collect in
+ * a buffer, and one daemon thread writes out everything collected so far,
+ * forces it to disk with a single FileChannel.force(), and then wakes every
+ * append() that was waiting for it.  The reservations appended while a
+ * force is in progress make up the next group, so the busier the log, the
+ * more reservations share each force.  getCommitLatencies() reports how
+ * long append() waited.
+ *
+ * The file starts with MAGIC and VERSION (4 and 2 bytes) and 2 reserved
+ * bytes, followed by entries.  Every value is big-endian.  Each entry is
+ * <pre>
+ * offset  size  contents
+ *      0     4  n, the number of bytes that follow the checksum
+ *      4     4  the CRC-32C of those n bytes
+ *      8     1  CITY_ENTRY or RESERVATION_ENTRY
+ *      9 n - 1  the contents of the entry
+ * </pre>
+ * A city entry holds a 4-byte city ID, numbered from 0 in the order the
+ * cities first appear in the log, and the name as a 2-byte length and that
+ * many bytes of UTF-8.  A reservation entry is a record as described by
+ * BinaryReservationFormat, with cities given by their ID in the log; a
+ * city's entry always comes before the first reservation that uses it.
+ * If the program stops partway through an append, the entry left at the
+ * end of the log is incomplete or fails its checksum; opening the log
+ * discards it, since it was never reported as committed.
+ */
+public class ReservationLog implements Closeable {
+   /** the system property that names the file of the default log */
+   public static final String LOG_FILE_PROPERTY =
+      "cmusvdiagnostic.reservationLog";
+
+   /** the file of the default log if the property is not set */
+   private static final String DEFAULT_LOG_FILE = "reservations.log";
+
+   /** identifies the file format: "CMWL" in ASCII */
+   public static final int MAGIC = 0x434D574C;
+
+   /** the version of the format described here */
+   public static final short VERSION = 1;
+
+   /** the size of the file header in bytes */
+   private static final int HEADER_SIZE = 8;
+
+   /** the size of the length and checksum of an entry in bytes */
+   private static final int ENTRY_HEADER_SIZE = 8;
+
+   /** the type of an entry that names a city */
+   static final byte CITY_ENTRY = 1;
+
+   /** the type of an entry that holds a reservation */
+   static final byte RESERVATION_ENTRY = 2;
+
+   /** the size of the largest entry, a city entry with the longest name */
+   private static final int MAX_ENTRY_SIZE =
+      1 + 4 + 2 + BinaryReservationFormat.MAX_CITY_BYTES;
+
+   /** the initial size of the buffers that appended entries collect in */
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   /** the log shared by the whole program, opened when first needed */
+   private static ReservationLog defaultLog;
+
+   /** the file */
+   private final FileChannel channel;
+
+   /** the reservations in the file when it was opened */
+   private final List<Reservation> recovered;
+
+   /** the number of bytes of incomplete or corrupt data that were cut
+    * from the file when it was opened
+    */
+   private long discardedBytes;
+
+   /** collects the entries appended since the last group was taken by
+    * the writer.  Guarded by this.
+    */
+   private ByteBuffer filling;
+
+   /** holds the group being written by the writer */
+   private ByteBuffer writing;
+
+   /** one more than the ID within the log of every city written so far,
+    * indexed by its ID in CityDictionary.getDefault(), or 0 if the city
+    * has not been written yet.  Guarded by this.
+    */
+   private int[] logCityIds;
+
+   /** the number of cities written so far.  Guarded by this. */
+   private int cityCount;
+
+   /** the number of reservations appended.  Guarded by this. */
+   private long appendCount;
+
+   /** the number of appended reservations that are on disk.  Guarded by
+    * this.
+    */
+   private long committedCount;
+
+   /** the number of groups forced to disk.  Guarded by this. */
+   private long groupCount;
+
+   /** the error that stopped the writer, or null.  Guarded by this. */
+   private IOException failure;
+
+   /** true once close() has been called.  Guarded by this. */
+   private boolean closed;
+
+   /** how long each append() waited for its reservation to be on disk */
+   private final LatencyHistogram commitLatencies;
+
+   /** writes and forces the groups */
+   private final Thread writer;
+
+   /** computes the checksums of appended entries.  Guarded by this. */
+   private final CRC32C checksum;
+
+   /**
+    * Opens a log, creating it if it does not exist, and recovers the
+    * reservations in it
+    * @param file the log file
+    * @throws IOException if the file cannot be read or written, or is not
+    *         a reservation log
+    */
+   public ReservationLog(Path file) throws IOException {
+      channel = FileChannel.open(file,
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE);
+      filling = ByteBuffer.allocate(BUFFER_SIZE);
+      writing = ByteBuffer.allocate(BUFFER_SIZE);
+      logCityIds = new int[CityDictionary.getDefault().size()];
+      cityCount = 0;
+      checksum = new CRC32C();
+      commitLatencies = new LatencyHistogram();
+      List<Reservation> reservations = new ArrayList<Reservation>();
+      try {
+         if (channel.size() < HEADER_SIZE) {
+            writeHeader();
+         } else {
+            recover(reservations);
+         }
+      } catch (IOException ioe) {
+         channel.close();
+         throw ioe;
+      }
+      recovered = Collections.unmodifiableList(reservations);
+      writer = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            writeGroups();
+         }
+      }, "Reservation log writer");
+      writer.setDaemon(true);
+      writer.start();
+   }
+
+   /**
+    * @return the log shared by the whole program, whose file is named by
+    * LOG_FILE_PROPERTY.  It is opened by the first call.
+    * @throws IOException if the log cannot be opened
+    */
+   public static synchronized ReservationLog getDefault() throws IOException {
+      if (defaultLog == null) {
+         defaultLog = new ReservationLog(Paths.get(
+               System.getProperty(LOG_FILE_PROPERTY, DEFAULT_LOG_FILE)));
+      }
+      return defaultLog;
+   }
+
+   /**
+    * @return the reservations that were in the log when it was opened, in
+    * the order they were appended
+    */
+   public List<Reservation> getRecoveredReservations() {
+      return recovered;
+   }
+
+   /**
+    * @return the number of bytes that were cut from the file when it was
+    * opened: a header left incomplete by a crash while the log was being
+    * created, or incomplete or corrupt entries at the end.  0 if the log
+    * was intact.
+    */
+   public long getDiscardedBytes() {
+      return discardedBytes;
+   }
+
+   /**
+    * Appends a reservation to the log and waits until it is on disk.  Many
+    * threads may append at once; their reservations are forced to disk
+    * together.
+    * @param reservation the reservation
+    * @throws IOException if the log is closed or could not be written, in
+    *         which case the reservation may not be on disk
+    * @throws IllegalArgumentException if the number of passengers does not
+    *         fit in a byte or a city name is too long
+    */
+   public void append(ReservationData reservation) throws IOException {
+      int numPassengers = reservation.getNumPassengers();
+      if (numPassengers < Byte.MIN_VALUE || numPassengers > Byte.MAX_VALUE) {
+         throw new IllegalArgumentException(
+               "Invalid number of passengers: " + numPassengers);
+      }
+      long start = System.nanoTime();
+      synchronized (this) {
+         checkOpen();
+         int departureCity =
+            getCityId(Reservation.internDepartureCity(reservation));
+         int arrivalCity =
+            getCityId(Reservation.internArrivalCity(reservation));
+         int begin = startEntry(1 + BinaryReservationFormat.RECORD_SIZE);
+         filling.put(RESERVATION_ENTRY)
+                .putInt(departureCity)
+                .putInt(arrivalCity)
+                .putInt(reservation.getDepartureDate())
+                .putInt(reservation.getReturnDate())
+                .put((byte) numPassengers);
+         endEntry(begin);
+         long sequence = ++appendCount;
+         notifyAll();
+         try {
+            while (committedCount < sequence && failure == null) {
+               wait();
+            }
+         } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                  "Interrupted while waiting for the reservation log");
+         }
+         if (committedCount < sequence) {
+            throw new IOException("The reservation log could not be written",
+                                  failure);
+         }
+      }
+      commitLatencies.record(System.nanoTime() - start);
+   }
+
+   /**
+    * @return how long each append() waited for its reservation to be on
+    * disk
+    */
+   public LatencyHistogram getCommitLatencies() {
+      return commitLatencies;
+   }
+
+   /**
+    * @return the number of reservations appended since the log was opened
+    */
+   public synchronized long getAppendCount() {
+      return appendCount;
+   }
+
+   /**
+    * @return the number of groups of reservations forced to disk since the
+    * log was opened.  Each group took one FileChannel.force().
+    */
+   public synchronized long getGroupCount() {
+      return groupCount;
+   }
+
+   /**
+    * @return a one-line summary such as
+    * "appends=100 groups=12 commit: count=100 mean=..."
+    */
+   @Override
+   public String toString() {
+      return "appends=" + getAppendCount()
+             + " groups=" + getGroupCount()
+             + " commit: " + commitLatencies;
+   }
+
+   /**
+    * Waits for the reservations already appended to be on disk and closes
+    * the file
+    * @throws IOException if the file cannot be written or closed
+    */
+   @Override
+   public void close() throws IOException {
+      synchronized (this) {
+         closed = true;
+         notifyAll();
+      }
+      try {
+         writer.join();
+      } catch (InterruptedException ie) {
+         Thread.currentThread().interrupt();
+      }
+      channel.close();
+      synchronized (this) {
+         if (failure != null) {
+            throw failure;
+         }
+      }
+   }
+
+   /**
+    * Private helper function run by the writer thread: takes each group
+    * of appended entries, writes it, and forces it to disk
+    */
+   private void writeGroups() {
+      while (true) {
+         long groupEnd;
+         synchronized (this) {
+            try {
+               while (appendCount == committedCount && !closed) {
+                  wait();
+               }
+            } catch (InterruptedException ie) {
+               return;
+            }
+            if (appendCount == committedCount) {
+               return;
+            }
+            ByteBuffer group = filling;
+            filling = writing;
+            writing = group;
+            groupEnd = appendCount;
+         }
+         try {
+            writing.flip();
+            while (writing.hasRemaining()) {
+               channel.write(writing);
+            }
+            channel.force(false);
+            writing.clear();
+         } catch (IOException ioe) {
+            synchronized (this) {
+               failure = ioe;
+               notifyAll();
+            }
+            return;
+         }
+         synchronized (this) {
+            committedCount = groupEnd;
+            groupCount++;
+            notifyAll();
+         }
+      }
+   }
+
+   /**
+    * Private helper function to fail an append if the log cannot take it
+    */
+   private void checkOpen() throws IOException {
+      if (failure != null) {
+         throw new IOException("The reservation log could not be written",
+                               failure);
+      }
+      if (closed) {
+         throw new IOException("The reservation log is closed");
+      }
+   }
+
+   /**
+    * Private helper function to look up the ID within the log of a city,
+    * appending an entry for it if it is new
+    */
+   private int getCityId(int dictionaryId) {
+      if (dictionaryId >= logCityIds.length) {
+         logCityIds = Arrays.copyOf(
+               logCityIds,
+               Math.max(dictionaryId + 1, logCityIds.length * 2));
+      }
+      int id = logCityIds[dictionaryId] - 1;
+      if (id < 0) {
+         String city = CityDictionary.getDefault().nameOf(dictionaryId);
+         byte[] name = city.getBytes(StandardCharsets.UTF_8);
+         if (name.length > BinaryReservationFormat.MAX_CITY_BYTES) {
+            throw new IllegalArgumentException("City name too long: " + city);
+         }
+         id = cityCount++;
+         logCityIds[dictionaryId] = id + 1;
+         int begin = startEntry(1 + 4 + 2 + name.length);
+         filling.put(CITY_ENTRY)
+                .putInt(id)
+                .putShort((short) name.length)
+                .put(name);
+         endEntry(begin);
+      }
+      return id;
+   }
+
+   /**
+    * Private helper function to make room for an entry in the filling
+    * buffer and skip its length and checksum, which endEntry() fills in
+    * @return the position of the entry
+    */
+   private int startEntry(int size) {
+      if (filling.remaining() < ENTRY_HEADER_SIZE + size) {
+         ByteBuffer larger = ByteBuffer.allocate(
+               Math.max(filling.capacity() * 2,
+                        filling.position() + ENTRY_HEADER_SIZE + size));
+         filling.flip();
+         larger.put(filling);
+         filling = larger;
+      }
+      int begin = filling.position();
+      filling.position(begin + ENTRY_HEADER_SIZE);
+      return begin;
+   }
+
+   /**
+    * Private helper function to fill in the length and checksum of the
+    * entry that starts at a position of the filling buffer
+    */
+   private void endEntry(int begin) {
+      int length = filling.position() - begin - ENTRY_HEADER_SIZE;
+      checksum.reset();
+      checksum.update(filling.array(),
+                      filling.arrayOffset() + begin + ENTRY_HEADER_SIZE,
+                      length);
+      filling.putInt(begin, length);
+      filling.putInt(begin + 4, (int) checksum.getValue());
+   }
+
+   /**
+    * Private helper function to start an empty log, discarding the part of
+    * a header left by a crash while the log was being created
+    */
+   private void writeHeader() throws IOException {
+      long size = channel.size();
+      if (size > 0) {
+         discardedBytes = size;
+         channel.truncate(0);
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+      header.flip();
+      channel.position(0);
+      while (header.hasRemaining()) {
+         channel.write(header);
+      }
+      channel.force(true);
+   }
+
+   /**
+    * Private helper function to read the entries in the file, which holds
+    * at least a header, discard any incomplete or corrupt entry at the end,
+    * and leave the file positioned for appending
+    */
+   private void recover(List<Reservation> reservations) throws IOException {
+      long size = channel.size();
+      MappedByteBuffer map =
+         channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (map.getInt(0) != MAGIC) {
+         throw new IOException("Not a reservation log: bad magic number");
+      }
+      if (map.getShort(4) != VERSION) {
+         throw new IOException("Unsupported reservation log version: "
+                               + map.getShort(4));
+      }
+      List<String> cities = new ArrayList<String>();
+      CRC32C crc = new CRC32C();
+      byte[] entry = new byte[MAX_ENTRY_SIZE];
+      int position = HEADER_SIZE;
+      while (position + ENTRY_HEADER_SIZE <= size) {
+         int length = map.getInt(position);
+         if (length < 1 || length > MAX_ENTRY_SIZE
+             || position + ENTRY_HEADER_SIZE + length > size) {
+            break;
+         }
+         map.position(position + ENTRY_HEADER_SIZE);
+         map.get(entry, 0, length);
+         crc.reset();
+         crc.update(entry, 0, length);
+         if ((int) crc.getValue() != map.getInt(position + 4)
+             || !readEntry(ByteBuffer.wrap(entry, 0, length), cities,
+                           reservations)) {
+            break;
+         }
+         position += ENTRY_HEADER_SIZE + length;
+      }
+      if (position < size) {
+         discardedBytes = size - position;
+         channel.truncate(position);
+         channel.force(true);
+      }
+      channel.position(position);
+   }
+
+   /**
+    * Private helper function to apply one entry read from the file
+    * @return false if the entry is not well formed
+    */
+   private boolean readEntry(ByteBuffer entry, List<String> cities,
+                             List<Reservation> reservations) {
+      byte type = entry.get();
+      if (type == CITY_ENTRY
+          && entry.remaining() >= 4 + 2) {
+         int id = entry.getInt();
+         int nameLength = entry.getShort() & 0xFFFF;
+         if (id != cities.size() || entry.remaining() != nameLength) {
+            return false;
+         }
+         String city = new String(entry.array(), entry.position(),
+                                  nameLength, StandardCharsets.UTF_8);
+         int dictionaryId = CityDictionary.getDefault().idOf(city);
+         if (dictionaryId >= logCityIds.length) {
+            logCityIds = Arrays.copyOf(
+                  logCityIds,
+                  Math.max(dictionaryId + 1, logCityIds.length * 2));
+         }
+         logCityIds[dictionaryId] = id + 1;
+         cities.add(city);
+         cityCount = cities.size();
+         return true;
+      }
+      if (type == RESERVATION_ENTRY
+          && entry.remaining() == BinaryReservationFormat.RECORD_SIZE) {
+         int departureCity = entry.getInt();
+         int arrivalCity = entry.getInt();
+         if (departureCity < 0 || departureCity >= cities.size()
+             || arrivalCity < 0 || arrivalCity >= cities.size()) {
+            return false;
+         }
+         reservations.add(new Reservation(cities.get(departureCity),
+                                          cities.get(arrivalCity),
+                                          entry.getInt(),
+                                          entry.getInt(),
+                                          entry.get()));
+         return true;
+      }
+      return false;
+   }
+}
@@ -8,28 +8,40 @@
 
 package org.marimasuda.cmusvdiagnostic;
 
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
+import java.util.Set;
 
 /**
  * a model that keeps track of the details of a travel reservation, including 
  * the departure and arrival cities, departure and return dates, and the 
- * number of passengers
+ * number of passengers.  The model also remembers which fields have changed
+ * since clearDirtyFields() was last called, so that only the business rules 
+ * that read those fields need to be checked again.
  */
 public class ReservationModel {
-   /** the city from which the user is departing, e.g., San Francisco */
+   /** the trimmed name of the city from which the user is departing, 
+    * e.g., San Francisco.  It is only given a CityDictionary ID once the 
+    * reservation is kept (see Reservation.intern()).
+    */
    private String departureCity;
 
-   /** the city to which the user is traveling, e.g., Boston */
+   /** the trimmed name of the city to which the user is traveling, e.g., 
+    * Boston
+    */
    private String arrivalCity;
 
-   /** a GregorianCalendar containing the details of the departure date */
-   private GregorianCalendar departureDate;
+   /** the departure date and hour of day (see PackedDate) */
+   private int departureDate;
 
-   /** a GregorianCalendar containing the details of the return date */
-   private GregorianCalendar returnDate;
+   /** the return date and hour of day (see PackedDate) */
+   private int returnDate;
 
    /** the number of passengers */
    private int numPassengers;
+
+   /** the fields that have changed since clearDirtyFields() was called */
+   private EnumSet<ReservationField> dirtyFields;
    
    /**
     * Constructs a new ReservationModel and initializes the departure and arrival
@@ -39,13 +51,10 @@ public class ReservationModel {
    public ReservationModel() {
       departureCity = "";
       arrivalCity = "";
-      departureDate = new GregorianCalendar();
-      departureDate.clear();
-      departureDate.setLenient(false);
-      returnDate = new GregorianCalendar();
-      returnDate.clear();
-      returnDate.setLenient(false);
+      departureDate = PackedDate.UNSET;
+      returnDate = PackedDate.UNSET;
       numPassengers = 1;
+      dirtyFields = EnumSet.allOf(ReservationField.class);
    }
    
    /**
@@ -56,10 +65,22 @@ public class ReservationModel {
    }
 
    /**
-    * @param the name of the city from which the user will be departing
+    * @return the ID of the city from which the user will be departing (see
+    * CityDictionary), or CityDictionary.UNKNOWN_ID if it has none
+    */
+   public int getDepartureCityId() {
+      return CityDictionary.getDefault().find(departureCity);
+   }
+
+   /**
+    * @param the trimmed name of the city from which the user will be 
+    * departing
     */
    public void setDepartureCity(String departureCity) {
-      this.departureCity = departureCity;
+      if (!departureCity.equals(this.departureCity)) {
+         this.departureCity = departureCity;
+         dirtyFields.add(ReservationField.DEPARTURE_CITY);
+      }
    }
 
    /**
@@ -70,38 +91,72 @@ public class ReservationModel {
    }
 
    /**
-    * @param the name of the city to which the user will be traveling
+    * @return the ID of the city to which the user will be traveling (see
+    * CityDictionary), or CityDictionary.UNKNOWN_ID if it has none
+    */
+   public int getArrivalCityId() {
+      return CityDictionary.getDefault().find(arrivalCity);
+   }
+
+   /**
+    * @param the trimmed name of the city to which the user will be 
+    * traveling
     */
    public void setArrivalCity(String arrivalCity) {
-      this.arrivalCity = arrivalCity;
+      if (!arrivalCity.equals(this.arrivalCity)) {
+         this.arrivalCity = arrivalCity;
+         dirtyFields.add(ReservationField.ARRIVAL_CITY);
+      }
    }
 
    /**
-    * @return a copy of the details of the departure date
+    * @return the packed departure date (see PackedDate)
     */
-   public GregorianCalendar getDepartureDate() {
-      return (GregorianCalendar) departureDate.clone();
+   public int getDepartureDate() {
+      return departureDate;
    }
 
    /**
-    * @param the details of the departure date
+    * @param the packed departure date (see PackedDate)
     */
-   public void setDepartureDate(GregorianCalendar departureDate) {
-      this.departureDate = departureDate;
+   public void setDepartureDate(int departureDate) {
+      if (departureDate != this.departureDate) {
+         this.departureDate = departureDate;
+         dirtyFields.add(ReservationField.DEPARTURE_DATE);
+      }
    }
 
    /**
-    * @return a copy of the details of the return date
+    * @return a new GregorianCalendar holding the departure date, for callers
+    * that still need one
     */
-   public GregorianCalendar getReturnDate() {
-      return (GregorianCalendar) returnDate.clone();
+   public GregorianCalendar getDepartureCalendar() {
+      return PackedDate.toCalendar(departureDate);
    }
 
    /**
-    * @param the details of the return date
+    * @return the packed return date (see PackedDate)
     */
-   public void setReturnDate(GregorianCalendar returnDate) {
-      this.returnDate = returnDate;
+   public int getReturnDate() {
+      return returnDate;
+   }
+
+   /**
+    * @param the packed return date (see PackedDate)
+    */
+   public void setReturnDate(int returnDate) {
+      if (returnDate != this.returnDate) {
+         this.returnDate = returnDate;
+         dirtyFields.add(ReservationField.RETURN_DATE);
+      }
+   }
+
+   /**
+    * @return a new GregorianCalendar holding the return date, for callers
+    * that still need one
+    */
+   public GregorianCalendar getReturnCalendar() {
+      return PackedDate.toCalendar(returnDate);
    }
 
    /**
@@ -115,6 +170,47 @@ public class ReservationModel {
     * @param the number of passengers in the traveling party
     */
    public void setNumPassengers(int numPassengers) {
-      this.numPassengers = numPassengers;
+      if (numPassengers != this.numPassengers) {
+         this.numPassengers = numPassengers;
+         dirtyFields.add(ReservationField.NUM_PASSENGERS);
+      }
+   }
+
+   /**
+    * creates an immutable snapshot of the current state of this model that
+    * can safely be handed to other threads
+    * @return a new Reservation holding the values currently in the model
+    */
+   public Reservation toReservation() {
+      return new Reservation(departureCity,
+                             arrivalCity,
+                             departureDate,
+                             returnDate,
+                             numPassengers);
+   }
+
+   /**
+    * @return a copy of the set of fields that have changed since 
+    * clearDirtyFields() was last called.  Every field counts as changed 
+    * until clearDirtyFields() is called for the first time.
+    */
+   public Set<ReservationField> getDirtyFields() {
+      return EnumSet.copyOf(dirtyFields);
+   }
+
+   /**
+    * @param field the field of interest
+    * @return true if the field has changed since clearDirtyFields() was 
+    * last called
+    */
+   public boolean isDirty(ReservationField field) {
+      return dirtyFields.contains(field);
+   }
+
+   /**
+    * marks every field as unchanged, e.g., after the model has been validated
+    */
+   public void clearDirtyFields() {
+      dirtyFields.clear();
    }
 }
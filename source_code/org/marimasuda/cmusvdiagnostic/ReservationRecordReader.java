@@ -0,0 +1,175 @@
+/**
+ * ReservationRecordReader.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads stored reservations from a text stream, one reservation per line.
+ * Each line contains five tab-separated fields:
+ * <pre>
+ * departure city, arrival city, departure date, return date, passengers
+ * </pre>
+ * Dates are written as "yyyy-MM-dd HH" where HH is one of the hour of day
+ * values used by the hour picker combo box (see DatePickerController), e.g.,
+ * "2011-03-14 07".  An empty date field represents a date that was never
+ * set.  Blank lines and lines starting with '#' are skipped.
+ */
+public class ReservationRecordReader implements Closeable {
+   /** the character used to separate fields within a record */
+   public static final char FIELD_SEPARATOR = '\t';
+
+   /** the character that marks a line as a comment */
+   public static final char COMMENT_MARKER = '#';
+
+   /** the number of fields in every record */
+   private static final int NUM_FIELDS = 5;
+
+   /** the underlying source of text */
+   private BufferedReader in;
+
+   /** the number of the line most recently read, starting at 1 */
+   private long lineNumber;
+
+   /**
+    * Creates a new reader for the given text stream
+    * @param in the stream containing the reservation records
+    */
+   public ReservationRecordReader(Reader in) {
+      this.in = (in instanceof BufferedReader
+                 ? (BufferedReader) in
+                 : new BufferedReader(in));
+      lineNumber = 0;
+   }
+
+   /**
+    * Reads the next record from the stream
+    * @return the next reservation, or null if the end of the stream has
+    *         been reached
+    * @throws IOException if the stream cannot be read
+    * @throws IllegalArgumentException if the record is malformed
+    */
+   public Reservation readNext() throws IOException {
+      String line = readNextLine();
+      return (line == null ? null : parseRecord(line));
+   }
+
+   /**
+    * Reads the next record from the stream without parsing it, skipping
+    * blank lines and comments, so that it can be parsed later, e.g., on
+    * another thread, with parseRecord()
+    * @return the line containing the next record, or null if the end of
+    *         the stream has been reached
+    * @throws IOException if the stream cannot be read
+    */
+   public String readNextLine() throws IOException {
+      String line;
+      do {
+         line = in.readLine();
+         if (line == null) {
+            return null;
+         }
+         lineNumber++;
+      } while (line.trim().isEmpty() || line.charAt(0) == COMMENT_MARKER);
+      return line;
+   }
+
+   /**
+    * @return the number of the line most recently read, starting at 1
+    */
+   public long getLineNumber() {
+      return lineNumber;
+   }
+
+   /**
+    * Parses a single record
+    * @param line a line of text containing the five tab-separated fields
+    * @return a new Reservation holding the values in the record
+    * @throws IllegalArgumentException if the record is malformed
+    */
+   public static Reservation parseRecord(String line) {
+      String[] fields = line.split(String.valueOf(FIELD_SEPARATOR), -1);
+      if (fields.length != NUM_FIELDS) {
+         throw new IllegalArgumentException(
+               "Expected " + NUM_FIELDS + " fields but found " + fields.length);
+      }
+      int numPassengers;
+      try {
+         numPassengers = Integer.parseInt(fields[4].trim());
+      } catch (NumberFormatException nfe) {
+         throw new IllegalArgumentException(
+               "Invalid number of passengers: " + fields[4], nfe);
+      }
+      return new Reservation(fields[0].trim(),
+                             fields[1].trim(),
+                             parseDate(fields[2].trim()),
+                             parseDate(fields[3].trim()),
+                             numPassengers);
+   }
+
+   /**
+    * Parses a date written as "yyyy-MM-dd HH"
+    * @param text the date to parse, or an empty String for an unset date
+    * @return the packed date (see PackedDate), or PackedDate.UNSET if the
+    *         text is empty
+    * @throws IllegalArgumentException if the date is malformed or invalid
+    */
+   public static int parseDate(String text) {
+      if (text.isEmpty()) {
+         return PackedDate.UNSET;
+      }
+      if (text.length() != 13
+          || text.charAt(4) != '-'
+          || text.charAt(7) != '-'
+          || text.charAt(10) != ' ') {
+         throw new IllegalArgumentException("Invalid date: " + text);
+      }
+      try {
+         return PackedDate.pack(parseDigits(text, 0, 4),
+                                parseDigits(text, 5, 7) - 1,
+                                parseDigits(text, 8, 10),
+                                parseDigits(text, 11, 13));
+      } catch (IllegalArgumentException iae) {
+         throw new IllegalArgumentException("Invalid date: " + text, iae);
+      }
+   }
+
+   /**
+    * Private helper function to parse a run of decimal digits without
+    * creating a substring
+    * @param text the text containing the digits
+    * @param start the index of the first digit
+    * @param end the index after the last digit
+    * @return the value of the digits
+    * @throws IllegalArgumentException if a character is not a digit
+    */
+   private static int parseDigits(String text, int start, int end) {
+      int value = 0;
+      for (int i = start; i < end; i++) {
+         char c = text.charAt(i);
+         if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Not a digit: " + c);
+         }
+         value = value * 10 + (c - '0');
+      }
+      return value;
+   }
+
+   /**
+    * Closes the underlying stream
+    * @throws IOException if the stream cannot be closed
+    */
+   @Override
+   public void close() throws IOException {
+      in.close();
+   }
+}
@@ -0,0 +1,43 @@
+/**
+ * ReservationRule.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One step of the validation pipeline run by ReservationValidator.  A rule
+ * examines some of the fields of a reservation and either reports errors or
+ * contributes lines to the itinerary.  The standard business rules are the
+ * constants of RuleCheck, but any implementation may be put into a
+ * pipeline.
+ *
+ * A rule must hold no state that changes during validation, since one
+ * pipeline may be used by many threads at once.  Its output must depend
+ * only on the fields named by getInputs(), which is what allows
+ * IncrementalValidator to skip a rule whose inputs have not changed.
+ */
+public interface ReservationRule {
+   /**
+    * @return an unmodifiable set of the fields this rule reads
+    */
+   Set<ReservationField> getInputs();
+
+   /**
+    * Applies this rule to a reservation
+    * @param reservation the reservation to validate
+    * @param errors receives any error messages that are generated
+    * @param itinerary receives any itinerary lines that are generated
+    * @param failures receives the outcomes that failed
+    */
+   void apply(ReservationData reservation,
+              List<String> errors,
+              StringBuilder itinerary,
+              Set<ValidationRule> failures);
+}
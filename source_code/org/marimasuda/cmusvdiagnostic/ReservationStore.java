@@ -0,0 +1,156 @@
+/**
+ * ReservationStore.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the reservations that have been booked, each under an int ID
+ * assigned when it is added, until it is cancelled.  Reservations can be
+ * looked up by departure date and by return date, e.g., all reservations
+ * departing between two dates or returning on a given day, through a
+ * DateIndex of each, so a query takes time proportional to its result
+ * instead of a scan of every reservation.  Both indexes are updated as
+ * reservations are added and cancelled.  All methods are synchronized.
+ */
+public class ReservationStore {
+   /** the initial number of IDs the store has room for */
+   private static final int INITIAL_CAPACITY = 64;
+
+   /** the store shared by the whole program */
+   private static final ReservationStore DEFAULT =
+      new ReservationStore(BookingWindow.getDefault());
+
+   /** the reservation with each ID, or null if it was cancelled */
+   private Reservation[] reservations;
+
+   /** the ID of the next reservation to be added */
+   private int nextId;
+
+   /** the number of reservations that have not been cancelled */
+   private int count;
+
+   /** the IDs of the reservations by departure date */
+   private final DateIndex departures;
+
+   /** the IDs of the reservations by return date */
+   private final DateIndex returns;
+
+   /**
+    * Creates a new empty store
+    * @param window the days whose dates are indexed most efficiently,
+    *               normally the days on which travel may be booked
+    */
+   public ReservationStore(BookingWindow window) {
+      reservations = new Reservation[INITIAL_CAPACITY];
+      nextId = 0;
+      count = 0;
+      departures = new DateIndex(window);
+      returns = new DateIndex(window);
+   }
+
+   /**
+    * @return the store shared by the whole program, which holds the
+    * bookings confirmed through ReservationController
+    */
+   public static ReservationStore getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * Adds a reservation
+    * @param reservation the reservation, which is copied by
+    *                    Reservation.intern() unless it is already a
+    *                    Reservation whose cities have IDs
+    * @return the reservation's ID
+    */
+   public synchronized int add(ReservationData reservation) {
+      Reservation copy = Reservation.intern(reservation);
+      if (nextId == reservations.length) {
+         reservations = Arrays.copyOf(reservations, nextId * 2);
+      }
+      int id = nextId++;
+      reservations[id] = copy;
+      count++;
+      departures.add(id, copy.getDepartureDate());
+      returns.add(id, copy.getReturnDate());
+      return id;
+   }
+
+   /**
+    * Cancels a reservation, removing it from the store
+    * @param id the reservation's ID
+    * @return true if the reservation was cancelled, or false if there is
+    *         no reservation with that ID
+    */
+   public synchronized boolean cancel(int id) {
+      if (get(id) == null) {
+         return false;
+      }
+      reservations[id] = null;
+      count--;
+      departures.remove(id);
+      returns.remove(id);
+      return true;
+   }
+
+   /**
+    * @param id a reservation's ID
+    * @return the reservation, or null if there is no reservation with that
+    *         ID
+    */
+   public synchronized Reservation get(int id) {
+      return (id >= 0 && id < nextId ? reservations[id] : null);
+   }
+
+   /**
+    * @return the number of reservations that have not been cancelled
+    */
+   public synchronized int size() {
+      return count;
+   }
+
+   /**
+    * @param from the first packed departure date (see PackedDate)
+    * @param to the last packed departure date, inclusive
+    * @return the IDs of the reservations departing in the range, in no
+    *         particular order
+    */
+   public synchronized int[] findDeparting(int from, int to) {
+      return departures.find(from, to);
+   }
+
+   /**
+    * @param from the first packed departure date (see PackedDate)
+    * @param to the last packed departure date, inclusive
+    * @return the number of reservations departing in the range
+    */
+   public synchronized int countDeparting(int from, int to) {
+      return departures.count(from, to);
+   }
+
+   /**
+    * @param from the first packed return date (see PackedDate)
+    * @param to the last packed return date, inclusive
+    * @return the IDs of the reservations returning in the range, in no
+    *         particular order
+    */
+   public synchronized int[] findReturning(int from, int to) {
+      return returns.find(from, to);
+   }
+
+   /**
+    * @param from the first packed return date (see PackedDate)
+    * @param to the last packed return date, inclusive
+    * @return the number of reservations returning in the range
+    */
+   public synchronized int countReturning(int from, int to) {
+      return returns.count(from, to);
+   }
+}
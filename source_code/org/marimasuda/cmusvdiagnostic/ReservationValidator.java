@@ -0,0 +1,270 @@
+/**
+ * ReservationValidator.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Contains the business rules that decide whether a reservation is valid.
+ * The rules are kept separate from ReservationController so that they can
+ * be applied without a GUI, e.g., by the BatchValidator.  This class does
+ * not depend on any AWT or Swing classes.
+ *
+ * The rules are run as an ordered pipeline of ReservationRule objects.  By
+ * default the pipeline holds the standard business rules (see RuleCheck)
+ * in their original order and every rule runs, but a validator can also be
+ * built with the rules reordered, e.g., so that the cheapest or most
+ * selective rules run first, with extra rules, or in
+ * ValidationMode.FAIL_FAST, which stops at the first rule that reports an
+ * error.  The errors appear in the order in which the rules ran.  A
+ * validator can optionally time each rule (see RuleTimings) and record
+ * every validation into a ValidationMetrics.
+ *
+ * A ReservationValidator holds no state that changes during validation:
+ * every call to validate() works only on its argument and local variables,
+ * and the optional timings and metrics are updated without locking, so a
+ * single instance can be shared by any number of threads.
+ */
+public final class ReservationValidator {
+   /** defines the minimum acceptable date as given in the business rules
+    * (see PackedDate), the first day of the default BookingWindow
+    */
+   static final int MIN_ACCEPTABLE_DATE =
+      BookingWindow.getDefault().getMinDate();
+
+   /** defines the maximum acceptable date as given in the business rules
+    * (see PackedDate), the last day of the default BookingWindow.  The last
+    * hour of the day is used because every date picked by the user is on
+    * the hour.
+    */
+   static final int MAX_ACCEPTABLE_DATE =
+      BookingWindow.getDefault().getMaxDate();
+
+   /** defines the minimum acceptable number of passengers as given in the
+    * business rules
+    */
+   static final int MIN_PASSENGERS = 1;
+
+   /** defines the maximum acceptable number of passengers as given in the
+    * business rules
+    */
+   static final int MAX_PASSENGERS = 10;
+
+   /** the standard business rules in their original order */
+   private static final List<ReservationRule> DEFAULT_RULES =
+      Collections.<ReservationRule>unmodifiableList(
+            Arrays.<ReservationRule>asList(RuleCheck.values()));
+
+   /** the rules, in the order in which they run */
+   private final ReservationRule[] rules;
+
+   /** an unmodifiable view of the rules, for callers */
+   private final List<ReservationRule> ruleList;
+
+   /** whether every rule runs or only up to the first error */
+   private final ValidationMode mode;
+
+   /** the time spent in each rule, or null if the rules are not timed */
+   private final RuleTimings timings;
+
+   /** receives every validation, or null if none are recorded */
+   private final ValidationMetrics metrics;
+
+   /**
+    * Creates a new ReservationValidator that runs every standard business
+    * rule in the original order.  Since a ReservationValidator holds no
+    * state, callers are encouraged to share one instance.
+    */
+   public ReservationValidator() {
+      this(DEFAULT_RULES, ValidationMode.FULL_REPORT, false);
+   }
+
+   /**
+    * Creates a new ReservationValidator that runs the standard business
+    * rules in the original order
+    * @param mode whether to run every rule or stop at the first error
+    */
+   public ReservationValidator(ValidationMode mode) {
+      this(DEFAULT_RULES, mode, false);
+   }
+
+   /**
+    * Creates a new ReservationValidator
+    * @param rules the rules to run, in the order in which they should run
+    * @param mode whether to run every rule or stop at the first error
+    * @param timed true to record the time spent in each rule (see
+    *              getRuleTimings())
+    * @throws IllegalArgumentException if a rule is null
+    */
+   public ReservationValidator(List<? extends ReservationRule> rules,
+                               ValidationMode mode,
+                               boolean timed) {
+      this(rules, mode, timed, null);
+   }
+
+   /**
+    * Creates a new ReservationValidator
+    * @param rules the rules to run, in the order in which they should run
+    * @param mode whether to run every rule or stop at the first error
+    * @param timed true to record the time spent in each rule (see
+    *              getRuleTimings())
+    * @param metrics receives every validation, or null to record none
+    * @throws IllegalArgumentException if a rule is null
+    */
+   public ReservationValidator(List<? extends ReservationRule> rules,
+                               ValidationMode mode,
+                               boolean timed,
+                               ValidationMetrics metrics) {
+      this.rules = rules.toArray(new ReservationRule[rules.size()]);
+      for (ReservationRule rule : this.rules) {
+         if (rule == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+         }
+      }
+      this.ruleList =
+         Collections.unmodifiableList(Arrays.asList(this.rules));
+      this.mode = mode;
+      this.timings = (timed ? new RuleTimings(ruleList) : null);
+      this.metrics = metrics;
+   }
+
+   /**
+    * @return the standard business rules in their original order, as an
+    *         unmodifiable list that can be copied and reordered
+    */
+   public static List<ReservationRule> getDefaultRules() {
+      return DEFAULT_RULES;
+   }
+
+   /**
+    * @return an unmodifiable list of the rules, in the order in which they
+    *         run
+    */
+   public List<ReservationRule> getRules() {
+      return ruleList;
+   }
+
+   /**
+    * @return whether every rule runs or only up to the first error
+    */
+   public ValidationMode getMode() {
+      return mode;
+   }
+
+   /**
+    * @return the time spent in each rule, or null if this validator was
+    *         not created to time its rules
+    */
+   public RuleTimings getRuleTimings() {
+      return timings;
+   }
+
+   /**
+    * @return the metrics every validation is recorded into, or null if
+    *         none are recorded
+    */
+   public ValidationMetrics getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * Validates a reservation against the provided business rules.
+    * Basic business rules for validation to succeed:
+    * 1. From: not blank
+    * 2. To: not blank
+    * 3. Departure date: combination of month/day/year must be a valid date
+    * 4. Return date: combination of month/day/year must be a valid date
+    * 5. Return date must be on or after the departure date
+    * 6. The dates must be within the booking window, by default 2011-2012
+    *    (see BookingWindow)
+    * 7. The number of passengers must be 1-10
+    * @param reservation the reservation to validate
+    * @return the outcome of the validation, including any error messages
+    * and the itinerary
+    */
+   public ValidationResult validate(ReservationData reservation) {
+      long start = startTiming();
+      List<String> errors = new ArrayList<String>();
+      StringBuilder itinerary = new StringBuilder();
+      Set<ValidationRule> failures = EnumSet.noneOf(ValidationRule.class);
+      boolean anyTimeException = false;
+      for (int i = 0; i < rules.length; i++) {
+         anyTimeException |=
+            apply(i, reservation, errors, itinerary, failures);
+         if (mode == ValidationMode.FAIL_FAST && !errors.isEmpty()) {
+            break;
+         }
+      }
+      ValidationResult result =
+         new ValidationResult(errors, failures, itinerary.toString());
+      record(result, anyTimeException, start);
+      return result;
+   }
+
+   /**
+    * Records a validation into the metrics, if there are any
+    * @param result the outcome
+    * @param anyTimeException true if rule 5 ran and accepted the return
+    *                         date only because of the "any time" exception
+    * @param start the System.nanoTime() when the validation started
+    */
+   void record(ValidationResult result,
+               boolean anyTimeException,
+               long start) {
+      if (metrics != null) {
+         metrics.record(result, anyTimeException,
+                        System.nanoTime() - start);
+      }
+   }
+
+   /**
+    * @return the System.nanoTime() to pass to record(), or 0 if there are
+    *         no metrics to record into
+    */
+   long startTiming() {
+      return (metrics == null ? 0 : System.nanoTime());
+   }
+
+   /**
+    * Runs a single rule of the pipeline, timing it if this validator times
+    * its rules.  The error messages, itinerary lines, and failures it
+    * produces depend only on the fields named by the rule's getInputs().
+    * @param index the rule's position in the pipeline
+    * @param reservation the reservation to validate
+    * @param errors receives any error messages that are generated
+    * @param itinerary receives any itinerary lines that are generated
+    * @param failures receives the rules that failed
+    * @return true if the rule is rule 5 (RuleCheck.RELATIVE_DATES) and it
+    *         accepted the return date only because of the "any time"
+    *         exception
+    */
+   boolean apply(int index,
+                 ReservationData reservation,
+                 List<String> errors,
+                 StringBuilder itinerary,
+                 Set<ValidationRule> failures) {
+      if (timings == null) {
+         rules[index].apply(reservation, errors, itinerary, failures);
+      } else {
+         int errorCount = errors.size();
+         long start = System.nanoTime();
+         rules[index].apply(reservation, errors, itinerary, failures);
+         timings.record(index, System.nanoTime() - start,
+                        errors.size() > errorCount);
+      }
+      return rules[index] == RuleCheck.RELATIVE_DATES
+             && RuleCheck.isAnyTimeException(reservation.getDepartureDate(),
+                                              reservation.getReturnDate());
+   }
+}
@@ -15,16 +15,19 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.GregorianCalendar;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTextField;
-import javax.swing.event.CaretEvent;
-import javax.swing.event.CaretListener;
+import javax.swing.SwingWorker;
 
 /**
  * A Swing GUI to front a ReservationModel.
@@ -35,6 +38,31 @@ public class ReservationView extends JPanel {
     */
    private static final int INSET_PADDING = 5;
 
+   /** the system property that sets how long, in milliseconds, a city text 
+    * field must stay unchanged before its text is passed to the controller.
+    * The default of 0 passes the text on once per pass of the event 
+    * dispatch thread.
+    */
+   public static final String TEXT_QUIET_PERIOD_PROPERTY = 
+      "cmusvdiagnostic.textQuietPeriodMillis";
+
+   /** the system property that, if set to a positive number of 
+    * milliseconds, makes the view probe the event dispatch thread that 
+    * often and print the latencies on exit (see EdtLatencyProbe)
+    */
+   public static final String EDT_PROBE_PERIOD_PROPERTY = 
+      "cmusvdiagnostic.edtProbePeriodMillis";
+
+   /** the question shown below the itinerary of a valid reservation */
+   private static final String CONFIRM_BOOKING_PROMPT =
+      "Your seats are held for a limited time.  Book this itinerary?";
+
+   /** the error message when the user confirms an itinerary whose seats
+    * are no longer held
+    */
+   private static final String HOLD_EXPIRED_ERROR =
+      "The hold on your seats has expired.  Please submit again.";
+
    /** this view's controller */
    private ReservationController controller;
 
@@ -59,6 +87,18 @@ public class ReservationView extends JPanel {
    /** the text field in which to enter the arrival city */
    private JTextField arrivalCityTextField;   
 
+   /** passes edits of the departure city text field to the controller */
+   private CoalescingTextFieldListener departureCityListener;
+
+   /** passes edits of the arrival city text field to the controller */
+   private CoalescingTextFieldListener arrivalCityListener;
+
+   /** suggests cities as the departure city is typed */
+   private CityAutocomplete departureCityAutocomplete;
+
+   /** suggests cities as the arrival city is typed */
+   private CityAutocomplete arrivalCityAutocomplete;
+
    /** the date picker in which to enter the departure date */
    private DatePickerView departureDatePicker;
 
@@ -66,10 +106,18 @@ public class ReservationView extends JPanel {
    private DatePickerView returnDatePicker;
 
    /** the combo box in which to enter the number of passengers */
-   private JComboBox numPassengersComboBox;
+   private JComboBox<ComboBoxItem> numPassengersComboBox;
 
    /** the button that, when pressed, causes validation to occur */
    private JButton submitButton;
+
+   /** shown while a validation or a booking is running */
+   private JProgressBar submitProgressBar;
+
+   /** measures the responsiveness of the event dispatch thread, or null 
+    * if it is not being measured
+    */
+   private EdtLatencyProbe edtProbe;
    
    /** GUI layout helper object */
    private GridBagConstraints gbc;
@@ -91,13 +139,23 @@ public class ReservationView extends JPanel {
       arrivalCityTextField = new JTextField();
       departureDatePicker = new DatePickerView();
       returnDatePicker = new DatePickerView();
-      numPassengersComboBox = new JComboBox(controller.getPassengerModel());
+      numPassengersComboBox =
+         new JComboBox<ComboBoxItem>(controller.getPassengerModel());
       submitButton = new JButton("Submit");
+      submitProgressBar = new JProgressBar();
+      submitProgressBar.setIndeterminate(true);
+      submitProgressBar.setVisible(false);
       
       departureDatePicker.addPropertyChangeListener(new DepartureDatePickerListener());
       returnDatePicker.addPropertyChangeListener(new ReturnDatePickerListener());
-      departureCityTextField.addCaretListener(new DepartureTextFieldListener());
-      arrivalCityTextField.addCaretListener(new ArrivalTextFieldListener());
+      int quietPeriod = Integer.getInteger(TEXT_QUIET_PERIOD_PROPERTY, 0);
+      departureCityListener = new CoalescingTextFieldListener(
+            departureCityTextField, quietPeriod, new DepartureCityUpdater());
+      arrivalCityListener = new CoalescingTextFieldListener(
+            arrivalCityTextField, quietPeriod, new ArrivalCityUpdater());
+      departureCityAutocomplete =
+         new CityAutocomplete(departureCityTextField);
+      arrivalCityAutocomplete = new CityAutocomplete(arrivalCityTextField);
       numPassengersComboBox.addActionListener(new NumPassengersListener());
       submitButton.addActionListener(new SubmitButtonListener());
       
@@ -137,6 +195,9 @@ public class ReservationView extends JPanel {
       gbc.gridy = 5;
       add(submitButton, gbc);
 
+      // takes the submit button's place while a validation is running
+      add(submitProgressBar, gbc);
+
       gbc.anchor = GridBagConstraints.LINE_START;
       gbc.fill = GridBagConstraints.HORIZONTAL;
 
@@ -161,6 +222,13 @@ public class ReservationView extends JPanel {
       gbc.gridx = 1;
       gbc.gridy = 4;
       add(numPassengersComboBox, gbc);
+
+      long probePeriod = Long.getLong(EDT_PROBE_PERIOD_PROPERTY, 0);
+      if (probePeriod > 0) {
+         edtProbe = new EdtLatencyProbe(probePeriod);
+         edtProbe.start();
+         edtProbe.reportOnExit();
+      }
    }
    
    /**
@@ -171,7 +239,8 @@ public class ReservationView extends JPanel {
       @Override
       public void propertyChange(PropertyChangeEvent pce) {
          if (pce.getPropertyName().equals(DatePickerView.PROPERTY_CHANGE_IDENTIFIER)) {
-            controller.setDepartureDate((GregorianCalendar) pce.getNewValue());
+            int date = (Integer) pce.getNewValue();
+            controller.setDepartureDate(date);
          }
       }
    }
@@ -184,33 +253,30 @@ public class ReservationView extends JPanel {
       @Override
       public void propertyChange(PropertyChangeEvent pce) {
          if (pce.getPropertyName().equals(DatePickerView.PROPERTY_CHANGE_IDENTIFIER)) {
-            controller.setReturnDate((GregorianCalendar) pce.getNewValue());
+            int date = (Integer) pce.getNewValue();
+            controller.setReturnDate(date);
          }
       }
    }
    
    /**
-    * Inner class to handle updating this view's model with the current value 
-    * of the departure text field.
+    * Inner class to handle updating this view's model with the current 
+    * (trimmed) value of the departure text field.
     */
-   private class DepartureTextFieldListener implements CaretListener {
+   private class DepartureCityUpdater implements Consumer<String> {
       @Override
-      public void caretUpdate(CaretEvent ce) {
-         JTextField source = (JTextField) ce.getSource();
-         String text = source.getText().trim();
+      public void accept(String text) {
          controller.setDepartureCity(text);
       }
    }
 
    /**
-    * Inner class to handle updating this view's model with the current value 
-    * of the arrival text field.
+    * Inner class to handle updating this view's model with the current 
+    * (trimmed) value of the arrival text field.
     */
-   private class ArrivalTextFieldListener implements CaretListener {
+   private class ArrivalCityUpdater implements Consumer<String> {
       @Override
-      public void caretUpdate(CaretEvent ce) {
-         JTextField source = (JTextField) ce.getSource();
-         String text = source.getText().trim();
+      public void accept(String text) {
          controller.setArrivalCity(text);
       }
    }
@@ -222,7 +288,7 @@ public class ReservationView extends JPanel {
    private class NumPassengersListener implements ActionListener {
       @Override
       public void actionPerformed(ActionEvent ae) {
-         JComboBox source = (JComboBox) ae.getSource();
+         JComboBox<?> source = (JComboBox<?>) ae.getSource();
          ComboBoxItem comboBoxItem = (ComboBoxItem) source.getSelectedItem();
          int value = comboBoxItem.getValue();
          controller.setNumPassengers(value);
@@ -231,26 +297,155 @@ public class ReservationView extends JPanel {
    
    /**
     * Inner class to handle when the submit button is pressed.  It validates 
-    * the model and then shows either the itinerary if the model is valid, or 
-    * an error message is the model is not valid.
+    * the model and holds its seats on a background thread, so the form 
+    * stays responsive, and then shows either the itinerary if the model is
+    * valid and its seats are held, or an error message if it is not.  The 
+    * held seats are booked if the user confirms the itinerary before the 
+    * hold expires, and given back if the user cancels.  The submit button 
+    * is disabled and a progress bar is shown until the outcome is known, 
+    * so the same form can never be submitted twice at once.
     */
    private class SubmitButtonListener implements ActionListener {
       @Override
       public void actionPerformed(ActionEvent ae) {
-         if (controller.isValid()) {
-            JOptionPane.showMessageDialog(
+         if (!submitButton.isEnabled()) {
+            return;
+         }
+         // make sure the latest edits have reached the model
+         departureCityListener.flush();
+         arrivalCityListener.flush();
+         final Supplier<ValidationResult> validation = 
+            controller.newSubmission();
+         submitButton.setEnabled(false);
+         submitButton.setVisible(false);
+         submitProgressBar.setVisible(true);
+         new SwingWorker<ValidationResult, Void>() {
+            @Override
+            protected ValidationResult doInBackground() {
+               return validation.get();
+            }
+
+            @Override
+            protected void done() {
+               submitProgressBar.setVisible(false);
+               submitButton.setVisible(true);
+               submitButton.setEnabled(true);
+               try {
+                  showResult(get());
+               } catch (InterruptedException ie) {
+                  Thread.currentThread().interrupt();
+               } catch (ExecutionException ee) {
+                  JOptionPane.showMessageDialog(
+                        null, 
+                        "The reservation could not be validated: " 
+                        + ee.getCause(),
+                        "An error has occurred", 
+                        JOptionPane.ERROR_MESSAGE);
+               }
+            }
+         }.execute();
+      }
+
+      /**
+       * Private helper function to show the itinerary or the error 
+       * messages of a validation
+       */
+      private void showResult(ValidationResult result) {
+         if (result.isValid()) {
+            int choice = JOptionPane.showConfirmDialog(
                   null, 
-                  controller.getItinerary(),
+                  result.getItinerary() + "\n" + CONFIRM_BOOKING_PROMPT,
                   "Itinerary", 
+                  JOptionPane.OK_CANCEL_OPTION,
                   JOptionPane.INFORMATION_MESSAGE);
+            if (choice == JOptionPane.OK_OPTION) {
+               confirmBooking();
+            } else {
+               controller.releaseBooking();
+            }
          } else {
             JOptionPane.showMessageDialog(
                   null, 
-                  controller.getErrorMessages(),
+                  result.getErrorMessages(),
                   "An error has occurred", 
                   JOptionPane.ERROR_MESSAGE);
-
          }
       }
+
+      /**
+       * Private helper function to book the held seats on a background 
+       * thread, since the booking waits for the reservation log to reach 
+       * the disk, with the submit button disabled as during a submission
+       */
+      private void confirmBooking() {
+         submitButton.setEnabled(false);
+         submitButton.setVisible(false);
+         submitProgressBar.setVisible(true);
+         new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws IOException {
+               return controller.confirmBooking();
+            }
+
+            @Override
+            protected void done() {
+               submitProgressBar.setVisible(false);
+               submitButton.setVisible(true);
+               submitButton.setEnabled(true);
+               try {
+                  if (!get()) {
+                     JOptionPane.showMessageDialog(
+                           null, 
+                           HOLD_EXPIRED_ERROR,
+                           "An error has occurred", 
+                           JOptionPane.ERROR_MESSAGE);
+                  }
+               } catch (InterruptedException ie) {
+                  Thread.currentThread().interrupt();
+               } catch (ExecutionException ee) {
+                  JOptionPane.showMessageDialog(
+                        null, 
+                        "The reservation could not be saved: " 
+                        + ee.getCause(),
+                        "An error has occurred", 
+                        JOptionPane.ERROR_MESSAGE);
+               }
+            }
+         }.execute();
+      }
+   }
+   
+   /**
+    * @return the number of edits to the city text fields that were 
+    * collapsed into another update instead of updating the model themselves
+    */
+   public long getCollapsedTextEventCount() {
+      return departureCityListener.getCollapsedEventCount()
+             + arrivalCityListener.getCollapsedEventCount();
+   }
+
+   /**
+    * @return the number of city lookups that were skipped, or whose
+    * suggestions were discarded, because the text had changed again
+    */
+   public long getStaleSuggestionCount() {
+      return departureCityAutocomplete.getStaleQueryCount()
+             + arrivalCityAutocomplete.getStaleQueryCount();
+   }
+
+   /**
+    * @return how long the event dispatch thread took to respond, or null 
+    * if it is not being measured (see EDT_PROBE_PERIOD_PROPERTY)
+    */
+   public LatencyHistogram getEdtLatencies() {
+      return (edtProbe == null ? null : edtProbe.getLatencies());
+   }
+
+   /**
+    * @return the number of edits made to the city text fields
+    */
+   public long getRawTextEventCount() {
+      return departureCityListener.getRawEventCount()
+             + arrivalCityListener.getRawEventCount();
    }
 }
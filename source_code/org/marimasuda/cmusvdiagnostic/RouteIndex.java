@@ -0,0 +1,228 @@
+/**
+ * RouteIndex.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for every route, i.e., every pair of a departure city and
+ * an arrival city (by CityDictionary ID), over the reservations added to
+ * it: the number of reservations and passengers, and the earliest and
+ * latest departure.  Dashboards can read a route's numbers at any time
+ * without scanning the reservations.  Reservations are never taken out of
+ * the totals, so the earliest and latest departures are always exact.
+ *
+ * Looking up a route and adding a reservation to it take constant time
+ * and never lock, so reservations can be added from many threads at once:
+ * the routes are kept in a ConcurrentHashMap, the counts are LongAdders,
+ * and the earliest and latest departures are updated with compare-and-set
+ * loops.  Numbers read while reservations are being added may not all
+ * include the same reservations.
+ */
+public class RouteIndex {
+   /** the value of an earliest or latest departure that has not been set.
+    * It is not a valid packed date.
+    */
+   private static final int NO_DATE = -1;
+
+   /** the index shared by the whole program */
+   private static final RouteIndex DEFAULT = new RouteIndex();
+
+   /** every route added so far, keyed by getKey() */
+   private final ConcurrentHashMap<Long, Route> routes;
+
+   /**
+    * Creates a new empty index
+    */
+   public RouteIndex() {
+      routes = new ConcurrentHashMap<Long, Route>();
+   }
+
+   /**
+    * @return the index shared by the whole program, which counts the
+    * bookings confirmed through ReservationController
+    */
+   public static RouteIndex getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * Adds a reservation to the totals of its route
+    * @param reservation the reservation
+    */
+   public void add(ReservationData reservation) {
+      int departureCityId = Reservation.internDepartureCity(reservation);
+      int arrivalCityId = Reservation.internArrivalCity(reservation);
+      Long key = getKey(departureCityId, arrivalCityId);
+      Route route = routes.get(key);
+      if (route == null) {
+         Route created = new Route(departureCityId, arrivalCityId);
+         route = routes.putIfAbsent(key, created);
+         if (route == null) {
+            route = created;
+         }
+      }
+      route.add(reservation);
+   }
+
+   /**
+    * @param departureCityId the CityDictionary ID of the departure city
+    * @param arrivalCityId the CityDictionary ID of the arrival city
+    * @return the totals of the route, or null if no reservation has been
+    *         added to it
+    */
+   public Route get(int departureCityId, int arrivalCityId) {
+      return routes.get(getKey(departureCityId, arrivalCityId));
+   }
+
+   /**
+    * @return every route that a reservation has been added to, in no
+    * particular order.  The collection cannot be modified, but it grows as
+    * routes are added.
+    */
+   public Collection<Route> getRoutes() {
+      return Collections.unmodifiableCollection(routes.values());
+   }
+
+   /**
+    * @return the number of routes that a reservation has been added to
+    */
+   public int size() {
+      return routes.size();
+   }
+
+   /**
+    * Private helper function to combine the city IDs of a route into a key
+    */
+   private static Long getKey(int departureCityId, int arrivalCityId) {
+      return ((long) departureCityId << Integer.SIZE)
+             | (arrivalCityId & 0xFFFFFFFFL);
+   }
+
+   /**
+    * The running totals of one route
+    */
+   public static final class Route {
+      /** the CityDictionary ID of the departure city */
+      private final int departureCityId;
+
+      /** the CityDictionary ID of the arrival city */
+      private final int arrivalCityId;
+
+      /** the number of reservations */
+      private final LongAdder reservations;
+
+      /** the number of passengers in all of the reservations */
+      private final LongAdder passengers;
+
+      /** the earliest packed departure date, or NO_DATE */
+      private final AtomicInteger earliestDeparture;
+
+      /** the latest packed departure date, or NO_DATE */
+      private final AtomicInteger latestDeparture;
+
+      /**
+       * @param departureCityId the CityDictionary ID of the departure city
+       * @param arrivalCityId the CityDictionary ID of the arrival city
+       */
+      private Route(int departureCityId, int arrivalCityId) {
+         this.departureCityId = departureCityId;
+         this.arrivalCityId = arrivalCityId;
+         reservations = new LongAdder();
+         passengers = new LongAdder();
+         earliestDeparture = new AtomicInteger(NO_DATE);
+         latestDeparture = new AtomicInteger(NO_DATE);
+      }
+
+      /**
+       * @return the CityDictionary ID of the departure city
+       */
+      public int getDepartureCityId() {
+         return departureCityId;
+      }
+
+      /**
+       * @return the CityDictionary ID of the arrival city
+       */
+      public int getArrivalCityId() {
+         return arrivalCityId;
+      }
+
+      /**
+       * @return the number of reservations on the route
+       */
+      public long getReservationCount() {
+         return reservations.sum();
+      }
+
+      /**
+       * @return the number of passengers in all of the reservations
+       */
+      public long getPassengerCount() {
+         return passengers.sum();
+      }
+
+      /**
+       * @return the earliest packed departure date of any reservation added
+       * to the route (see PackedDate), or PackedDate.UNSET if there is none
+       */
+      public int getEarliestDeparture() {
+         int date = earliestDeparture.get();
+         return (date == NO_DATE ? PackedDate.UNSET : date);
+      }
+
+      /**
+       * @return the latest packed departure date of any reservation added
+       * to the route (see PackedDate), or PackedDate.UNSET if there is none
+       */
+      public int getLatestDeparture() {
+         int date = latestDeparture.get();
+         return (date == NO_DATE ? PackedDate.UNSET : date);
+      }
+
+      /**
+       * @return a one-line summary such as "San Francisco to Boston:
+       * reservations=3 passengers=5 departures=March 14, 2011 Morning to
+       * April 2, 2011 Late night"
+       */
+      @Override
+      public String toString() {
+         CityDictionary cities = CityDictionary.getDefault();
+         return cities.nameOf(departureCityId) + " to "
+                + cities.nameOf(arrivalCityId)
+                + ": reservations=" + getReservationCount()
+                + " passengers=" + getPassengerCount()
+                + " departures=" + PackedDate.format(getEarliestDeparture())
+                + " to " + PackedDate.format(getLatestDeparture());
+      }
+
+      /**
+       * Private helper function to add a reservation to the totals
+       */
+      private void add(ReservationData reservation) {
+         reservations.increment();
+         passengers.add(reservation.getNumPassengers());
+         int date = reservation.getDepartureDate();
+         int current = earliestDeparture.get();
+         while ((current == NO_DATE || PackedDate.compare(date, current) < 0)
+                && !earliestDeparture.compareAndSet(current, date)) {
+            current = earliestDeparture.get();
+         }
+         current = latestDeparture.get();
+         while ((current == NO_DATE || PackedDate.compare(date, current) > 0)
+                && !latestDeparture.compareAndSet(current, date)) {
+            current = latestDeparture.get();
+         }
+      }
+   }
+}
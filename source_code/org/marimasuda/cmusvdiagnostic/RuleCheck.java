@@ -0,0 +1,332 @@
+/**
+ * RuleCheck.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The standard business rules, in the order in which ReservationValidator
+ * runs them by default, together with the reservation fields each rule
+ * reads.  A rule's error messages and itinerary lines depend only on those
+ * fields, so a rule whose fields have not changed does not need to run
+ * again.
+ */
+public enum RuleCheck implements ReservationRule {
+   /** rule 1: the departure city must not be blank */
+   DEPARTURE_CITY(ReservationField.DEPARTURE_CITY) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         if (reservation.getDepartureCityId() == CityDictionary.BLANK_ID) {
+            errors.add(DEPARTURE_CITY_ERROR);
+            failures.add(ValidationRule.DEPARTURE_CITY_BLANK);
+         } else {
+            itinerary.append(FROM_LABEL)
+                     .append(reservation.getDepartureCity())
+                     .append("\n");
+         }
+      }
+   },
+
+   /** rule 2: the arrival city must not be blank */
+   ARRIVAL_CITY(ReservationField.ARRIVAL_CITY) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         if (reservation.getArrivalCityId() == CityDictionary.BLANK_ID) {
+            errors.add(ARRIVAL_CITY_ERROR);
+            failures.add(ValidationRule.ARRIVAL_CITY_BLANK);
+         } else {
+            itinerary.append(TO_LABEL)
+                     .append(reservation.getArrivalCity())
+                     .append("\n");
+         }
+      }
+   },
+
+   /** rule 7: the number of passengers must be in range */
+   NUM_PASSENGERS(ReservationField.NUM_PASSENGERS) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         int numPassengers = reservation.getNumPassengers();
+         if (isNumPassengersOutOfRange(numPassengers)) {
+            errors.add(NUM_PASSENGERS_ERROR);
+            failures.add(ValidationRule.NUM_PASSENGERS_OUT_OF_RANGE);
+         } else {
+            itinerary.append(PASSENGERS_LABEL)
+                     .append(numPassengers)
+                     .append("\n");
+         }
+      }
+   },
+
+   /** rules 3 and 6: the departure date must be set and in range */
+   DEPARTURE_DATE(ReservationField.DEPARTURE_DATE) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         checkDate(reservation.getDepartureDate(),
+                   DEPARTURE_DATE_RANGE_ERROR, DEPARTURE_DATE_NOT_SET_ERROR,
+                   DEPARTING_LABEL,
+                   ValidationRule.DEPARTURE_DATE_OUT_OF_RANGE,
+                   ValidationRule.DEPARTURE_DATE_NOT_SET,
+                   errors, itinerary, failures);
+      }
+   },
+
+   /** rules 4 and 6: the return date must be set and in range */
+   RETURN_DATE(ReservationField.RETURN_DATE) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         checkDate(reservation.getReturnDate(),
+                   RETURN_DATE_RANGE_ERROR, RETURN_DATE_NOT_SET_ERROR,
+                   RETURNING_LABEL,
+                   ValidationRule.RETURN_DATE_OUT_OF_RANGE,
+                   ValidationRule.RETURN_DATE_NOT_SET,
+                   errors, itinerary, failures);
+      }
+   },
+
+   /** rule 5: the return date must not be before the departure date */
+   RELATIVE_DATES(ReservationField.DEPARTURE_DATE,
+                  ReservationField.RETURN_DATE) {
+      @Override
+      public void apply(ReservationData reservation,
+                        List<String> errors,
+                        StringBuilder itinerary,
+                        Set<ValidationRule> failures) {
+         if (isReturnBeforeDeparture(reservation.getDepartureDate(),
+                                     reservation.getReturnDate())) {
+            errors.add(RETURN_BEFORE_DEPARTURE_ERROR);
+            failures.add(ValidationRule.RETURN_BEFORE_DEPARTURE);
+         }
+      }
+   };
+
+   /** the itinerary label of the departure city */
+   static final String FROM_LABEL = "From: ";
+
+   /** the itinerary label of the arrival city */
+   static final String TO_LABEL = "To: ";
+
+   /** the itinerary label of the number of passengers */
+   static final String PASSENGERS_LABEL = "Number of passengers: ";
+
+   /** the itinerary label of the departure date */
+   static final String DEPARTING_LABEL = "Departing: ";
+
+   /** the itinerary label of the return date */
+   static final String RETURNING_LABEL = "Returning: ";
+
+   /** the error message when the departure city is blank */
+   static final String DEPARTURE_CITY_ERROR =
+      "Departure city cannot be blank.";
+
+   /** the error message when the arrival city is blank */
+   static final String ARRIVAL_CITY_ERROR = "Arrival city cannot be blank.";
+
+   /** the error message when the number of passengers is out of range */
+   static final String NUM_PASSENGERS_ERROR =
+      "Number of passengers must be between "
+      + ReservationValidator.MIN_PASSENGERS
+      + " and "
+      + ReservationValidator.MAX_PASSENGERS
+      + ".";
+
+   /** the error message when the departure date is out of range */
+   static final String DEPARTURE_DATE_RANGE_ERROR = rangeError("Departure");
+
+   /** the error message when the departure date is not set */
+   static final String DEPARTURE_DATE_NOT_SET_ERROR =
+      "Departure date must be set.";
+
+   /** the error message when the return date is out of range */
+   static final String RETURN_DATE_RANGE_ERROR = rangeError("Return");
+
+   /** the error message when the return date is not set */
+   static final String RETURN_DATE_NOT_SET_ERROR = "Return date must be set.";
+
+   /** the error message when the return date is before the departure date */
+   static final String RETURN_BEFORE_DEPARTURE_ERROR =
+      "Departure date/time must be on or before return date/time.";
+
+   /** the fields this rule reads */
+   private final Set<ReservationField> inputs;
+
+   /**
+    * @param first a field this rule reads
+    * @param rest any other fields this rule reads
+    */
+   private RuleCheck(ReservationField first, ReservationField... rest) {
+      inputs = Collections.unmodifiableSet(EnumSet.of(first, rest));
+   }
+
+   /**
+    * @return an unmodifiable set of the fields this rule reads
+    */
+   @Override
+   public Set<ReservationField> getInputs() {
+      return inputs;
+   }
+
+   /**
+    * Rule 7.  Note that, as the business rules have always been written,
+    * a number is only out of range if it is both below the minimum and
+    * above the maximum.
+    * @param numPassengers the number of passengers
+    * @return true if the number of passengers is out of range
+    */
+   static boolean isNumPassengersOutOfRange(int numPassengers) {
+      return !(numPassengers >= ReservationValidator.MIN_PASSENGERS)
+             &&
+             !(numPassengers <= ReservationValidator.MAX_PASSENGERS);
+   }
+
+   /**
+    * Rule 6.  Note that, as the business rules have always been written,
+    * a date is only out of range if it is both before the minimum and after
+    * the maximum.  Both are answered by the default BookingWindow's
+    * precomputed day index.
+    * @param date a packed date (see PackedDate)
+    * @return true if the date is out of range
+    */
+   static boolean isDateOutOfRange(int date) {
+      BookingWindow window = BookingWindow.getDefault();
+      return window.isBefore(date)
+             &&
+             window.isAfter(date);
+   }
+
+   /**
+    * Rule 5
+    * @param departureDate the packed departure date (see PackedDate)
+    * @param returnDate the packed return date
+    * @return true if the return date/time is before the departure date/time
+    */
+   static boolean isReturnBeforeDeparture(int departureDate, int returnDate) {
+      // In this implementation, the value of the "any time" menu item
+      // is 0, which represents the first hour of the day.  (In Java,
+      // hours range from 0 to 23.)  Therefore, if the return date's
+      // time is "any time" and the departure date's time is any choice
+      // EXCEPT "any time", validation will fail if the rest
+      // of the date (i.e., year/month/day) are the same.  For example,
+      // if the departure date is "January 1, 2011 evening" and the
+      // return date is "January 1, 2011 any time", logically this is
+      // a valid combination because "any time" could include
+      // "late night", which is after "evening", but in terms of pure
+      // numbers, it would fail to validate because I have represented
+      // "any time" as 0, "morning" as 7, "noon" as 12, "evening" as 17,
+      // and "late night" as 21.  The below code checks for this
+      // situation and makes sure that these date/time situations are
+      // marked as valid.
+
+      // if the departure date is on or before the return date, it is
+      // valid
+      if (PackedDate.compare(departureDate, returnDate) <= 0) {
+         return false;
+
+      // otherwise...
+      } else {
+         // save the return date's hour of day
+         int returnHour = PackedDate.getHour(returnDate);
+
+         // Ignore the hour of day for both the departure date and the
+         // return date.
+         departureDate = PackedDate.withHour(departureDate, 0);
+         returnDate = PackedDate.withHour(returnDate, 0);
+
+         // Compare the modified departure and return dates to see if they
+         // are the same and if they are, check the saved return hour to see
+         // if it represents "any time".  If it does, then it is valid.
+         // Otherwise, we are in a situation where the return date is before
+         // the departure date.
+         return !(PackedDate.compare(departureDate, returnDate) == 0
+                  &&
+                  returnHour == DatePickerController.ANYTIME_HOUR);
+      }
+   }
+
+   /**
+    * Determines whether rule 5 accepts a return date only because of the
+    * "any time" exception described in isReturnBeforeDeparture(), i.e.,
+    * the return is on the same day as the departure at "any time" while
+    * the departure is at a later hour.
+    * @param departureDate the packed departure date (see PackedDate)
+    * @param returnDate the packed return date
+    * @return true if the exception applies
+    */
+   static boolean isAnyTimeException(int departureDate, int returnDate) {
+      return PackedDate.compare(departureDate, returnDate) > 0
+             &&
+             PackedDate.compare(PackedDate.withHour(departureDate, 0),
+                                PackedDate.withHour(returnDate, 0)) == 0
+             &&
+             PackedDate.getHour(returnDate)
+                == DatePickerController.ANYTIME_HOUR;
+   }
+
+   /**
+    * Private helper function to ensure a date is set and valid.  If not, an
+    * error message is generated.  If it is, the itinerary is updated.
+    * @param date the packed date to check (see PackedDate)
+    * @param label the itinerary label, e.g., DEPARTING_LABEL
+    */
+   private static void checkDate(int date,
+                                 String rangeError,
+                                 String notSetError,
+                                 String label,
+                                 ValidationRule outOfRange,
+                                 ValidationRule notSet,
+                                 List<String> errors,
+                                 StringBuilder itinerary,
+                                 Set<ValidationRule> failures) {
+      if (isDateOutOfRange(date)) {
+         errors.add(rangeError);
+         failures.add(outOfRange);
+      } else {
+         itinerary.append(label)
+                  .append(PackedDate.format(date))
+                  .append("\n");
+      }
+
+      if (!PackedDate.isSet(date)) {
+         errors.add(notSetError);
+         failures.add(notSet);
+      }
+   }
+
+   /**
+    * Private helper function to build the error message for a date that is
+    * out of range
+    * @param name "Departure" or "Return"
+    */
+   private static String rangeError(String name) {
+      return name
+             + " date must be between "
+             + PackedDate.format(ReservationValidator.MIN_ACCEPTABLE_DATE)
+             + " and "
+             + PackedDate.format(ReservationValidator.MAX_ACCEPTABLE_DATE)
+             + ".";
+   }
+}
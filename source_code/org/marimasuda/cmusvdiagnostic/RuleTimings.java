@@ -0,0 +1,154 @@
+/**
+ * RuleTimings.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates how often each rule of a validation pipeline ran, how long it
+ * took in total, and how often it reported an error, so that the rule that
+ * dominates the cost of validation can be found and the pipeline reordered
+ * to run the cheapest or most selective rules first.  The counters are
+ * LongAdders, so any number of threads may record at once.
+ */
+public class RuleTimings {
+   /** the number of nanoseconds in one microsecond */
+   private static final double NANOS_PER_MICRO = 1000.0;
+
+   /** the rules being timed, in pipeline order */
+   private final ReservationRule[] rules;
+
+   /** the number of times each rule ran, indexed by pipeline position */
+   private final LongAdder[] runs;
+
+   /** the total time spent in each rule, indexed by pipeline position */
+   private final LongAdder[] nanos;
+
+   /** the number of times each rule reported an error */
+   private final LongAdder[] rejections;
+
+   /**
+    * Creates an empty set of timings
+    * @param rules the rules being timed, in pipeline order
+    */
+   RuleTimings(List<ReservationRule> rules) {
+      this.rules = rules.toArray(new ReservationRule[rules.size()]);
+      runs = newAdders(this.rules.length);
+      nanos = newAdders(this.rules.length);
+      rejections = newAdders(this.rules.length);
+   }
+
+   /**
+    * Records one run of a rule
+    * @param index the rule's position in the pipeline
+    * @param elapsedNanos how long the rule took
+    * @param rejected true if the rule reported an error
+    */
+   void record(int index, long elapsedNanos, boolean rejected) {
+      runs[index].increment();
+      nanos[index].add(elapsedNanos);
+      if (rejected) {
+         rejections[index].increment();
+      }
+   }
+
+   /**
+    * @return the number of rules in the pipeline
+    */
+   public int getRuleCount() {
+      return rules.length;
+   }
+
+   /**
+    * @param index a position in the pipeline
+    * @return the rule at that position
+    */
+   public ReservationRule getRule(int index) {
+      return rules[index];
+   }
+
+   /**
+    * @param index a position in the pipeline
+    * @return the number of times the rule at that position ran
+    */
+   public long getRuns(int index) {
+      return runs[index].sum();
+   }
+
+   /**
+    * @param index a position in the pipeline
+    * @return the total time spent in the rule at that position, in
+    *         nanoseconds
+    */
+   public long getTotalNanos(int index) {
+      return nanos[index].sum();
+   }
+
+   /**
+    * @param index a position in the pipeline
+    * @return the number of times the rule at that position reported an
+    *         error
+    */
+   public long getRejections(int index) {
+      return rejections[index].sum();
+   }
+
+   /**
+    * Sets every counter back to 0
+    */
+   public void reset() {
+      for (int i = 0; i < rules.length; i++) {
+         runs[i].reset();
+         nanos[i].reset();
+         rejections[i].reset();
+      }
+   }
+
+   /**
+    * @return a table with one line per rule showing its runs, mean time,
+    *         share of the total time, and rejection rate
+    */
+   @Override
+   public String toString() {
+      long grandTotal = 0;
+      for (int i = 0; i < rules.length; i++) {
+         grandTotal += nanos[i].sum();
+      }
+      StringBuilder table = new StringBuilder();
+      table.append(String.format(Locale.US, "%-20s %12s %10s %7s %9s%n",
+                                 "Rule", "Runs", "Mean(us)", "Time%",
+                                 "Rejected%"));
+      for (int i = 0; i < rules.length; i++) {
+         long ruleRuns = runs[i].sum();
+         long ruleNanos = nanos[i].sum();
+         table.append(String.format(Locale.US,
+               "%-20s %12d %10.3f %6.1f%% %8.1f%%%n",
+               rules[i],
+               ruleRuns,
+               (ruleRuns == 0 ? 0.0 : ruleNanos / NANOS_PER_MICRO / ruleRuns),
+               (grandTotal == 0 ? 0.0 : 100.0 * ruleNanos / grandTotal),
+               (ruleRuns == 0 ? 0.0
+                              : 100.0 * rejections[i].sum() / ruleRuns)));
+      }
+      return table.toString();
+   }
+
+   /**
+    * Private helper function to create an array of zeroed counters
+    */
+   private static LongAdder[] newAdders(int length) {
+      LongAdder[] adders = new LongAdder[length];
+      for (int i = 0; i < length; i++) {
+         adders[i] = new LongAdder();
+      }
+      return adders;
+   }
+}
@@ -0,0 +1,304 @@
+/**
+ * SeatHolds.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Places temporary holds on the seats of valid reservations.  A hold takes
+ * the seats from a SeatInventory straight away, so nobody else can book
+ * them, and gives them back automatically if the booking is not confirmed
+ * within the hold time.
+ *
+ * Peak sales keep millions of holds outstanding, far too many for a timer
+ * each, so every expiry is a task on one shared TimingWheel, which
+ * schedules and cancels in constant time.  Confirming or releasing a hold
+ * only cancels its task; the wheel's thread gives back the seats of the
+ * holds that expire.
+ */
+public class SeatHolds {
+   /** the system property that sets how many seconds a hold made by the
+    * default instance lasts
+    */
+   public static final String HOLD_SECONDS_PROPERTY =
+      "cmusvdiagnostic.holdSeconds";
+
+   /** the system property that sets how many milliseconds the default
+    * instance's timing wheel waits between ticks, which is how late a hold
+    * may expire
+    */
+   public static final String TICK_MILLIS_PROPERTY =
+      "cmusvdiagnostic.holdTickMillis";
+
+   /** the number of seconds a hold lasts if the property is not set */
+   private static final int DEFAULT_HOLD_SECONDS = 600;
+
+   /** the tick of the timing wheel if the property is not set */
+   private static final int DEFAULT_TICK_MILLIS = 100;
+
+   /** the state of a hold that has neither been confirmed nor ended */
+   private static final int HELD = 0;
+
+   /** the state of a hold whose seats have been booked for good */
+   private static final int CONFIRMED = 1;
+
+   /** the state of a hold whose seats were given back by release() */
+   private static final int RELEASED = 2;
+
+   /** the state of a hold whose seats were given back when it expired */
+   private static final int EXPIRED = 3;
+
+   /** the holds shared by the whole program, created when first needed */
+   private static SeatHolds defaultHolds;
+
+   /** the seats that holds are taken from */
+   private final SeatInventory inventory;
+
+   /** expires the holds */
+   private final TimingWheel wheel;
+
+   /** how long a hold lasts, in milliseconds */
+   private final long holdMillis;
+
+   /** the number of holds that have neither been confirmed nor ended */
+   private final LongAdder outstanding;
+
+   /** the number of holds placed */
+   private final LongAdder placed;
+
+   /** the number of holds confirmed */
+   private final LongAdder confirmed;
+
+   /** the number of holds released */
+   private final LongAdder released;
+
+   /** the number of holds that expired */
+   private final LongAdder expired;
+
+   /**
+    * Creates a new set of holds
+    * @param inventory the seats that holds are taken from
+    * @param wheel the timing wheel that expires the holds
+    * @param holdTime how long a hold lasts
+    * @param unit the unit of holdTime
+    */
+   public SeatHolds(SeatInventory inventory, TimingWheel wheel, long holdTime,
+                    TimeUnit unit) {
+      if (holdTime < 0) {
+         throw new IllegalArgumentException("Invalid hold time: " + holdTime);
+      }
+      this.inventory = inventory;
+      this.wheel = wheel;
+      holdMillis = unit.toMillis(holdTime);
+      outstanding = new LongAdder();
+      placed = new LongAdder();
+      confirmed = new LongAdder();
+      released = new LongAdder();
+      expired = new LongAdder();
+   }
+
+   /**
+    * @return the holds shared by the whole program, which take seats from
+    * SeatInventory.getDefault() and last as long as HOLD_SECONDS_PROPERTY
+    * says.  Their timing wheel's thread is started by the first call.
+    */
+   public static synchronized SeatHolds getDefault() {
+      if (defaultHolds == null) {
+         TimingWheel wheel = new TimingWheel(
+               Integer.getInteger(TICK_MILLIS_PROPERTY, DEFAULT_TICK_MILLIS),
+               TimeUnit.MILLISECONDS, "Seat hold expiry");
+         defaultHolds = new SeatHolds(
+               SeatInventory.getDefault(), wheel,
+               Integer.getInteger(HOLD_SECONDS_PROPERTY, DEFAULT_HOLD_SECONDS),
+               TimeUnit.SECONDS);
+      }
+      return defaultHolds;
+   }
+
+   /**
+    * Takes the seats of a reservation, as SeatInventory.reserve() does,
+    * and holds them until the hold is confirmed, released, or expires
+    * @param reservation a valid reservation
+    * @return the hold, or null if there were not enough free seats
+    */
+   public Hold hold(ReservationData reservation) {
+      Reservation held = Reservation.intern(reservation);
+      if (!inventory.reserve(held)) {
+         return null;
+      }
+      Hold hold = new Hold(held);
+      outstanding.increment();
+      placed.increment();
+      hold.timeout = wheel.schedule(hold, holdMillis, TimeUnit.MILLISECONDS);
+      return hold;
+   }
+
+   /**
+    * @return how long a hold lasts, in milliseconds
+    */
+   public long getHoldMillis() {
+      return holdMillis;
+   }
+
+   /**
+    * @return the number of holds that have neither been confirmed nor
+    * ended yet
+    */
+   public long getOutstandingCount() {
+      return outstanding.sum();
+   }
+
+   /**
+    * @return the number of holds placed
+    */
+   public long getPlacedCount() {
+      return placed.sum();
+   }
+
+   /**
+    * @return the number of holds confirmed
+    */
+   public long getConfirmedCount() {
+      return confirmed.sum();
+   }
+
+   /**
+    * @return the number of holds released before they expired
+    */
+   public long getReleasedCount() {
+      return released.sum();
+   }
+
+   /**
+    * @return the number of holds that expired
+    */
+   public long getExpiredCount() {
+      return expired.sum();
+   }
+
+   /**
+    * @return how long after the end of their hold time the seats of
+    * expired holds were given back
+    */
+   public LatencyHistogram getExpiryLag() {
+      return wheel.getExpiryLag();
+   }
+
+   /**
+    * @return a one-line summary such as
+    * "outstanding=3 placed=10 confirmed=5 released=1 expired=1 lag: ..."
+    */
+   @Override
+   public String toString() {
+      return "outstanding=" + getOutstandingCount()
+             + " placed=" + getPlacedCount()
+             + " confirmed=" + getConfirmedCount()
+             + " released=" + getReleasedCount()
+             + " expired=" + getExpiredCount()
+             + " lag: " + getExpiryLag();
+   }
+
+   /**
+    * The seats of one reservation, held until the booking is confirmed.
+    * It runs on the timing wheel's thread when the hold time is up.
+    */
+   public final class Hold implements Runnable {
+      /** the reservation whose seats are held */
+      private final ReservationData reservation;
+
+      /** HELD, CONFIRMED, RELEASED, or EXPIRED */
+      private final AtomicInteger state;
+
+      /** the task that expires the hold */
+      private volatile TimingWheel.Timeout timeout;
+
+      /**
+       * @param reservation the reservation whose seats are held
+       */
+      private Hold(ReservationData reservation) {
+         this.reservation = reservation;
+         state = new AtomicInteger(HELD);
+      }
+
+      /**
+       * @return the reservation whose seats are held
+       */
+      public ReservationData getReservation() {
+         return reservation;
+      }
+
+      /**
+       * Books the held seats for good, if the hold has not ended
+       * @return true if the seats were booked, or false if the hold had
+       *         already expired or been released
+       */
+      public boolean confirm() {
+         if (!end(CONFIRMED)) {
+            return false;
+         }
+         confirmed.increment();
+         timeout.cancel();
+         return true;
+      }
+
+      /**
+       * Gives back the held seats, if the hold has not ended
+       * @return true if the seats were given back, or false if the hold
+       *         had already been confirmed, expired, or been released
+       */
+      public boolean release() {
+         if (!end(RELEASED)) {
+            return false;
+         }
+         released.increment();
+         timeout.cancel();
+         inventory.release(reservation);
+         return true;
+      }
+
+      /**
+       * @return true if the seats are still held
+       */
+      public boolean isHeld() {
+         return state.get() == HELD;
+      }
+
+      /**
+       * @return true if the hold expired before it was confirmed
+       */
+      public boolean isExpired() {
+         return state.get() == EXPIRED;
+      }
+
+      /**
+       * Expires the hold, giving back its seats.  Only the timing wheel
+       * calls this.
+       */
+      @Override
+      public void run() {
+         if (end(EXPIRED)) {
+            expired.increment();
+            inventory.release(reservation);
+         }
+      }
+
+      /**
+       * Private helper function to end the hold, if it has not ended
+       */
+      private boolean end(int newState) {
+         if (!state.compareAndSet(HELD, newState)) {
+            return false;
+         }
+         outstanding.decrement();
+         return true;
+      }
+   }
+}
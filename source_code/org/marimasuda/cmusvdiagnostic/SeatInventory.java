@@ -0,0 +1,281 @@
+/**
+ * SeatInventory.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the seats left on every flight, where a flight is a route
+ * (a departure city and an arrival city, by CityDictionary ID) and a
+ * departure date and hour (see PackedDate).  A flight that has not been
+ * booked yet has the default capacity given to the constructor.
+ *
+ * Each flight's count of free seats is its own AtomicInteger, and seats are
+ * taken from it with a compare-and-set loop, so no lock is ever held.
+ * Bookings for different flights touch different counters and never wait
+ * for one another; bookings for the same flight only retry when another
+ * booking changed the count in between, which getRetryCount() reports.
+ * Looking up a flight's counter in the ConcurrentHashMap does not lock
+ * either, except the first time the flight is booked.
+ */
+public class SeatInventory {
+   /** the system property that sets how many seats each flight in the
+    * default inventory has
+    */
+   public static final String SEATS_PER_FLIGHT_PROPERTY =
+      "cmusvdiagnostic.seatsPerFlight";
+
+   /** the number of seats on each flight if the property is not set */
+   private static final int DEFAULT_SEATS_PER_FLIGHT = 150;
+
+   /** the inventory shared by the whole program */
+   private static final SeatInventory DEFAULT = new SeatInventory(
+         Integer.getInteger(SEATS_PER_FLIGHT_PROPERTY,
+                            DEFAULT_SEATS_PER_FLIGHT));
+
+   /** the number of seats on a flight that has not been booked yet */
+   private final int seatsPerFlight;
+
+   /** the number of free seats on every flight booked so far */
+   private final ConcurrentHashMap<Flight, AtomicInteger> freeSeats;
+
+   /** the number of successful reservations */
+   private final LongAdder reservations;
+
+   /** the number of reservations refused for lack of seats */
+   private final LongAdder rejections;
+
+   /** the number of times a compare-and-set lost to another booking */
+   private final LongAdder retries;
+
+   /**
+    * Creates a new inventory in which no seats have been taken
+    * @param seatsPerFlight the number of seats on each flight
+    */
+   public SeatInventory(int seatsPerFlight) {
+      if (seatsPerFlight < 0) {
+         throw new IllegalArgumentException(
+               "Invalid number of seats: " + seatsPerFlight);
+      }
+      this.seatsPerFlight = seatsPerFlight;
+      freeSeats = new ConcurrentHashMap<Flight, AtomicInteger>();
+      reservations = new LongAdder();
+      rejections = new LongAdder();
+      retries = new LongAdder();
+   }
+
+   /**
+    * @return the inventory shared by the whole program, whose flights have
+    * the number of seats given by SEATS_PER_FLIGHT_PROPERTY
+    */
+   public static SeatInventory getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * @return the number of seats on a flight that has not been booked yet
+    */
+   public int getSeatsPerFlight() {
+      return seatsPerFlight;
+   }
+
+   /**
+    * @param departureCityId the CityDictionary ID of the departure city
+    * @param arrivalCityId the CityDictionary ID of the arrival city
+    * @param date the packed departure date and hour (see PackedDate)
+    * @return the number of free seats on the flight
+    */
+   public int getFreeSeats(int departureCityId, int arrivalCityId,
+                           int date) {
+      AtomicInteger seats =
+         freeSeats.get(new Flight(departureCityId, arrivalCityId, date));
+      return (seats == null ? seatsPerFlight : seats.get());
+   }
+
+   /**
+    * Takes seats on one flight if there are enough of them.  Either all of
+    * the seats are taken or none are.
+    * @param departureCityId the CityDictionary ID of the departure city
+    * @param arrivalCityId the CityDictionary ID of the arrival city
+    * @param date the packed departure date and hour (see PackedDate)
+    * @param numSeats the number of seats to take
+    * @return true if the seats were taken, or false if there were not
+    *         enough free seats
+    */
+   public boolean reserve(int departureCityId, int arrivalCityId, int date,
+                          int numSeats) {
+      if (numSeats < 0) {
+         throw new IllegalArgumentException(
+               "Invalid number of seats: " + numSeats);
+      }
+      AtomicInteger seats = getSeats(departureCityId, arrivalCityId, date);
+      while (true) {
+         int free = seats.get();
+         if (free < numSeats) {
+            rejections.increment();
+            return false;
+         }
+         if (seats.compareAndSet(free, free - numSeats)) {
+            reservations.increment();
+            return true;
+         }
+         retries.increment();
+      }
+   }
+
+   /**
+    * Gives back seats taken by reserve()
+    * @param departureCityId the CityDictionary ID of the departure city
+    * @param arrivalCityId the CityDictionary ID of the arrival city
+    * @param date the packed departure date and hour (see PackedDate)
+    * @param numSeats the number of seats to give back
+    */
+   public void release(int departureCityId, int arrivalCityId, int date,
+                       int numSeats) {
+      getSeats(departureCityId, arrivalCityId, date).addAndGet(numSeats);
+   }
+
+   /**
+    * Takes one seat per passenger on both flights of a round trip: from the
+    * departure city to the arrival city on the departure date, and back on
+    * the return date.  Either every seat is taken or none are; if the
+    * return flight is full, the seats already taken on the outbound flight
+    * are given back.
+    * @param reservation a valid reservation
+    * @return true if the seats were taken
+    */
+   public boolean reserve(ReservationData reservation) {
+      int from = Reservation.internDepartureCity(reservation);
+      int to = Reservation.internArrivalCity(reservation);
+      int numSeats = reservation.getNumPassengers();
+      if (!reserve(from, to, reservation.getDepartureDate(), numSeats)) {
+         return false;
+      }
+      if (!reserve(to, from, reservation.getReturnDate(), numSeats)) {
+         release(from, to, reservation.getDepartureDate(), numSeats);
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Gives back the seats taken by reserve(ReservationData)
+    * @param reservation a reservation whose seats were taken
+    */
+   public void release(ReservationData reservation) {
+      int from = Reservation.internDepartureCity(reservation);
+      int to = Reservation.internArrivalCity(reservation);
+      int numSeats = reservation.getNumPassengers();
+      release(from, to, reservation.getDepartureDate(), numSeats);
+      release(to, from, reservation.getReturnDate(), numSeats);
+   }
+
+   /**
+    * @return the number of flights that have been booked at least once
+    */
+   public int getFlightCount() {
+      return freeSeats.size();
+   }
+
+   /**
+    * @return the number of successful calls to reserve() for one flight
+    */
+   public long getReservationCount() {
+      return reservations.sum();
+   }
+
+   /**
+    * @return the number of calls to reserve() for one flight that were
+    * refused for lack of seats
+    */
+   public long getRejectionCount() {
+      return rejections.sum();
+   }
+
+   /**
+    * @return the number of times a booking had to retry because another
+    * booking for the same flight changed the count of free seats first
+    */
+   public long getRetryCount() {
+      return retries.sum();
+   }
+
+   /**
+    * @return a one-line summary such as
+    * "flights=3 reservations=10 rejections=1 retries=0"
+    */
+   @Override
+   public String toString() {
+      return "flights=" + getFlightCount()
+             + " reservations=" + getReservationCount()
+             + " rejections=" + getRejectionCount()
+             + " retries=" + getRetryCount();
+   }
+
+   /**
+    * Private helper function to find the counter of free seats on a
+    * flight, creating it the first time the flight is booked
+    */
+   private AtomicInteger getSeats(int departureCityId, int arrivalCityId,
+                                  int date) {
+      Flight flight = new Flight(departureCityId, arrivalCityId, date);
+      AtomicInteger seats = freeSeats.get(flight);
+      if (seats == null) {
+         AtomicInteger created = new AtomicInteger(seatsPerFlight);
+         seats = freeSeats.putIfAbsent(flight, created);
+         if (seats == null) {
+            seats = created;
+         }
+      }
+      return seats;
+   }
+
+   /**
+    * Inner class identifying a flight by its route and departure date
+    */
+   private static final class Flight {
+      /** the CityDictionary ID of the departure city */
+      private final int departureCityId;
+
+      /** the CityDictionary ID of the arrival city */
+      private final int arrivalCityId;
+
+      /** the packed departure date and hour (see PackedDate) */
+      private final int date;
+
+      /**
+       * @param departureCityId the CityDictionary ID of the departure city
+       * @param arrivalCityId the CityDictionary ID of the arrival city
+       * @param date the packed departure date and hour
+       */
+      private Flight(int departureCityId, int arrivalCityId, int date) {
+         this.departureCityId = departureCityId;
+         this.arrivalCityId = arrivalCityId;
+         this.date = date;
+      }
+
+      @Override
+      public boolean equals(Object other) {
+         if (!(other instanceof Flight)) {
+            return false;
+         }
+         Flight flight = (Flight) other;
+         return departureCityId == flight.departureCityId
+                && arrivalCityId == flight.arrivalCityId
+                && date == flight.date;
+      }
+
+      @Override
+      public int hashCode() {
+         return (departureCityId * 31 + arrivalCityId) * 31 + date;
+      }
+   }
+}
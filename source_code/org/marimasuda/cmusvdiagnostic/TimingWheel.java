@@ -0,0 +1,421 @@
+/**
+ * TimingWheel.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs tasks after a delay, like a ScheduledExecutorService, but cheaply
+ * enough to keep millions of them pending at once, e.g., one per seat
+ * hold (see SeatHolds).  Time is divided into ticks, and a task runs on
+ * the first tick at or after its deadline, so it may run up to one tick
+ * late; getExpiryLag() reports how late tasks actually ran.
+ *
+ * Pending tasks are kept in a hierarchical timing wheel: LEVELS wheels of
+ * SLOTS slots each, where a slot of the lowest wheel covers one tick and a
+ * slot of each higher wheel covers all SLOTS slots of the wheel below it.
+ * A task is put straight into the slot that covers its deadline, and each
+ * slot is a doubly linked list, so scheduling and cancelling a task are
+ * O(1) however many tasks are pending.  When the lowest wheel comes round,
+ * the tasks in the next slot of the wheel above are moved down, so every
+ * task is moved at most LEVELS - 1 times before it runs.
+ *
+ * The wheels belong to one daemon thread, which also runs the tasks, so a
+ * task must be short.  Other threads never touch the wheels: schedule()
+ * and Timeout.cancel() only add to lock-free queues that the wheel thread
+ * drains on each tick.  A task that throws does not stop the others: the
+ * exception is counted (see getFailedCount()) and passed to the thread's
+ * UncaughtExceptionHandler, which by default prints its stack trace.
+ */
+public class TimingWheel {
+   /** the number of bits of a tick number that select a slot */
+   private static final int SLOT_BITS = 6;
+
+   /** the number of slots in each wheel */
+   public static final int SLOTS = 1 << SLOT_BITS;
+
+   /** masks the bits of a tick number that select a slot */
+   private static final int SLOT_MASK = SLOTS - 1;
+
+   /** the number of wheels.  Together they cover SLOTS^LEVELS ticks; a
+    * task due further away than that waits in the highest wheel and is
+    * moved again when its slot comes round.
+    */
+   public static final int LEVELS = 4;
+
+   /** the largest number of ticks ahead that the wheels can hold */
+   private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+   /** the state of a task that is waiting to run */
+   private static final int PENDING = 0;
+
+   /** the state of a task that was cancelled */
+   private static final int CANCELLED = 1;
+
+   /** the state of a task that has run */
+   private static final int EXPIRED = 2;
+
+   /** the length of a tick in nanoseconds */
+   private final long tickNanos;
+
+   /** the time of tick 0, from System.nanoTime() */
+   private final long startNanos;
+
+   /** the first task in each slot, indexed by level * SLOTS + slot */
+   private final Timeout[] slots;
+
+   /** tasks scheduled since the last tick, not yet in a slot */
+   private final ConcurrentLinkedQueue<Timeout> additions;
+
+   /** tasks cancelled since the last tick, still to be unlinked */
+   private final ConcurrentLinkedQueue<Timeout> cancellations;
+
+   /** the number of tasks that have not run or been cancelled */
+   private final LongAdder pending;
+
+   /** the number of tasks that have run */
+   private final LongAdder expired;
+
+   /** the number of tasks that threw an exception */
+   private final LongAdder failed;
+
+   /** how late each task ran, compared to its deadline */
+   private final LatencyHistogram expiryLag;
+
+   /** advances the wheels and runs the tasks */
+   private final Thread worker;
+
+   /** the number of the last tick processed.  Only used by the worker. */
+   private long currentTick;
+
+   /** false once stop() has been called */
+   private volatile boolean running;
+
+   /**
+    * Creates a new timing wheel and starts its thread
+    * @param tick the length of a tick, which is how late a task may run
+    * @param unit the unit of tick
+    * @param name the name of the wheel's thread
+    */
+   public TimingWheel(long tick, TimeUnit unit, String name) {
+      tickNanos = unit.toNanos(tick);
+      if (tickNanos <= 0) {
+         throw new IllegalArgumentException("The tick must be positive");
+      }
+      slots = new Timeout[LEVELS * SLOTS];
+      additions = new ConcurrentLinkedQueue<Timeout>();
+      cancellations = new ConcurrentLinkedQueue<Timeout>();
+      pending = new LongAdder();
+      expired = new LongAdder();
+      failed = new LongAdder();
+      expiryLag = new LatencyHistogram();
+      currentTick = 0;
+      running = true;
+      startNanos = System.nanoTime();
+      worker = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            work();
+         }
+      }, name);
+      worker.setDaemon(true);
+      worker.start();
+   }
+
+   /**
+    * Schedules a task to run once, on the wheel's thread, after a delay
+    * @param task the task, which must not block
+    * @param delay how long to wait
+    * @param unit the unit of delay
+    * @return a handle with which the task can be cancelled
+    */
+   public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+      long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+      Timeout timeout = new Timeout(task, deadline);
+      pending.increment();
+      additions.add(timeout);
+      return timeout;
+   }
+
+   /**
+    * Stops the wheel's thread.  Tasks that have not run yet never will.
+    */
+   public void stop() {
+      running = false;
+      LockSupport.unpark(worker);
+   }
+
+   /**
+    * @return the number of tasks that have neither run nor been cancelled
+    */
+   public long getPendingCount() {
+      return pending.sum();
+   }
+
+   /**
+    * @return the number of tasks that have run
+    */
+   public long getExpiredCount() {
+      return expired.sum();
+   }
+
+   /**
+    * @return the number of tasks that threw an exception, each of which
+    * was also passed to the wheel thread's UncaughtExceptionHandler
+    */
+   public long getFailedCount() {
+      return failed.sum();
+   }
+
+   /**
+    * @return how late each task ran compared to its deadline, which is at
+    * most about one tick unless the wheel's thread falls behind
+    */
+   public LatencyHistogram getExpiryLag() {
+      return expiryLag;
+   }
+
+   /**
+    * @return a one-line summary such as
+    * "pending=3 expired=10 failed=0 lag: count=10 mean=..."
+    */
+   @Override
+   public String toString() {
+      return "pending=" + getPendingCount()
+             + " expired=" + getExpiredCount()
+             + " failed=" + getFailedCount()
+             + " lag: " + expiryLag;
+   }
+
+   /**
+    * Private helper function run by the wheel's thread: waits for each
+    * tick and processes it
+    */
+   private void work() {
+      while (running) {
+         long next = startNanos + (currentTick + 1) * tickNanos;
+         long wait = next - System.nanoTime();
+         if (wait > 0) {
+            LockSupport.parkNanos(this, wait);
+            continue;
+         }
+         currentTick++;
+         cascade();
+         removeCancelled();
+         addScheduled();
+         expire((int) (currentTick & SLOT_MASK));
+      }
+   }
+
+   /**
+    * Private helper function to move the tasks of higher wheels down when
+    * the wheels below them come round
+    */
+   private void cascade() {
+      for (int level = 1; level < LEVELS; level++) {
+         if (((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+            return;
+         }
+         int index = level * SLOTS
+                     + (int) ((currentTick >>> (SLOT_BITS * level))
+                              & SLOT_MASK);
+         Timeout timeout = slots[index];
+         slots[index] = null;
+         while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+         }
+      }
+   }
+
+   /**
+    * Private helper function to unlink the tasks cancelled since the last
+    * tick
+    */
+   private void removeCancelled() {
+      Timeout timeout;
+      while ((timeout = cancellations.poll()) != null) {
+         if (timeout.slot >= 0) {
+            unlink(timeout);
+         }
+      }
+   }
+
+   /**
+    * Private helper function to put the tasks scheduled since the last
+    * tick into their slots
+    */
+   private void addScheduled() {
+      Timeout timeout;
+      while ((timeout = additions.poll()) != null) {
+         if (timeout.state.get() == PENDING) {
+            long ticks = timeout.deadline - startNanos;
+            // the first tick at or after the deadline
+            timeout.deadlineTick = (ticks + tickNanos - 1) / tickNanos;
+            place(timeout);
+         }
+      }
+   }
+
+   /**
+    * Private helper function to put a task into the slot that covers its
+    * deadline, relative to the current tick.  A task that is already due
+    * goes into the current slot of the lowest wheel.
+    */
+   private void place(Timeout timeout) {
+      long tick = Math.max(timeout.deadlineTick, currentTick);
+      long delta = Math.min(tick - currentTick, MAX_DELTA);
+      tick = currentTick + delta;
+      int level = 0;
+      while (delta >= SLOTS) {
+         delta >>>= SLOT_BITS;
+         level++;
+      }
+      int index = level * SLOTS
+                  + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+      timeout.slot = index;
+      timeout.prev = null;
+      timeout.next = slots[index];
+      if (slots[index] != null) {
+         slots[index].prev = timeout;
+      }
+      slots[index] = timeout;
+   }
+
+   /**
+    * Private helper function to remove a task from its slot
+    */
+   private void unlink(Timeout timeout) {
+      if (timeout.prev == null) {
+         slots[timeout.slot] = timeout.next;
+      } else {
+         timeout.prev.next = timeout.next;
+      }
+      if (timeout.next != null) {
+         timeout.next.prev = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.slot = -1;
+   }
+
+   /**
+    * Private helper function to run the tasks in a slot of the lowest
+    * wheel
+    */
+   private void expire(int slot) {
+      Timeout timeout = slots[slot];
+      slots[slot] = null;
+      while (timeout != null) {
+         Timeout next = timeout.next;
+         timeout.prev = null;
+         timeout.next = null;
+         timeout.slot = -1;
+         if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+            pending.decrement();
+            expired.increment();
+            expiryLag.record(Math.max(0, System.nanoTime()
+                                         - timeout.deadline));
+            try {
+               timeout.task.run();
+            } catch (RuntimeException re) {
+               // one failing task must not stop the others
+               failed.increment();
+               worker.getUncaughtExceptionHandler()
+                     .uncaughtException(worker, re);
+            }
+         }
+         timeout = next;
+      }
+   }
+
+   /**
+    * A task scheduled on a TimingWheel
+    */
+   public final class Timeout {
+      /** the task to run */
+      private final Runnable task;
+
+      /** when the task is due, from System.nanoTime() */
+      private final long deadline;
+
+      /** PENDING, CANCELLED, or EXPIRED */
+      private final AtomicInteger state;
+
+      /** the tick on which the task is due.  Only used by the worker. */
+      private long deadlineTick;
+
+      /** the index of the slot holding the task, or -1 if it is in none.
+       * Only used by the worker.
+       */
+      private int slot;
+
+      /** the previous task in the slot.  Only used by the worker. */
+      private Timeout prev;
+
+      /** the next task in the slot.  Only used by the worker. */
+      private Timeout next;
+
+      /**
+       * @param task the task to run
+       * @param deadline when the task is due, from System.nanoTime()
+       */
+      private Timeout(Runnable task, long deadline) {
+         this.task = task;
+         this.deadline = deadline;
+         state = new AtomicInteger(PENDING);
+         slot = -1;
+      }
+
+      /**
+       * Prevents the task from running, if it has not run yet
+       * @return true if the task was cancelled, or false if it had already
+       *         run or been cancelled
+       */
+      public boolean cancel() {
+         if (!state.compareAndSet(PENDING, CANCELLED)) {
+            return false;
+         }
+         pending.decrement();
+         cancellations.add(this);
+         return true;
+      }
+
+      /**
+       * @return true if the task was cancelled before it ran
+       */
+      public boolean isCancelled() {
+         return state.get() == CANCELLED;
+      }
+
+      /**
+       * @return true if the task has run, or is running
+       */
+      public boolean isExpired() {
+         return state.get() == EXPIRED;
+      }
+
+      /**
+       * @param unit the unit of the result
+       * @return how long until the task is due, which is negative once it
+       *         is overdue
+       */
+      public long getDelay(TimeUnit unit) {
+         return unit.convert(deadline - System.nanoTime(),
+                             TimeUnit.NANOSECONDS);
+      }
+   }
+}
@@ -0,0 +1,297 @@
+/**
+ * ValidationMetrics.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts how the business rules behave: how many reservations were
+ * validated, how often each ValidationRule failed, how often the "any
+ * time" same-day exception of rule 5 was applied, and how long each
+ * validation took.  A ReservationValidator created with a ValidationMetrics
+ * records into it on every validation.
+ *
+ * Recording never locks.  The counters are LongAdders and the latencies go
+ * into a LatencyHistogram, both of which spread concurrent updates over
+ * several cells, so validating on many threads does not make them wait for
+ * one another.
+ *
+ * The metrics can be read through JMX (see ValidationMetricsMBean and
+ * register()) or as plain text (see dump()).  The instance returned by
+ * getDefault(), which ReservationController uses, is registered as
+ * "org.marimasuda.cmusvdiagnostic:type=ValidationMetrics,name=default".
+ */
+public class ValidationMetrics implements ValidationMetricsMBean {
+   /** the JMX domain of every ValidationMetrics */
+   public static final String JMX_DOMAIN = "org.marimasuda.cmusvdiagnostic";
+
+   /** the number of nanoseconds in one microsecond */
+   private static final double NANOS_PER_MICRO = 1000.0;
+
+   /** every outcome, in declaration order */
+   private static final ValidationRule[] RULES = ValidationRule.values();
+
+   /** the metrics shared by the whole program, created on first use */
+   private static ValidationMetrics defaultMetrics;
+
+   /** the number of reservations validated */
+   private final LongAdder validations;
+
+   /** the number of reservations that failed at least one rule */
+   private final LongAdder invalid;
+
+   /** the number of failures of each rule, indexed by ordinal */
+   private final LongAdder[] failures;
+
+   /** the number of validations in which rule 5 ran and applied the "any
+    * time" exception.  A result reused because nothing changed is not
+    * counted again.
+    */
+   private final LongAdder anyTimeExceptions;
+
+   /** the time each validation took */
+   private final LatencyHistogram latencies;
+
+   /**
+    * Creates a new set of metrics, all 0.  It is not visible through JMX
+    * until register() is called.
+    */
+   public ValidationMetrics() {
+      validations = new LongAdder();
+      invalid = new LongAdder();
+      failures = new LongAdder[RULES.length];
+      for (int i = 0; i < failures.length; i++) {
+         failures[i] = new LongAdder();
+      }
+      anyTimeExceptions = new LongAdder();
+      latencies = new LatencyHistogram();
+   }
+
+   /**
+    * Returns the metrics shared by the whole program, registering them
+    * with the platform MBean server the first time
+    * @return the shared metrics
+    */
+   public static synchronized ValidationMetrics getDefault() {
+      if (defaultMetrics == null) {
+         defaultMetrics = new ValidationMetrics();
+         try {
+            defaultMetrics.register("default");
+         } catch (JMException jme) {
+            // the metrics still work, they just cannot be seen through JMX
+            System.err.println("Could not register validation metrics: "
+                               + jme);
+         }
+      }
+      return defaultMetrics;
+   }
+
+   /**
+    * Registers these metrics with the platform MBean server
+    * @param name distinguishes these metrics from any others
+    * @return the name under which they were registered
+    * @throws JMException if they cannot be registered, e.g., because the
+    *         name is already taken
+    */
+   public ObjectName register(String name) throws JMException {
+      ObjectName objectName = new ObjectName(
+            JMX_DOMAIN + ":type=ValidationMetrics,name="
+            + ObjectName.quote(name));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      server.registerMBean(this, objectName);
+      return objectName;
+   }
+
+   /**
+    * Records one validation
+    * @param result the outcome
+    * @param anyTimeException true if rule 5 ran during this validation and
+    *                         accepted the return date only because of the
+    *                         "any time" exception
+    * @param elapsedNanos how long the validation took
+    */
+   public void record(ValidationResult result,
+                      boolean anyTimeException,
+                      long elapsedNanos) {
+      validations.increment();
+      Set<ValidationRule> failed = result.getFailures();
+      if (!failed.isEmpty()) {
+         invalid.increment();
+         for (ValidationRule rule : RULES) {
+            if (failed.contains(rule)) {
+               failures[rule.ordinal()].increment();
+            }
+         }
+      }
+      if (anyTimeException) {
+         anyTimeExceptions.increment();
+      }
+      latencies.record(elapsedNanos);
+   }
+
+   /**
+    * @param rule an outcome
+    * @return the number of times the rule failed
+    */
+   public long getFailureCount(ValidationRule rule) {
+      return failures[rule.ordinal()].sum();
+   }
+
+   /**
+    * @return the latencies of the validations
+    */
+   public LatencyHistogram getLatencies() {
+      return latencies;
+   }
+
+   @Override
+   public long getTotalValidations() {
+      return validations.sum();
+   }
+
+   @Override
+   public long getValidCount() {
+      return validations.sum() - invalid.sum();
+   }
+
+   @Override
+   public long getInvalidCount() {
+      return invalid.sum();
+   }
+
+   @Override
+   public long getDepartureCityBlankCount() {
+      return getFailureCount(ValidationRule.DEPARTURE_CITY_BLANK);
+   }
+
+   @Override
+   public long getArrivalCityBlankCount() {
+      return getFailureCount(ValidationRule.ARRIVAL_CITY_BLANK);
+   }
+
+   @Override
+   public long getNumPassengersOutOfRangeCount() {
+      return getFailureCount(ValidationRule.NUM_PASSENGERS_OUT_OF_RANGE);
+   }
+
+   @Override
+   public long getDepartureDateOutOfRangeCount() {
+      return getFailureCount(ValidationRule.DEPARTURE_DATE_OUT_OF_RANGE);
+   }
+
+   @Override
+   public long getDepartureDateNotSetCount() {
+      return getFailureCount(ValidationRule.DEPARTURE_DATE_NOT_SET);
+   }
+
+   @Override
+   public long getReturnDateOutOfRangeCount() {
+      return getFailureCount(ValidationRule.RETURN_DATE_OUT_OF_RANGE);
+   }
+
+   @Override
+   public long getReturnDateNotSetCount() {
+      return getFailureCount(ValidationRule.RETURN_DATE_NOT_SET);
+   }
+
+   @Override
+   public long getReturnBeforeDepartureCount() {
+      return getFailureCount(ValidationRule.RETURN_BEFORE_DEPARTURE);
+   }
+
+   @Override
+   public long getAnyTimeExceptionCount() {
+      return anyTimeExceptions.sum();
+   }
+
+   @Override
+   public double getMeanLatencyMicros() {
+      return latencies.getMean() / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getP50LatencyMicros() {
+      return latencies.getPercentile(50) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getP99LatencyMicros() {
+      return latencies.getPercentile(99) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getP999LatencyMicros() {
+      return latencies.getPercentile(99.9) / NANOS_PER_MICRO;
+   }
+
+   @Override
+   public double getMaxLatencyMicros() {
+      return latencies.getMax() / NANOS_PER_MICRO;
+   }
+
+   /**
+    * @return every metric as plain text, one "name value" pair per line,
+    *         e.g., "validations.total 42"
+    */
+   @Override
+   public String dump() {
+      StringBuilder text = new StringBuilder();
+      long total = validations.sum();
+      long failed = invalid.sum();
+      text.append("validations.total ").append(total).append('\n');
+      text.append("validations.valid ").append(total - failed).append('\n');
+      text.append("validations.invalid ").append(failed).append('\n');
+      for (ValidationRule rule : RULES) {
+         text.append("failures.").append(rule.name()).append(' ')
+             .append(failures[rule.ordinal()].sum()).append('\n');
+      }
+      text.append("rule5.anyTimeExceptions ")
+          .append(anyTimeExceptions.sum()).append('\n');
+      text.append(String.format(Locale.US,
+            "latency.meanMicros %.3f\n"
+            + "latency.p50Micros %.3f\n"
+            + "latency.p90Micros %.3f\n"
+            + "latency.p99Micros %.3f\n"
+            + "latency.p999Micros %.3f\n"
+            + "latency.maxMicros %.3f\n",
+            getMeanLatencyMicros(),
+            getP50LatencyMicros(),
+            latencies.getPercentile(90) / NANOS_PER_MICRO,
+            getP99LatencyMicros(),
+            getP999LatencyMicros(),
+            getMaxLatencyMicros()));
+      return text.toString();
+   }
+
+   @Override
+   public void reset() {
+      validations.reset();
+      invalid.reset();
+      for (LongAdder counter : failures) {
+         counter.reset();
+      }
+      anyTimeExceptions.reset();
+      latencies.reset();
+   }
+
+   /**
+    * @return the same text as dump()
+    */
+   @Override
+   public String toString() {
+      return dump();
+   }
+}
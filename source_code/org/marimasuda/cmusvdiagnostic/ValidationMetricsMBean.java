@@ -0,0 +1,113 @@
+/**
+ * ValidationMetricsMBean.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * The management interface of ValidationMetrics, as seen through JMX,
+ * e.g., in jconsole.  Times are in microseconds.
+ */
+public interface ValidationMetricsMBean {
+   /**
+    * @return the number of reservations validated
+    */
+   long getTotalValidations();
+
+   /**
+    * @return the number of reservations that passed every rule
+    */
+   long getValidCount();
+
+   /**
+    * @return the number of reservations that failed at least one rule
+    */
+   long getInvalidCount();
+
+   /**
+    * @return the number of times the departure city was blank
+    */
+   long getDepartureCityBlankCount();
+
+   /**
+    * @return the number of times the arrival city was blank
+    */
+   long getArrivalCityBlankCount();
+
+   /**
+    * @return the number of times the number of passengers was out of range
+    */
+   long getNumPassengersOutOfRangeCount();
+
+   /**
+    * @return the number of times the departure date was out of range
+    */
+   long getDepartureDateOutOfRangeCount();
+
+   /**
+    * @return the number of times the departure date was not set
+    */
+   long getDepartureDateNotSetCount();
+
+   /**
+    * @return the number of times the return date was out of range
+    */
+   long getReturnDateOutOfRangeCount();
+
+   /**
+    * @return the number of times the return date was not set
+    */
+   long getReturnDateNotSetCount();
+
+   /**
+    * @return the number of times the return date was before the departure
+    *         date
+    */
+   long getReturnBeforeDepartureCount();
+
+   /**
+    * @return the number of times rule 5 ran and accepted a same-day return
+    *         at "any time" even though its hour is before the departure
+    *         hour
+    */
+   long getAnyTimeExceptionCount();
+
+   /**
+    * @return the mean validation latency in microseconds
+    */
+   double getMeanLatencyMicros();
+
+   /**
+    * @return the median validation latency in microseconds
+    */
+   double getP50LatencyMicros();
+
+   /**
+    * @return the 99th percentile validation latency in microseconds
+    */
+   double getP99LatencyMicros();
+
+   /**
+    * @return the 99.9th percentile validation latency in microseconds
+    */
+   double getP999LatencyMicros();
+
+   /**
+    * @return the largest validation latency in microseconds
+    */
+   double getMaxLatencyMicros();
+
+   /**
+    * @return every metric as plain text, one per line
+    */
+   String dump();
+
+   /**
+    * Sets every metric back to 0
+    */
+   void reset();
+}
@@ -0,0 +1,27 @@
+/**
+ * ValidationMode.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * Determines how much of the validation pipeline ReservationValidator runs
+ * for each reservation.
+ */
+public enum ValidationMode {
+   /** run every rule and report every error, e.g., to give the user
+    * feedback on the whole form
+    */
+   FULL_REPORT,
+
+   /** stop after the first rule that reports an error, e.g., to filter a
+    * large batch where only valid/invalid matters.  The result then holds
+    * the errors of that one rule and the itinerary lines of the rules
+    * before it.
+    */
+   FAIL_FAST
+}
@@ -0,0 +1,94 @@
+/**
+ * ValidationResult.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The immutable outcome of validating a Reservation: whether it passed,
+ * the error messages that were generated, the rules that failed, and the
+ * itinerary.  The text returned by getErrorMessages() and getItinerary() is
+ * exactly what is shown to the user.
+ */
+public final class ValidationResult {
+   /** the error messages in the order they were generated */
+   private final List<String> errors;
+
+   /** the error messages joined into the text shown to the user */
+   private final String errorMessages;
+
+   /** the rules that failed */
+   private final Set<ValidationRule> failures;
+
+   /** the itinerary shown to the user */
+   private final String itinerary;
+
+   /**
+    * Creates a new ValidationResult.  The collections are copied so that
+    * later changes to the arguments do not affect this result.
+    * @param errors the error messages, each without a trailing newline
+    * @param failures the rules that failed
+    * @param itinerary the itinerary text
+    */
+   public ValidationResult(List<String> errors,
+                           Set<ValidationRule> failures,
+                           String itinerary) {
+      this.errors = Collections.unmodifiableList(new ArrayList<String>(errors));
+      this.failures = Collections.unmodifiableSet(
+            failures.isEmpty()
+               ? EnumSet.noneOf(ValidationRule.class)
+               : EnumSet.copyOf(failures));
+      this.itinerary = itinerary;
+      StringBuilder joined = new StringBuilder();
+      for (String error : errors) {
+         joined.append(error).append("\n");
+      }
+      this.errorMessages = joined.toString();
+   }
+
+   /**
+    * @return true if no error messages were generated
+    */
+   public boolean isValid() {
+      return errors.isEmpty();
+   }
+
+   /**
+    * @return an unmodifiable list of the error messages, each without a
+    *         trailing newline
+    */
+   public List<String> getErrors() {
+      return errors;
+   }
+
+   /**
+    * @return the error messages, one per line, as shown to the user
+    */
+   public String getErrorMessages() {
+      return errorMessages;
+   }
+
+   /**
+    * @return an unmodifiable set of the rules that failed
+    */
+   public Set<ValidationRule> getFailures() {
+      return failures;
+   }
+
+   /**
+    * @return the itinerary, one detail per line, as shown to the user
+    */
+   public String getItinerary() {
+      return itinerary;
+   }
+}
@@ -0,0 +1,70 @@
+/**
+ * ValidationRule.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+/**
+ * Enumerates the ways in which a reservation can fail validation.  Each
+ * constant corresponds to exactly one error message that can be produced
+ * by the business rules, and records which of the numbered business rules
+ * (see ReservationController.isValid()) it enforces.
+ */
+public enum ValidationRule {
+   /** rule 1: the departure city was left blank */
+   DEPARTURE_CITY_BLANK(1, "Departure city cannot be blank"),
+
+   /** rule 2: the arrival city was left blank */
+   ARRIVAL_CITY_BLANK(2, "Arrival city cannot be blank"),
+
+   /** rule 7: the number of passengers is outside the acceptable range */
+   NUM_PASSENGERS_OUT_OF_RANGE(7, "Number of passengers out of range"),
+
+   /** rule 6: the departure date is outside the acceptable range */
+   DEPARTURE_DATE_OUT_OF_RANGE(6, "Departure date out of range"),
+
+   /** rule 3: the departure date was not set */
+   DEPARTURE_DATE_NOT_SET(3, "Departure date not set"),
+
+   /** rule 6: the return date is outside the acceptable range */
+   RETURN_DATE_OUT_OF_RANGE(6, "Return date out of range"),
+
+   /** rule 4: the return date was not set */
+   RETURN_DATE_NOT_SET(4, "Return date not set"),
+
+   /** rule 5: the return date/time is before the departure date/time */
+   RETURN_BEFORE_DEPARTURE(5, "Return before departure");
+
+   /** the number of the business rule this failure enforces */
+   private final int ruleNumber;
+
+   /** a short "human-readable" description used in reports */
+   private final String description;
+
+   /**
+    * @param ruleNumber the number of the business rule being enforced
+    * @param description a short "human-readable" description
+    */
+   private ValidationRule(int ruleNumber, String description) {
+      this.ruleNumber = ruleNumber;
+      this.description = description;
+   }
+
+   /**
+    * @return the number of the business rule this failure enforces
+    */
+   public int getRuleNumber() {
+      return ruleNumber;
+   }
+
+   /**
+    * @return a short "human-readable" description of the failure
+    */
+   public String getDescription() {
+      return description;
+   }
+}
@@ -0,0 +1,491 @@
+/**
+ * ValidationServer.java
+ * Oct. 17, 2026
+ * Copyright © 2026
+ * @version 1.0
+ * @author Mari Masuda
+ */
+
+package org.marimasuda.cmusvdiagnostic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A headless entry point that exposes the reservation business rules as a
+ * local HTTP service, so that other programs can validate reservations
+ * without starting the GUI.  Start it with
+ * <pre>
+ * java org.marimasuda.cmusvdiagnostic.ValidationServer [--bind address] [port]
+ * </pre>
+ * The service has no authentication, so it only listens on the loopback
+ * address unless --bind names another address, e.g., 0.0.0.0 for every
+ * network interface.  POST a reservation to /validate as an HTML form
+ * (application/x-www-form-urlencoded) with the fields departureCity,
+ * arrivalCity, departureDate, returnDate, and numPassengers.  Dates are
+ * written as in ReservationRecordReader, e.g., "2011-03-14 07", or left
+ * empty if unset.  The response is a JSON object such as
+ * <pre>
+ * {"valid":false,
+ *  "errors":["Arrival city cannot be blank."],
+ *  "failures":["ARRIVAL_CITY_BLANK"],
+ *  "itinerary":"From: Boston\n..."}
+ * </pre>
+ * GET /stats returns the server's own latency percentiles and the
+ * ValidationMetrics of its validator as plain text.  The same metrics are
+ * registered through JMX under the name "server-" followed by the port,
+ * e.g., "server-8080", until the server is stopped.
+ *
+ * Every request is handled on its own virtual thread when the JVM supports
+ * them (Java 21 or later), or on a pooled platform thread otherwise.  All
+ * requests share one ReservationValidator, which holds no state.
+ */
+public class ValidationServer {
+   /** the port used when none is given on the command line */
+   public static final int DEFAULT_PORT = 8080;
+
+   /** the largest port number */
+   private static final int MAX_PORT = 0xFFFF;
+
+   /** the largest request body that will be read, in bytes */
+   private static final int MAX_BODY_SIZE = 16 * 1024;
+
+   /** the maximum number of pending connections */
+   private static final int BACKLOG = 1024;
+
+   /** HTTP status: OK */
+   private static final int STATUS_OK = 200;
+
+   /** HTTP status: the request could not be understood */
+   private static final int STATUS_BAD_REQUEST = 400;
+
+   /** HTTP status: the method is not supported by the path */
+   private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+
+   /** HTTP status: the request body is too large */
+   private static final int STATUS_TOO_LARGE = 413;
+
+   /** the system property that makes the JDK's HTTP server send each
+    * packet at once.  Without it, a response whose body follows its headers
+    * waits for the client's delayed acknowledgement, about 40 ms.
+    */
+   private static final String NODELAY_PROPERTY =
+      "sun.net.httpserver.nodelay";
+
+   static {
+      // the HTTP server reads the property once, when it is first used
+      if (System.getProperty(NODELAY_PROPERTY) == null) {
+         System.setProperty(NODELAY_PROPERTY, "true");
+      }
+   }
+
+   /** the validator shared by every request */
+   private final ReservationValidator validator;
+
+   /** the latency of every /validate request, from receipt to response */
+   private final LatencyHistogram latencies;
+
+   /** the underlying HTTP server */
+   private final HttpServer server;
+
+   /** runs the request handlers */
+   private final ExecutorService executor;
+
+   /** the JMX name of the validator's metrics, or null if they could not
+    * be registered
+    */
+   private final ObjectName metricsName;
+
+   /**
+    * Creates a new server that listens on the loopback address only.  It
+    * does not accept requests until start() is called.
+    * @param port the port to listen on, or 0 to pick any free port
+    * @throws IOException if the port cannot be opened
+    */
+   public ValidationServer(int port) throws IOException {
+      this(InetAddress.getLoopbackAddress(), port);
+   }
+
+   /**
+    * Creates a new server.  It does not accept requests until start() is
+    * called.
+    * @param address the address to listen on.  The service has no
+    *                authentication, so anything other than the loopback
+    *                address exposes it to the network.
+    * @param port the port to listen on, or 0 to pick any free port
+    * @throws IOException if the port cannot be opened
+    */
+   public ValidationServer(InetAddress address, int port) throws IOException {
+      ValidationMetrics metrics = new ValidationMetrics();
+      validator = new ReservationValidator(
+            ReservationValidator.getDefaultRules(),
+            ValidationMode.FULL_REPORT,
+            false,
+            metrics);
+      latencies = new LatencyHistogram();
+      server = HttpServer.create(new InetSocketAddress(address, port),
+                                 BACKLOG);
+      server.createContext("/validate", new ValidateHandler());
+      server.createContext("/stats", new StatsHandler());
+      executor = newPerRequestExecutor();
+      server.setExecutor(executor);
+      ObjectName name = null;
+      try {
+         name = metrics.register("server-" + getPort());
+      } catch (JMException jme) {
+         // the metrics are still reported by /stats
+         System.err.println("Could not register validation metrics: " + jme);
+      }
+      metricsName = name;
+   }
+
+   /**
+    * Starts accepting requests
+    */
+   public void start() {
+      server.start();
+   }
+
+   /**
+    * Stops accepting requests, waits up to the given delay for the
+    * requests in progress to finish, and removes the metrics from JMX
+    * @param delaySeconds the longest time to wait
+    */
+   public void stop(int delaySeconds) {
+      server.stop(delaySeconds);
+      executor.shutdown();
+      if (metricsName != null) {
+         try {
+            ManagementFactory.getPlatformMBeanServer()
+                             .unregisterMBean(metricsName);
+         } catch (JMException jme) {
+            // already unregistered by an earlier call
+         }
+      }
+   }
+
+   /**
+    * @return the port the server is listening on
+    */
+   public int getPort() {
+      return server.getAddress().getPort();
+   }
+
+   /**
+    * @return the latency of the /validate requests handled so far
+    */
+   public LatencyHistogram getLatencies() {
+      return latencies;
+   }
+
+   /**
+    * Private helper function to create an executor that runs each task on
+    * a new virtual thread.  Virtual threads were added in Java 21, so the
+    * factory method is looked up by name; older JVMs fall back to a cached
+    * pool of daemon platform threads.
+    */
+   private static ExecutorService newPerRequestExecutor() {
+      try {
+         Method factory =
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+         return (ExecutorService) factory.invoke(null);
+      } catch (ReflectiveOperationException roe) {
+         return Executors.newCachedThreadPool(new ThreadFactory() {
+            /** numbers the threads for debugging */
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+               Thread thread = new Thread(
+                     r, "validation-server-" + count.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+   }
+
+   /**
+    * Inner class to handle POST /validate
+    */
+   private class ValidateHandler implements HttpHandler {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+         long start = System.nanoTime();
+         try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+               exchange.getResponseHeaders().set("Allow", "POST");
+               send(exchange, STATUS_METHOD_NOT_ALLOWED,
+                    "text/plain", "Use POST\n");
+               return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+               send(exchange, STATUS_TOO_LARGE,
+                    "text/plain", "Request body too large\n");
+               return;
+            }
+            Reservation reservation;
+            try {
+               reservation = parseForm(
+                     new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException iae) {
+               send(exchange, STATUS_BAD_REQUEST,
+                    "text/plain", iae.getMessage() + "\n");
+               return;
+            }
+            ValidationResult result = validator.validate(reservation);
+            send(exchange, STATUS_OK, "application/json", toJson(result));
+         } finally {
+            exchange.close();
+            latencies.record(System.nanoTime() - start);
+         }
+      }
+   }
+
+   /**
+    * Inner class to handle GET /stats
+    */
+   private class StatsHandler implements HttpHandler {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+         try {
+            send(exchange, STATUS_OK, "text/plain",
+                 "validate " + latencies + "\n"
+                 + validator.getMetrics().dump());
+         } finally {
+            exchange.close();
+         }
+      }
+   }
+
+   /**
+    * Private helper function to send a complete response
+    */
+   private static void send(HttpExchange exchange,
+                            int status,
+                            String contentType,
+                            String text) throws IOException {
+      byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type",
+                                        contentType + "; charset=utf-8");
+      exchange.sendResponseHeaders(status, bytes.length);
+      OutputStream out = exchange.getResponseBody();
+      out.write(bytes);
+      out.close();
+   }
+
+   /**
+    * Private helper function to read a request body
+    * @return the body, or null if it is larger than MAX_BODY_SIZE
+    */
+   private static byte[] readBody(InputStream in) throws IOException {
+      ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+         body.write(buffer, 0, n);
+         if (body.size() > MAX_BODY_SIZE) {
+            return null;
+         }
+      }
+      return body.toByteArray();
+   }
+
+   /**
+    * Parses a reservation submitted as an HTML form.  Cities are trimmed
+    * just as the GUI trims them; missing cities and dates are treated as
+    * blank and unset, and a missing number of passengers as 1.
+    * @param form the form, e.g., "departureCity=Boston&amp;numPassengers=2"
+    * @return the submitted reservation
+    * @throws IllegalArgumentException if a value is malformed
+    */
+   static Reservation parseForm(String form) {
+      Map<String, String> fields = new HashMap<String, String>();
+      if (!form.isEmpty()) {
+         for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = (equals < 0 ? pair : pair.substring(0, equals));
+            String value = (equals < 0 ? "" : pair.substring(equals + 1));
+            fields.put(decode(name), decode(value));
+         }
+      }
+      String passengers = fields.get("numPassengers");
+      int numPassengers;
+      try {
+         numPassengers = (passengers == null || passengers.trim().isEmpty()
+                          ? 1
+                          : Integer.parseInt(passengers.trim()));
+      } catch (NumberFormatException nfe) {
+         throw new IllegalArgumentException(
+               "Invalid number of passengers: " + passengers, nfe);
+      }
+      return new Reservation(
+            valueOf(fields, "departureCity"),
+            valueOf(fields, "arrivalCity"),
+            ReservationRecordReader.parseDate(valueOf(fields, "departureDate")),
+            ReservationRecordReader.parseDate(valueOf(fields, "returnDate")),
+            numPassengers);
+   }
+
+   /**
+    * Private helper function to look up a trimmed form field
+    */
+   private static String valueOf(Map<String, String> fields, String name) {
+      String value = fields.get(name);
+      return (value == null ? "" : value.trim());
+   }
+
+   /**
+    * Private helper function to decode a URL-encoded form value
+    */
+   private static String decode(String text) {
+      try {
+         return URLDecoder.decode(text, "UTF-8");
+      } catch (UnsupportedEncodingException uee) {
+         throw new IllegalStateException("UTF-8 is always supported", uee);
+      }
+   }
+
+   /**
+    * Converts a validation result into a JSON object
+    * @param result the result to convert
+    * @return the JSON text
+    */
+   static String toJson(ValidationResult result) {
+      StringBuilder json = new StringBuilder(256);
+      json.append("{\"valid\":").append(result.isValid())
+          .append(",\"errors\":[");
+      String separator = "";
+      for (String error : result.getErrors()) {
+         json.append(separator);
+         appendJsonString(json, error);
+         separator = ",";
+      }
+      json.append("],\"failures\":[");
+      separator = "";
+      for (ValidationRule rule : result.getFailures()) {
+         json.append(separator).append('"').append(rule.name()).append('"');
+         separator = ",";
+      }
+      json.append("],\"itinerary\":");
+      appendJsonString(json, result.getItinerary());
+      json.append("}\n");
+      return json.toString();
+   }
+
+   /**
+    * Private helper function to append a quoted, escaped JSON string
+    */
+   private static void appendJsonString(StringBuilder json, String text) {
+      json.append('"');
+      for (int i = 0; i < text.length(); i++) {
+         char c = text.charAt(i);
+         switch (c) {
+            case '"':
+               json.append("\\\"");
+               break;
+            case '\\':
+               json.append("\\\\");
+               break;
+            case '\n':
+               json.append("\\n");
+               break;
+            case '\r':
+               json.append("\\r");
+               break;
+            case '\t':
+               json.append("\\t");
+               break;
+            default:
+               if (c < 0x20) {
+                  json.append(String.format("\\u%04x", (int) c));
+               } else {
+                  json.append(c);
+               }
+         }
+      }
+      json.append('"');
+   }
+
+   /**
+    * Starts the server from the command line
+    * <pre>
+    * usage: ValidationServer [--bind address] [port]
+    * </pre>
+    * The server listens on the loopback address and DEFAULT_PORT unless
+    * told otherwise.
+    * @param args the command line arguments
+    * @throws IOException if the port cannot be opened
+    */
+   public static void main(String[] args) throws IOException {
+      try {
+         BookingWindow.getDefault();
+      } catch (ExceptionInInitializerError eie) {
+         System.err.println(eie.getCause().getMessage());
+         System.exit(2);
+      }
+      InetAddress address = InetAddress.getLoopbackAddress();
+      int port = DEFAULT_PORT;
+      boolean usage = false;
+      boolean portGiven = false;
+      for (int i = 0; i < args.length && !usage; i++) {
+         if (args[i].equals("--bind") && i + 1 < args.length) {
+            try {
+               address = InetAddress.getByName(args[++i]);
+            } catch (UnknownHostException uhe) {
+               usage = true;
+            }
+         } else if (!portGiven) {
+            try {
+               port = Integer.parseInt(args[i]);
+               portGiven = true;
+               usage = (port < 0 || port > MAX_PORT);
+            } catch (NumberFormatException nfe) {
+               usage = true;
+            }
+         } else {
+            usage = true;
+         }
+      }
+      if (usage) {
+         System.err.println("usage: ValidationServer [--bind address] [port]");
+         System.exit(2);
+      }
+      final ValidationServer server = new ValidationServer(address, port);
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+         @Override
+         public void run() {
+            server.stop(1);
+            System.err.println("validate " + server.getLatencies());
+         }
+      });
+      server.start();
+      System.err.println("Validation server listening on "
+                         + address.getHostAddress() + " port "
+                         + server.getPort());
+   }
+}